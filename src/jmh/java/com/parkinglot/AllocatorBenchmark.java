@@ -0,0 +1,72 @@
+package com.parkinglot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the free slot allocators of the parking manager, for every lot
+ * size and occupancy of {@link LotState}: the nearest available slot from the
+ * counts of the AVL Tree and from the hierarchical bitmap, alone and as a park
+ * followed by the exit of the same car.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AllocatorBenchmark {
+
+	private static final String PLATE = "BENCH-1"; // License number of the car parked by the benchmarks
+
+	/**
+	 * A second manager of the lot, allocating from a bitmap of its free slots.
+	 */
+	@State(Scope.Benchmark)
+	public static class BitmapManager {
+
+		ParkingManager manager; // Manager using the bitmap allocator
+
+		/**
+		 * Indexes the lot and builds its bitmap.
+		 */
+		@Setup(Level.Trial)
+		public void setUp(LotState lot) {
+			manager = new ParkingManager();
+			manager.indexParkedCars(lot.root);
+			manager.useBitmapAllocator(lot.root);
+		}
+	}
+
+	@Benchmark
+	public int treeNearestSlot(LotState lot) {
+		return lot.manager.findNearestAvailableSlot(lot.root);
+	}
+
+	@Benchmark
+	public int bitmapNearestSlot(LotState lot, BitmapManager bitmap) {
+		return bitmap.manager.findNearestAvailableSlot(lot.root);
+	}
+
+	@Benchmark
+	public AVLNode treeParkAndVacate(LotState lot) {
+		AVLNode slot = lot.manager.parkCar(lot.root, PLATE);
+		return lot.manager.vacateSlot(lot.root, slot.getSlotNumber());
+	}
+
+	@Benchmark
+	public AVLNode bitmapParkAndVacate(LotState lot, BitmapManager bitmap) {
+		AVLNode slot = bitmap.manager.parkCar(lot.root, PLATE);
+		return bitmap.manager.vacateSlot(lot.root, slot.getSlotNumber());
+	}
+}
@@ -0,0 +1,98 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of a shift of gate activity on a half-occupied lot: 50k reserves,
+ * 50k frees and 60k parks, as single operations with a descent each and as
+ * batches with one walk of the tree each. The shift cannot be undone, so it
+ * runs in single shots on a lot built again before every iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BatchBenchmark {
+
+	/**
+	 * A lot where every even slot holds a car, with the slot numbers and plates
+	 * of the shift. Some slot numbers are listed twice or lie outside the lot,
+	 * and some plates are listed twice.
+	 */
+	@State(Scope.Benchmark)
+	public static class Shift {
+
+		@Param({ "100000" })
+		public int lotSize; // Number of slots, every even one occupied
+
+		ParkingManager manager; // Manager of the parking lot
+		AVLNode root; // Root of the parking lot
+		int[] slotNumbers; // Slots to reserve, then free
+		List<String> cars; // Cars to park
+
+		/**
+		 * Builds the lot and the shift.
+		 */
+		@Setup(Level.Iteration)
+		public void setUp() {
+			List<AVLNode> slots = new ArrayList<>(lotSize);
+			for (int i = 1; i <= lotSize; i++) {
+				boolean occupied = i % 2 == 0;
+				slots.add(new AVLNode(i, occupied ? new Car("CAR" + i, LocalDateTime.now()) : null, !occupied, false));
+			}
+			manager = new ParkingManager();
+			manager.setEventSink(ParkingEventSink.NONE);
+			root = new AVLTree().buildBalanced(slots);
+			manager.indexParkedCars(root);
+
+			Random random = new Random(18);
+			slotNumbers = new int[lotSize / 2];
+			for (int i = 0; i < slotNumbers.length; i++) {
+				slotNumbers[i] = random.nextInt(lotSize + lotSize / 1000);
+			}
+			cars = new ArrayList<>();
+			for (int i = 0; i < lotSize * 3 / 5; i++) {
+				cars.add("BATCH" + random.nextInt(lotSize * 7 / 10));
+			}
+		}
+	}
+
+	@Benchmark
+	public AVLNode singleOperations(Shift shift) {
+		for (int slotNumber : shift.slotNumbers) {
+			shift.manager.holdSlot(shift.root, slotNumber);
+		}
+		for (int slotNumber : shift.slotNumbers) {
+			shift.manager.vacateSlot(shift.root, slotNumber);
+		}
+		for (String car : shift.cars) {
+			shift.manager.parkCar(shift.root, car);
+		}
+		return shift.root;
+	}
+
+	@Benchmark
+	public int[] batches(Shift shift) {
+		shift.manager.reserveSlots(shift.root, shift.slotNumbers);
+		shift.manager.freeSlots(shift.root, shift.slotNumbers);
+		return shift.manager.parkCars(shift.root, shift.cars);
+	}
+}
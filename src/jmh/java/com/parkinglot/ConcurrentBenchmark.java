@@ -0,0 +1,207 @@
+package com.parkinglot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the concurrent parking manager for 1 to 32 gate threads. The
+ * read-mostly mix runs 5% parks, 5% frees, 50% searches, 20% nearest slot
+ * queries and 20% statistics on one lot; the zoned gates reserve and free
+ * random slots of their own floor, on one shared lot and on a lot sharded by
+ * floor. Every invocation splits a fixed number of operations over the gate
+ * threads, so the scores of the thread counts compare directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConcurrentBenchmark {
+
+	static final int OPERATIONS = 20000; // Operations per invocation, over all gate threads
+	static final int ZONE_SLOTS = 5000; // Slots per floor of the zoned gates
+
+	/**
+	 * The gate threads, running the operations of a benchmark together.
+	 */
+	@State(Scope.Benchmark)
+	public abstract static class GateThreads {
+
+		@Param({ "100000" })
+		public int lotSize; // Number of slots
+
+		@Param({ "1", "2", "4", "8", "16", "32" })
+		public int gateThreads; // Threads operating the gates at the same time
+
+		ExecutorService pool; // Gate threads
+
+		/**
+		 * Starts the gate threads.
+		 */
+		@Setup(Level.Trial)
+		public void startGates() {
+			pool = Executors.newFixedThreadPool(gateThreads);
+		}
+
+		/**
+		 * Stops the gate threads.
+		 */
+		@TearDown(Level.Trial)
+		public void stopGates() {
+			pool.shutdownNow();
+		}
+
+		/**
+		 * Runs the operation the given number of times on every gate thread and
+		 * waits for all of them. The operation is given the number of its gate,
+		 * from 0.
+		 */
+		void run(IntConsumer operation) throws InterruptedException, ExecutionException {
+			int operationsPerThread = OPERATIONS / gateThreads;
+			List<Callable<Void>> tasks = new ArrayList<>(gateThreads);
+			for (int t = 0; t < gateThreads; t++) {
+				int gate = t;
+				tasks.add(() -> {
+					for (int i = 0; i < operationsPerThread; i++) {
+						operation.accept(gate);
+					}
+					return null;
+				});
+			}
+			for (Future<Void> task : pool.invokeAll(tasks)) {
+				task.get();
+			}
+		}
+
+		/**
+		 * Builds an empty lot of slots 1 to the lot size.
+		 */
+		AVLNode newLot() {
+			List<AVLNode> slots = new ArrayList<>(lotSize);
+			for (int i = 1; i <= lotSize; i++) {
+				slots.add(new AVLNode(i, null));
+			}
+			return new AVLTree().buildBalanced(slots);
+		}
+	}
+
+	/**
+	 * An empty lot behind the concurrent manager.
+	 */
+	@State(Scope.Benchmark)
+	public static class Gates extends GateThreads {
+
+		ConcurrentParkingManager gates; // Manager shared by the gate threads
+
+		/**
+		 * Builds the lot.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			ParkingManager manager = new ParkingManager();
+			manager.setEventSink(ParkingEventSink.NONE);
+			gates = new ConcurrentParkingManager(manager, newLot());
+		}
+	}
+
+	/**
+	 * An empty lot with floors of 5000 slots, behind one concurrent manager or
+	 * sharded by floor. Gate threads beyond the number of floors share floors.
+	 */
+	@State(Scope.Benchmark)
+	public static class ZonedGates extends GateThreads {
+
+		@Param({ "single", "sharded" })
+		public String layout; // One shared lot, or one shard per floor
+
+		IntPredicate reserve; // Reserves a slot of the lot
+		IntPredicate free; // Frees a slot of the lot
+		int floors; // Number of floors
+
+		/**
+		 * Builds the lot.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			floors = lotSize / ZONE_SLOTS;
+			if (layout.equals("single")) {
+				ParkingManager manager = new ParkingManager();
+				manager.setEventSink(ParkingEventSink.NONE);
+				ConcurrentParkingManager gates = new ConcurrentParkingManager(manager, newLot());
+				reserve = gates::reserveSlot;
+				free = gates::freeSlot;
+			} else {
+				List<ParkingZone> zones = new ArrayList<>(floors);
+				for (int first = 1; first <= lotSize; first += ZONE_SLOTS) {
+					zones.add(new ParkingZone("Level " + (first / ZONE_SLOTS + 1), first, first + ZONE_SLOTS - 1));
+				}
+				ShardedParkingManager sharded = new ShardedParkingManager(newLot(), zones);
+				sharded.setEventSink(ParkingEventSink.NONE);
+				reserve = sharded::reserveSlot;
+				free = sharded::freeSlot;
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public ConcurrentParkingManager readMostlyMix(Gates gates) throws InterruptedException, ExecutionException {
+		ConcurrentParkingManager manager = gates.gates;
+		int lotSize = gates.lotSize;
+		gates.run(gate -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int operation = random.nextInt(100);
+			if (operation < 5) {
+				manager.parkCar("CAR" + operation);
+			} else if (operation < 10) {
+				manager.freeSlot(random.nextInt(1, lotSize + 1));
+			} else if (operation < 60) {
+				manager.search(random.nextInt(1, lotSize + 1));
+			} else if (operation < 80) {
+				manager.findNearestAvailableSlot();
+			} else {
+				manager.getParkingStatistics();
+			}
+		});
+		return manager;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public ZonedGates zonedGates(ZonedGates gates) throws InterruptedException, ExecutionException {
+		gates.run(gate -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int slotNumber = gate % gates.floors * ZONE_SLOTS + random.nextInt(1, ZONE_SLOTS + 1);
+			if (random.nextBoolean()) {
+				gates.reserve.test(slotNumber);
+			} else {
+				gates.free.test(slotNumber);
+			}
+		});
+		return gates;
+	}
+}
@@ -0,0 +1,132 @@
+package com.parkinglot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A parking lot of a given size and occupancy shared by the benchmarks of a
+ * trial. Slots 1 to lotSize are generated by {@link DatasetGenerator} with a
+ * fixed seed, so every run measures the same lot, and built balanced. Parked
+ * cars arrived up to 48 hours ago, so about half of them are older than a day.
+ *
+ * At least one slot is occupied and one is free, so the benchmarks that free
+ * or park a given slot also run on an empty and a full lot.
+ */
+@State(Scope.Benchmark)
+public class LotState {
+
+	static final int KEYS = 4096; // Number of precomputed slot numbers to cycle through
+
+	@Param({ "10000", "100000", "1000000" })
+	public int lotSize; // Number of slots in the parking lot
+
+	@Param({ "0", "50", "99" })
+	public int occupancy; // Percentage of occupied slots
+
+	AVLTree tree; // AVL Tree instance managing the slots
+	ParkingManager manager; // Manager of the parking lot
+	AVLNode root; // Root of the parking lot
+	int[] randomSlots; // Random slot numbers of the lot
+	int[] freeSlots; // Random free slot numbers
+	int[] occupiedSlots; // Random occupied slot numbers
+	String[] occupiedPlates; // License numbers of the cars in occupiedSlots
+	int next; // Position of the next precomputed slot to use
+
+	private PrintStream console; // Console, restored after the trial
+
+	/**
+	 * Silences the console, where the reports of the lot are written, and builds
+	 * the parking lot.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		buildLot();
+	}
+
+	/**
+	 * Restores the console.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(console);
+	}
+
+	/**
+	 * Builds the parking lot and the precomputed slot numbers.
+	 */
+	void buildLot() {
+		int occupied = Math.max(1, Math.min(lotSize - 1, (int) ((long) lotSize * occupancy / 100)));
+		DatasetGenerator generator = new DatasetGenerator(42);
+		generator.setOccupancy((double) occupied / lotSize);
+		generator.setEntryTimes(LocalDateTime.now(), Duration.ofHours(48), DatasetGenerator.StayDistribution.UNIFORM);
+		List<AVLNode> slots = new ArrayList<>(lotSize);
+		int[] parkedSlots = new int[occupied];
+		String[] parkedPlates = new String[occupied];
+		int[] emptySlots = new int[lotSize - occupied];
+		int[] counts = new int[2]; // Parked and empty slots so far
+		generator.generate(lotSize, (slotNumber, car, available, reserved) -> {
+			slots.add(new AVLNode(slotNumber, car, available, reserved));
+			if (available) {
+				emptySlots[counts[1]++] = slotNumber;
+			} else {
+				parkedPlates[counts[0]] = car.getLicenseNumber();
+				parkedSlots[counts[0]++] = slotNumber;
+			}
+		});
+		tree = new AVLTree();
+		manager = new ParkingManager();
+		root = tree.buildBalanced(slots);
+		manager.indexParkedCars(root);
+
+		Random random = new Random(42);
+		randomSlots = new int[KEYS];
+		freeSlots = new int[KEYS];
+		occupiedSlots = new int[KEYS];
+		occupiedPlates = new String[KEYS];
+		for (int i = 0; i < KEYS; i++) {
+			randomSlots[i] = 1 + random.nextInt(lotSize);
+			freeSlots[i] = emptySlots[random.nextInt(emptySlots.length)];
+			int parked = random.nextInt(parkedSlots.length);
+			occupiedSlots[i] = parkedSlots[parked];
+			occupiedPlates[i] = parkedPlates[parked];
+		}
+		next = 0;
+	}
+
+	/**
+	 * Returns the position of the next precomputed slot number.
+	 */
+	int nextKey() {
+		next = (next + 1) & (KEYS - 1);
+		return next;
+	}
+
+	/**
+	 * The same parking lot, built again before every iteration, for the
+	 * benchmarks that change the lot in a way that cannot be undone.
+	 */
+	public static class FreshLot extends LotState {
+
+		/**
+		 * Builds the parking lot again.
+		 */
+		@Setup(Level.Iteration)
+		public void rebuild() {
+			buildLot();
+		}
+	}
+}
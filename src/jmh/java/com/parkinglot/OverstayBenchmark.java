@@ -0,0 +1,221 @@
+package com.parkinglot;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the overstay sweep on a full lot where one car in a thousand
+ * has been parked for more than a day: the manager releasing them from its
+ * entry time index, and the AVL Tree scanning every slot. The overstay sweeper
+ * is measured on a full lot whose cars arrived over the last two days:
+ * scheduling the deadline of every car in its timing wheel, and ticking a
+ * minute at a time through the day that releases them all. Releasing cannot be
+ * undone, so it runs in single shots on a lot built again before every
+ * iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OverstayBenchmark {
+
+	private static final long MINUTE = 60000L; // Tick of the sweeper in milliseconds
+
+	/**
+	 * A full lot where every thousandth car arrived 48 hours ago and the others
+	 * within the last 10 hours, indexed by the manager.
+	 */
+	@State(Scope.Benchmark)
+	public static class FullLot {
+
+		@Param({ "100000", "1000000" })
+		public int lotSize; // Number of slots, all occupied
+
+		AVLTree tree; // AVL Tree instance managing the slots
+		ParkingManager manager; // Manager of the parking lot
+		AVLNode root; // Root of the parking lot
+
+		private PrintStream console; // Console, restored after the trial
+
+		/**
+		 * Silences the console, where the tree reports every released car.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			console = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		}
+
+		/**
+		 * Builds the lot.
+		 */
+		@Setup(Level.Iteration)
+		public void buildLot() {
+			LocalDateTime now = LocalDateTime.now();
+			List<AVLNode> slots = new ArrayList<>(lotSize);
+			for (int i = 1; i <= lotSize; i++) {
+				LocalDateTime entryTime = i % 1000 == 0 ? now.minusHours(48) : now.minusMinutes(i % 600);
+				slots.add(new AVLNode(i, new Car("CAR" + i, entryTime), false, false));
+			}
+			tree = new AVLTree();
+			manager = new ParkingManager();
+			root = tree.buildBalanced(slots);
+			manager.indexParkedCars(root);
+		}
+
+		/**
+		 * Restores the console.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * A full lot behind the concurrent manager, with an overstay sweeper limiting
+	 * every slot to 24 hours on a clock the benchmarks move by hand.
+	 */
+	@State(Scope.Benchmark)
+	public abstract static class Sweep {
+
+		@Param({ "100000", "1000000" })
+		public int lotSize; // Number of slots, all occupied
+
+		ConcurrentParkingManager gates; // Gates whose cars are released
+		OverstaySweeper sweeper; // Sweeper of the lot
+		ManualClock clock; // Clock of the sweeper
+
+		/**
+		 * Builds the lot and the sweeper, with no deadline scheduled yet.
+		 */
+		void buildLot() {
+			clock = new ManualClock();
+			LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), clock.getZone());
+			Random random = new Random(42);
+			List<AVLNode> slots = new ArrayList<>(lotSize);
+			for (int i = 1; i <= lotSize; i++) {
+				slots.add(new AVLNode(i, new Car("CAR" + i, now.minusSeconds(random.nextInt(48 * 3600))), false,
+						false));
+			}
+			ParkingManager manager = new ParkingManager();
+			manager.setEventSink(ParkingEventSink.NONE);
+			AVLNode root = new AVLTree().buildBalanced(slots);
+			manager.indexParkedCars(root);
+			gates = new ConcurrentParkingManager(manager, root);
+			sweeper = new OverstaySweeper(gates, new TreeMap<>(Map.of(1, 24)), MINUTE, clock);
+		}
+	}
+
+	/**
+	 * The swept lot, built again before every iteration.
+	 */
+	@State(Scope.Benchmark)
+	public static class SweptLot extends Sweep {
+
+		/**
+		 * Builds the lot.
+		 */
+		@Setup(Level.Iteration)
+		public void setUp() {
+			buildLot();
+		}
+	}
+
+	/**
+	 * The swept lot with the deadline of every car scheduled, built again before
+	 * every iteration.
+	 */
+	@State(Scope.Benchmark)
+	public static class ScheduledLot extends Sweep {
+
+		/**
+		 * Builds the lot and schedules its deadlines.
+		 */
+		@Setup(Level.Iteration)
+		public void setUp() {
+			buildLot();
+			gates.setParkingListener(sweeper);
+		}
+	}
+
+	/**
+	 * Clock that only moves when a benchmark advances it, starting on a minute.
+	 */
+	static class ManualClock extends Clock {
+
+		private long millis = System.currentTimeMillis() / MINUTE * MINUTE; // Current time
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.systemDefault();
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public OverstaySweeper wheelSchedule(SweptLot lot) {
+		lot.gates.setParkingListener(lot.sweeper);
+		return lot.sweeper;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public OverstaySweeper wheelFireDay(ScheduledLot lot) {
+		for (int minute = 0; minute <= 24 * 60; minute++) {
+			lot.sweeper.tick();
+			lot.clock.millis += MINUTE;
+		}
+		return lot.sweeper;
+	}
+
+	@Benchmark
+	public AVLNode entryTimeIndex(FullLot lot) {
+		return lot.manager.releaseOldCars(lot.root, 24);
+	}
+
+	@Benchmark
+	public AVLNode fullScan(FullLot lot) {
+		return lot.tree.releaseOldCars(lot.root, 24);
+	}
+}
@@ -0,0 +1,179 @@
+package com.parkinglot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of saving and loading a whole parking lot, as the CLI does at
+ * exit and start: the streaming XLSX reader against the workbook reader it
+ * replaced, the streaming XLSX writer against the workbook writer, and the
+ * binary snapshot. Each call is measured once per iteration; run with
+ * {@code -prof gc} to compare the heap the readers and writers allocate.
+ *
+ * Journaling a run of parks is measured both with an fsync per park and with
+ * one group commit for the whole run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = 1)
+@Measurement(iterations = 3, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersistenceBenchmark {
+
+	private static final int JOURNAL_RUN = 100; // Parks journaled per invocation
+
+	/**
+	 * Files the parking lot is saved to and loaded from.
+	 */
+	@State(Scope.Benchmark)
+	public static class LotFiles {
+
+		Path directory; // Temporary directory of the files
+		String xlsxFile; // XLSX file of the lot
+		String workbookFile; // XLSX file saved by the workbook writer
+		String snapshotFile; // Snapshot file of the lot
+
+		/**
+		 * Saves the lot once, so the loaders have a file to read.
+		 */
+		@Setup(Level.Trial)
+		public void setUp(LotState lot) throws IOException {
+			directory = Files.createTempDirectory("parking-bench");
+			xlsxFile = directory.resolve("lot.xlsx").toString();
+			workbookFile = directory.resolve("workbook.xlsx").toString();
+			snapshotFile = directory.resolve("lot.snap").toString();
+			lot.manager.saveParkingSlotsStreaming(xlsxFile, lot.root);
+			lot.manager.saveSnapshot(snapshotFile, lot.root);
+		}
+
+		/**
+		 * Deletes the files.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			try (Stream<Path> paths = Files.list(directory)) {
+				for (Path path : (Iterable<Path>) paths::iterator) {
+					Files.delete(path);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	/**
+	 * A journal appending to a temporary file, never compacted.
+	 */
+	@State(Scope.Benchmark)
+	public static class JournalFile {
+
+		Path directory; // Temporary directory of the journal
+		SlotJournal journal; // Journal of the parks
+		Car car; // Car parked by every record
+
+		/**
+		 * Opens the journal.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			directory = Files.createTempDirectory("parking-journal-bench");
+			journal = new SlotJournal(directory.resolve("lot.journal"), directory.resolve("lot.snap"), 5,
+					Long.MAX_VALUE);
+			car = new Car("BENCH-1", LocalDateTime.now());
+		}
+
+		/**
+		 * Closes the journal and deletes its file.
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			journal.close();
+			try (Stream<Path> paths = Files.list(directory)) {
+				for (Path path : (Iterable<Path>) paths::iterator) {
+					Files.delete(path);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 3, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	@OperationsPerInvocation(JOURNAL_RUN)
+	public long journalFsyncPerPark(JournalFile file) throws IOException {
+		long sequence = 0;
+		for (int i = 0; i < JOURNAL_RUN; i++) {
+			sequence = file.journal.logPark(i, file.car);
+			file.journal.awaitDurable(sequence);
+		}
+		return sequence;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 3, time = 1)
+	@Measurement(iterations = 5, time = 1)
+	@OperationsPerInvocation(JOURNAL_RUN)
+	public long journalGroupCommit(JournalFile file) throws IOException {
+		long sequence = 0;
+		for (int i = 0; i < JOURNAL_RUN; i++) {
+			sequence = file.journal.logPark(i, file.car);
+		}
+		file.journal.awaitDurable(sequence);
+		return sequence;
+	}
+
+	@Benchmark
+	public String saveXlsxWorkbook(LotState lot, LotFiles files) {
+		lot.manager.saveParkingSlotsToFile(files.workbookFile, lot.root);
+		return files.workbookFile;
+	}
+
+	@Benchmark
+	public String saveXlsx(LotState lot, LotFiles files) {
+		lot.manager.saveParkingSlotsStreaming(files.xlsxFile, lot.root);
+		return files.xlsxFile;
+	}
+
+	@Benchmark
+	public AVLNode loadXlsxWorkbook(LotFiles files) {
+		return new ParkingManager().loadParkingSlotsFromFile(files.xlsxFile, new AVLTree());
+	}
+
+	@Benchmark
+	public AVLNode loadXlsx(LotFiles files) {
+		return new ParkingManager().loadParkingSlotsStreaming(files.xlsxFile, new AVLTree());
+	}
+
+	@Benchmark
+	public String saveSnapshot(LotState lot, LotFiles files) {
+		lot.manager.saveSnapshot(files.snapshotFile, lot.root);
+		return files.snapshotFile;
+	}
+
+	@Benchmark
+	public AVLNode loadSnapshot(LotFiles files) {
+		return new ParkingManager().loadSnapshot(files.snapshotFile, new AVLTree());
+	}
+}
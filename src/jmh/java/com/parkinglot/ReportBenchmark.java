@@ -0,0 +1,53 @@
+package com.parkinglot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the status and availability reports, for every lot size and
+ * occupancy of {@link LotState}: the full reports, and one page of 500 slots
+ * starting at a random slot, with every slot and with the reserved slots only.
+ * The console is silenced by the lot, so the reports are rendered and written
+ * but not shown.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReportBenchmark {
+
+	private static final int PAGE_SIZE = 500; // Slots per page
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public AVLNode fullStatusReport(LotState lot) {
+		lot.manager.displayParkingStatus(lot.root);
+		return lot.root;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public AVLNode fullAvailabilityReport(LotState lot) {
+		lot.manager.displaySlots(lot.root);
+		return lot.root;
+	}
+
+	@Benchmark
+	public int statusPage(LotState lot) {
+		return lot.manager.displayParkingStatus(lot.root, lot.randomSlots[lot.nextKey()], PAGE_SIZE, null);
+	}
+
+	@Benchmark
+	public int reservedStatusPage(LotState lot) {
+		return lot.manager.displayParkingStatus(lot.root, lot.randomSlots[lot.nextKey()], PAGE_SIZE,
+				SlotStatus.RESERVED);
+	}
+}
@@ -0,0 +1,147 @@
+package com.parkinglot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the end-of-day revenue of a fully occupied lot: a fee
+ * calculation per slot, the hours of every car counted with
+ * {@code ChronoUnit.HOURS.between} on a sequential and a parallel stream, and
+ * a tiered, capped tariff billed hour by hour and by the tariff engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RevenueBenchmark {
+
+	private static final double HOURLY_RATE = 2.5; // Rate of the flat fees
+
+	/**
+	 * A lot with a car in every slot, parked up to three days before a fixed
+	 * time, mostly for a few hours.
+	 */
+	@State(Scope.Benchmark)
+	public static class OccupiedLot {
+
+		@Param({ "1000000" })
+		public int lotSize; // Number of slots, all occupied
+
+		AVLTree tree; // AVL Tree instance managing the slots
+		ParkingManager manager; // Manager of the parking lot
+		AVLNode root; // Root of the parking lot
+		LocalDateTime now; // Time the fees are calculated at
+		Tariff tariff; // Tiered tariff with a daily cap
+		long[] hourCents; // Rate of each hour of a day under the tariff, in cents
+
+		/**
+		 * Builds the parking lot and the tariff.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			now = LocalDateTime.of(2024, 6, 1, 23, 59);
+			DatasetGenerator generator = new DatasetGenerator(42);
+			generator.setOccupancy(1);
+			generator.setEntryTimes(now, Duration.ofHours(8), DatasetGenerator.StayDistribution.EXPONENTIAL);
+			List<AVLNode> slots = new ArrayList<>(lotSize);
+			generator.generate(lotSize, (slotNumber, car, available, reserved) -> slots
+					.add(new AVLNode(slotNumber, car, available, reserved)));
+			tree = new AVLTree();
+			manager = new ParkingManager();
+			root = tree.buildBalanced(slots);
+			manager.indexParkedCars(root);
+			// First hour 3.00, next two 2.50, then 1.50, at most 20.00 a day
+			tariff = new Tariff(new int[] { 0, 1, 3 }, new double[] { 3.0, 2.5, 1.5 }, 20);
+			hourCents = new long[Tariff.HOURS_PER_DAY];
+			for (int hour = 0; hour < hourCents.length; hour++) {
+				hourCents[hour] = hour < 1 ? 300 : hour < 3 ? 250 : 150;
+			}
+		}
+	}
+
+	/**
+	 * Calls calculateParkingFee for every slot, as finance would without a batch
+	 * report.
+	 */
+	@Benchmark
+	public double perSlotFees(OccupiedLot lot) {
+		double revenue = 0;
+		for (int slotNumber = 1; slotNumber <= lot.lotSize; slotNumber++) {
+			revenue += lot.manager.calculateParkingFee(lot.root, slotNumber, HOURLY_RATE);
+		}
+		return revenue;
+	}
+
+	/**
+	 * Counts the hours of every car with ChronoUnit.HOURS.between on a
+	 * sequential stream.
+	 */
+	@Benchmark
+	public double sequentialChronoUnitRevenue(OccupiedLot lot) {
+		LocalDateTime now = lot.now;
+		long hours = lot.tree.stream(lot.root).filter(slot -> !slot.isAvailable())
+				.mapToLong(slot -> ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), now)).sum();
+		return hours * HOURLY_RATE;
+	}
+
+	/**
+	 * Counts the hours of every car with ChronoUnit.HOURS.between on a parallel
+	 * stream, as calculateRevenue did before the tariff engine.
+	 */
+	@Benchmark
+	public double chronoUnitRevenue(OccupiedLot lot) {
+		LocalDateTime now = lot.now;
+		long hours = lot.tree.parallelStream(lot.root).filter(slot -> !slot.isAvailable())
+				.mapToLong(slot -> ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), now)).sum();
+		return hours * HOURLY_RATE;
+	}
+
+	/**
+	 * Bills the tiered, capped tariff by walking the hours of every day of every
+	 * stay, as a tariff without compiled day fees would.
+	 */
+	@Benchmark
+	public long hourByHourRevenue(OccupiedLot lot) {
+		LocalDateTime now = lot.now;
+		return lot.tree.stream(lot.root).filter(slot -> !slot.isAvailable()).mapToLong(slot -> {
+			long parked = ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), now);
+			long cents = 0;
+			for (long day = 0; day * Tariff.HOURS_PER_DAY < parked; day++) {
+				long dayCents = 0;
+				for (int hour = 0; hour < Math.min(Tariff.HOURS_PER_DAY, parked - day * Tariff.HOURS_PER_DAY); hour++) {
+					dayCents += lot.hourCents[hour];
+				}
+				cents += Math.min(dayCents, 2000);
+			}
+			return cents;
+		}).sum();
+	}
+
+	@Benchmark
+	public RevenueReport flatTariffRevenue(OccupiedLot lot) {
+		return lot.manager.calculateRevenue(lot.root, Tariff.flat(HOURLY_RATE), lot.now);
+	}
+
+	@Benchmark
+	public RevenueReport tieredTariffRevenue(OccupiedLot lot) {
+		return lot.manager.calculateRevenue(lot.root, lot.tariff, lot.now);
+	}
+}
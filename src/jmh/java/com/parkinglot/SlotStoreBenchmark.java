@@ -0,0 +1,71 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the AVL and primitive slot stores on a half-occupied lot:
+ * every car leaves, then as many cars park in the nearest available slots.
+ * Parking fills the lot from its lowest slot, so the cycle runs in single shots
+ * on a store built again before every iteration.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SlotStoreBenchmark {
+
+	/**
+	 * A store where every even slot holds a car.
+	 */
+	@State(Scope.Benchmark)
+	public static class HalfOccupiedStore {
+
+		@Param({ "1000000" })
+		public int lotSize; // Number of slots, every even one occupied
+
+		@Param({ "avl", "primitive" })
+		public String layout; // Store implementation
+
+		SlotStore store; // Store of the parking lot
+		LocalDateTime entryTime; // Entry time of every car
+
+		/**
+		 * Builds the store.
+		 */
+		@Setup(Level.Iteration)
+		public void setUp() {
+			entryTime = LocalDateTime.of(2025, 3, 17, 8, 0);
+			store = layout.equals("avl") ? new AvlSlotStore() : new PrimitiveSlotStore(lotSize);
+			for (int i = 1; i <= lotSize; i++) {
+				boolean occupied = i % 2 == 0;
+				store.addSlot(i, occupied ? new Car("CAR" + i, entryTime.plusMinutes(i)) : null, !occupied, false);
+			}
+		}
+	}
+
+	@Benchmark
+	public SlotStore freeAndPark(HalfOccupiedStore lot) {
+		for (int i = 2; i <= lot.lotSize; i += 2) {
+			lot.store.freeSlot(i);
+		}
+		for (int i = 2; i <= lot.lotSize; i += 2) {
+			lot.store.parkCar("NEW" + i, lot.entryTime);
+		}
+		return lot.store;
+	}
+}
@@ -0,0 +1,229 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the slot operations of the AVL Tree and the parking manager,
+ * for every lot size and occupancy of {@link LotState}. Finding a car by its
+ * plate is measured both through the plate index and by a walk of the slots.
+ *
+ * Operations that change the lot are measured in pairs that undo each other
+ * (park then free, free then park again, reserve then cancel), so the lot stays
+ * at its occupancy however many times they run. Inserting slots and releasing
+ * old cars cannot be undone; they run in single shots on a lot built again
+ * before every iteration. Building a whole lot in one pass is compared with
+ * inserting its slots one by one, also in single shots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TreeBenchmark {
+
+	private static final String PLATE = "BENCH-1"; // License number of the car parked by the benchmarks
+	private static final int INSERTS = 1000; // Slots inserted per single shot
+	private static final int ZONE_SIZE = 5000; // Slots per zone counted
+	private static final Car CAR = new Car(PLATE, LocalDateTime.now()); // Car parked by the descent benchmarks
+
+	@Benchmark
+	public AVLNode search(LotState lot) {
+		return lot.tree.search(lot.root, lot.randomSlots[lot.nextKey()]);
+	}
+
+	@Benchmark
+	public int findNearestAvailableSlot(LotState lot) {
+		return lot.tree.findNearestAvailableSlot(lot.root);
+	}
+
+	@Benchmark
+	public int findNearestAvailableSlotToTarget(LotState lot) {
+		return lot.tree.findNearestAvailableSlot(lot.root, lot.randomSlots[lot.nextKey()]);
+	}
+
+	/**
+	 * Counts a zone of 5000 slots from its subtree counts, as a floor display
+	 * does.
+	 */
+	@Benchmark
+	public ParkingStatistics zoneStatistics(LotState lot) {
+		int firstSlot = lot.randomSlots[lot.nextKey()];
+		return lot.manager.getZoneStatistics(lot.root, new ParkingZone("Zone", firstSlot, firstSlot + ZONE_SIZE - 1));
+	}
+
+	@Benchmark
+	public AVLNode findSlotByPlate(LotState lot) {
+		return lot.manager.findSlotByPlate(lot.occupiedPlates[lot.nextKey()]);
+	}
+
+	/**
+	 * Finds a car by walking the slots in order, as find-my-car did before the
+	 * plate index.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public AVLNode scanForPlate(LotState lot) {
+		String plate = lot.occupiedPlates[lot.nextKey()];
+		return lot.tree.stream(lot.root).filter(slot -> slot.getCarDetails() != null
+				&& slot.getCarDetails().getLicenseNumber().equals(plate)).findFirst().orElse(null);
+	}
+
+	/**
+	 * Parks a car in the nearest free slot and frees it again as three separate
+	 * descents each way: find, update, then search for the slot to set its car.
+	 */
+	@Benchmark
+	public AVLNode threeDescentParkAndFree(LotState lot) {
+		AVLTree tree = lot.tree;
+		int slotNumber = tree.findNearestAvailableSlot(lot.root);
+		AVLNode root = tree.updateAvailability(lot.root, slotNumber, false);
+		tree.search(root, slotNumber).setCarDetails(CAR);
+		tree.search(root, slotNumber).setCarDetails(null);
+		return tree.updateAvailability(root, slotNumber, true);
+	}
+
+	/**
+	 * Parks a car in the nearest free slot and frees it again with one descent
+	 * each way, refreshing the counts along the recorded path.
+	 */
+	@Benchmark
+	public AVLNode singleDescentParkAndFree(LotState lot) {
+		SlotPath path = lot.tree.findNearestAvailablePath(lot.root);
+		AVLNode slot = path.getSlot();
+		slot.setCarDetails(CAR);
+		slot.setAvailable(false);
+		path.refreshCounts();
+		path = lot.tree.findPath(lot.root, slot.getSlotNumber());
+		path.getSlot().setCarDetails(null);
+		path.getSlot().setAvailable(true);
+		path.refreshCounts();
+		return slot;
+	}
+
+	@Benchmark
+	public AVLNode assignParkingSlotAndFree(LotState lot) {
+		lot.manager.assignParkingSlot(lot.root, PLATE);
+		return lot.manager.freeByPlate(lot.root, PLATE);
+	}
+
+	@Benchmark
+	public AVLNode freeSlotAndPark(LotState lot) {
+		int key = lot.nextKey();
+		lot.manager.freeSlot(lot.root, lot.occupiedSlots[key]);
+		return lot.manager.parkCarNear(lot.root, lot.occupiedPlates[key], lot.occupiedSlots[key]);
+	}
+
+	@Benchmark
+	public AVLNode reserveSlotAndCancel(LotState lot) {
+		int slotNumber = lot.freeSlots[lot.nextKey()];
+		lot.manager.reserveSlot(lot.root, slotNumber);
+		return lot.tree.updateReservation(lot.root, slotNumber, false);
+	}
+
+	@Benchmark
+	public ParkingStatistics getParkingStatistics(LotState lot) {
+		return lot.manager.getParkingStatistics(lot.root);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ParkingStatistics recountParkingStatistics(LotState lot) {
+		return lot.manager.recountParkingStatistics(lot.root);
+	}
+
+	/**
+	 * Records a timed operation in the manager's metrics, as every park, free,
+	 * reserve and fee calculation does.
+	 */
+	@Benchmark
+	public ParkingMetrics recordOperation(LotState lot) {
+		ParkingMetrics metrics = lot.manager.getMetrics();
+		metrics.record(ParkingMetrics.Operation.PARK, System.nanoTime(), lot.root);
+		return metrics;
+	}
+
+	/**
+	 * Inserts slots numbered above the lot, spread over a range as large as the
+	 * lot so they land all over the right half of the tree.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 5, batchSize = 1)
+	@Measurement(iterations = 10, batchSize = 1)
+	public AVLNode insert(LotState.FreshLot lot) {
+		AVLNode root = lot.root;
+		for (int i = 0; i < INSERTS; i++) {
+			root = lot.tree.insert(root, lot.lotSize + 1 + (int) (i * 7919L % lot.lotSize), null);
+		}
+		lot.root = root;
+		return root;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 3, batchSize = 1)
+	@Measurement(iterations = 5, batchSize = 1)
+	public AVLNode releaseOldCars(LotState.FreshLot lot) {
+		return lot.manager.releaseOldCars(lot.root, 24);
+	}
+
+	/**
+	 * Sorted slot numbers from 1 to lotSize, every even slot available.
+	 */
+	@State(Scope.Benchmark)
+	public static class SortedSlots {
+
+		@Param({ "100000", "1000000" })
+		public int lotSize; // Number of slots to build the tree from
+	}
+
+	/**
+	 * Builds a lot from its sorted slots in one pass, as the loaders do.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 3, batchSize = 1)
+	@Measurement(iterations = 5, batchSize = 1)
+	public AVLNode buildBalanced(SortedSlots slots) {
+		List<AVLNode> nodes = new ArrayList<>(slots.lotSize);
+		for (int i = 1; i <= slots.lotSize; i++) {
+			nodes.add(new AVLNode(i, null, i % 2 == 0, false));
+		}
+		return new AVLTree().buildBalanced(nodes);
+	}
+
+	/**
+	 * Builds the same lot by inserting its slots one by one, as the loaders did
+	 * before the bulk build.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 3, batchSize = 1)
+	@Measurement(iterations = 5, batchSize = 1)
+	public AVLNode insertOneByOne(SortedSlots slots) {
+		AVLTree tree = new AVLTree();
+		AVLNode root = null;
+		for (int i = 1; i <= slots.lotSize; i++) {
+			root = tree.insert(root, i, null, i % 2 == 0, false);
+		}
+		return root;
+	}
+}
@@ -14,6 +14,9 @@ public class AVLNode {
 	private boolean reserved; // Indicates if the slot is reserved
 	private AVLNode leftChild; // Left child node in the AVL Tree
 	private AVLNode rightChild; // Right child node in the AVL Tree
+	private int availableCount; // Available slots in the subtree rooted here
+	private int reservedCount; // Available and reserved slots in the subtree rooted here
+	private int size; // Number of slots in the subtree rooted here
 
 	/**
 	 * Constructor to initialize an AVL Node (parking slot). By default, the slot is
@@ -30,6 +33,25 @@ public class AVLNode {
 		this.height = 1; // New node is initially at height 1
 		this.leftChild = null;
 		this.rightChild = null;
+		this.availableCount = 1; // A new slot is available and not reserved
+		this.reservedCount = 0;
+		this.size = 1;
+	}
+
+	/**
+	 * Constructor to initialize an AVL Node (parking slot) with a given status, so
+	 * loaders do not need to update the status after insertion.
+	 *
+	 * @param slotNumber Unique slot number.
+	 * @param carDetails Car parked in the slot (null if empty).
+	 * @param available  Indicates if the slot is available.
+	 * @param reserved   Indicates if the slot is reserved.
+	 */
+	public AVLNode(int slotNumber, Car carDetails, boolean available, boolean reserved) {
+		this(slotNumber, carDetails);
+		this.available = available;
+		this.reserved = reserved;
+		updateCounts();
 	}
 
 	// Getter and Setter methods for slot number
@@ -94,6 +116,19 @@ public class AVLNode {
 		this.rightChild = rightChild;
 	}
 
+	// Getter methods for the subtree aggregates (maintained by updateCounts)
+	public int getAvailableCount() {
+		return availableCount;
+	}
+
+	public int getReservedCount() {
+		return reservedCount;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
 	/**
 	 * Returns a string representation of the parking slot. Includes slot number,
 	 * availability, reservation status, and car details (if any).
@@ -114,4 +149,17 @@ public class AVLNode {
 		this.height = 1 + Math.max(this.leftChild == null ? 0 : this.leftChild.getHeight(),
 				this.rightChild == null ? 0 : this.rightChild.getHeight());
 	}
+
+	/**
+	 * Updates the size and the available and reserved slot counts of the subtree
+	 * rooted at this node from its own status and its children's counts. Must be called whenever
+	 * the node's status or children change, bottom-up along the affected path.
+	 */
+	public void updateCounts() {
+		this.availableCount = (available ? 1 : 0) + (leftChild == null ? 0 : leftChild.availableCount)
+				+ (rightChild == null ? 0 : rightChild.availableCount);
+		this.reservedCount = (available && reserved ? 1 : 0) + (leftChild == null ? 0 : leftChild.reservedCount)
+				+ (rightChild == null ? 0 : rightChild.reservedCount);
+		this.size = 1 + (leftChild == null ? 0 : leftChild.size) + (rightChild == null ? 0 : rightChild.size);
+	}
 }
@@ -1,9 +1,19 @@
 package com.parkinglot;
 
+import java.io.OutputStreamWriter;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AVLTree class represents a self-balancing binary search tree (AVL Tree) used
@@ -11,6 +21,19 @@ import java.util.List;
  */
 public class AVLTree {
 
+	private ParkingEventSink eventSink = AsyncEventSink.shared(); // Receiver of slots not found and cars released
+
+	/**
+	 * Sets the sink receiving the slots the updates did not find and the cars
+	 * released for staying too long, in place of the messages printed before. By
+	 * default they go to the shared {@link AsyncEventSink}.
+	 *
+	 * @param eventSink The sink receiving the events.
+	 */
+	public void setEventSink(ParkingEventSink eventSink) {
+		this.eventSink = eventSink;
+	}
+
 	/**
 	 * Inserts a new parking slot into the AVL Tree while maintaining balance.
 	 *
@@ -20,22 +43,39 @@ public class AVLTree {
 	 * @return The updated AVL Tree root node after insertion.
 	 */
 	public AVLNode insert(AVLNode node, int slotNumber, Car carDetails) {
+		return insert(node, slotNumber, carDetails, true, false);
+	}
+
+	/**
+	 * Inserts a new parking slot with the given status into the AVL Tree while
+	 * maintaining balance. Setting the status on creation saves the separate
+	 * availability and reservation updates a loader would otherwise need.
+	 *
+	 * @param node       Current node in the AVL Tree.
+	 * @param slotNumber The slot number to be inserted.
+	 * @param carDetails Car object if a car is parked in the slot, otherwise null.
+	 * @param available  Indicates if the slot is available.
+	 * @param reserved   Indicates if the slot is reserved.
+	 * @return The updated AVL Tree root node after insertion.
+	 */
+	public AVLNode insert(AVLNode node, int slotNumber, Car carDetails, boolean available, boolean reserved) {
 
 		// Base case: If the node is null, create a new AVLNode.
 		if (node == null) {
-			return new AVLNode(slotNumber, carDetails);
+			return new AVLNode(slotNumber, carDetails, available, reserved);
 		}
 
 		// Standard BST insert operation
 		if (node.getSlotNumber() < slotNumber) {
-			node.setRightChild(insert(node.getRightChild(), slotNumber, carDetails));
+			node.setRightChild(insert(node.getRightChild(), slotNumber, carDetails, available, reserved));
 		} else if (node.getSlotNumber() > slotNumber) {
-			node.setLeftChild(insert(node.getLeftChild(), slotNumber, carDetails));
+			node.setLeftChild(insert(node.getLeftChild(), slotNumber, carDetails, available, reserved));
 		} else
 			return node; // Duplicate slot numbers are not allowed.
 
-		// Update the height of the node after insertion
+		// Update the height and subtree counts of the node after insertion
 		node.updateHeight();
+		node.updateCounts();
 
 		// Get the balance factor to check if rebalancing is needed
 		int balanceFactor = getBalanceFactor(node);
@@ -63,6 +103,71 @@ public class AVLTree {
 		return node;
 	}
 
+	/**
+	 * Builds a perfectly balanced AVL Tree from detached slot nodes in O(n).
+	 * 
+	 * Saved parking lots are already in ascending slot order, so the middle node
+	 * of every range simply becomes the root of that range and no rotation is
+	 * needed. Input that is not strictly ascending is sorted first (stably, so
+	 * the first of several nodes with the same slot number is kept, as insert
+	 * would do).
+	 *
+	 * @param slots Slot nodes created with their status; their children are
+	 *              overwritten.
+	 * @return The root node of the new AVL Tree, or null if there are no slots.
+	 */
+	public AVLNode buildBalanced(List<AVLNode> slots) {
+		List<AVLNode> sorted = slots;
+		if (!isStrictlyAscending(slots)) {
+			sorted = new ArrayList<>(slots);
+			sorted.sort(Comparator.comparingInt(AVLNode::getSlotNumber));
+			int unique = 0;
+			for (AVLNode slot : sorted) {
+				if (unique == 0 || sorted.get(unique - 1).getSlotNumber() != slot.getSlotNumber()) {
+					sorted.set(unique++, slot);
+				}
+			}
+			sorted = sorted.subList(0, unique);
+		}
+		return buildBalanced(sorted, 0, sorted.size() - 1);
+	}
+
+	/**
+	 * Links the nodes of a sorted range into a balanced subtree.
+	 *
+	 * @param slots The sorted slot nodes.
+	 * @param low   Index of the first node of the range.
+	 * @param high  Index of the last node of the range.
+	 * @return The root node of the subtree, or null for an empty range.
+	 */
+	private AVLNode buildBalanced(List<AVLNode> slots, int low, int high) {
+		if (low > high)
+			return null;
+
+		int mid = (low + high) >>> 1;
+		AVLNode node = slots.get(mid);
+		node.setLeftChild(buildBalanced(slots, low, mid - 1));
+		node.setRightChild(buildBalanced(slots, mid + 1, high));
+		node.updateHeight();
+		node.updateCounts();
+		return node;
+	}
+
+	/**
+	 * Checks if the slot numbers of the nodes are strictly ascending.
+	 *
+	 * @param slots The slot nodes to check.
+	 * @return True if every slot number is greater than the previous one.
+	 */
+	private boolean isStrictlyAscending(List<AVLNode> slots) {
+		for (int i = 1; i < slots.size(); i++) {
+			if (slots.get(i - 1).getSlotNumber() >= slots.get(i).getSlotNumber()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Searches for a parking slot by slot number in the AVL Tree.
 	 *
@@ -71,14 +176,58 @@ public class AVLTree {
 	 * @return The AVLNode containing the slot number, or null if not found.
 	 */
 	public AVLNode search(AVLNode node, int slotNumber) {
-		if (node == null || slotNumber == node.getSlotNumber()) {
-			return node;
+		while (node != null && slotNumber != node.getSlotNumber()) {
+			node = slotNumber < node.getSlotNumber() ? node.getLeftChild() : node.getRightChild();
 		}
-		if (slotNumber < node.getSlotNumber()) {
-			return search(node.getLeftChild(), slotNumber);
+		return node;
+	}
+
+	/**
+	 * Searches for a parking slot and records every node visited on the way, so
+	 * the slot can be changed and its ancestors' counts refreshed without another
+	 * descent.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param slotNumber The slot number to search for.
+	 * @return The path to the slot; its slot is null if the slot was not found.
+	 */
+	public SlotPath findPath(AVLNode root, int slotNumber) {
+		SlotPath path = new SlotPath(getHeight(root));
+		AVLNode node = root;
+		while (node != null) {
+			path.add(node);
+			if (slotNumber == node.getSlotNumber()) {
+				path.markFound();
+				break;
+			}
+			node = slotNumber < node.getSlotNumber() ? node.getLeftChild() : node.getRightChild();
 		}
-		return search(node.getRightChild(), slotNumber);
+		return path;
+	}
 
+	/**
+	 * Finds the nearest (lowest-numbered) available parking slot and records the
+	 * path to it, skipping subtrees without available slots.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The path to the slot; its slot is null if no slot is available.
+	 */
+	public SlotPath findNearestAvailablePath(AVLNode root) {
+		SlotPath path = new SlotPath(getHeight(root));
+		AVLNode node = root != null && root.getAvailableCount() > 0 ? root : null;
+		while (node != null) {
+			path.add(node);
+			AVLNode left = node.getLeftChild();
+			if (left != null && left.getAvailableCount() > 0) {
+				node = left;
+			} else if (node.isAvailable()) {
+				path.markFound();
+				break;
+			} else {
+				node = node.getRightChild();
+			}
+		}
+		return path;
 	}
 
 	/**
@@ -137,7 +286,9 @@ public class AVLTree {
 		mid.setLeftChild(node);
 
 		node.updateHeight();
+		node.updateCounts();
 		mid.updateHeight();
+		mid.updateCounts();
 		return mid;
 	}
 
@@ -150,7 +301,9 @@ public class AVLTree {
 		mid.setRightChild(node);
 
 		node.updateHeight();
+		node.updateCounts();
 		mid.updateHeight();
+		mid.updateCounts();
 		return mid;
 	}
 
@@ -193,32 +346,406 @@ public class AVLTree {
 	 * @param node The root node of the subtree to traverse.
 	 */
 	public void printOrderTraversal(AVLNode node) {
+		iterator(node).forEachRemaining(slot -> System.out.println(slot.toString()));
+	}
 
-		if (node == null)
-			return;
-		printOrderTraversal(node.getLeftChild());
-		System.out.println(node.toString());
-		printOrderTraversal(node.getRightChild());
+	/**
+	 * Returns a lazy iterator over the slots of the AVL tree in ascending slot
+	 * order. It keeps only the path to the next slot, so it never recurses and
+	 * can be abandoned at any point. The tree must not change while it is
+	 * iterated.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return An iterator over every slot.
+	 */
+	public Iterator<AVLNode> iterator(AVLNode root) {
+		return new SlotIterator(root, Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns a sequential stream of the slots of the AVL tree in ascending slot
+	 * order. The tree must not change while the stream runs.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return A stream of every slot.
+	 */
+	public Stream<AVLNode> stream(AVLNode root) {
+		return StreamSupport.stream(new SlotSpliterator(root, Integer.MIN_VALUE, Integer.MAX_VALUE), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the slots of the AVL tree. The slots are split
+	 * between threads at subtree boundaries with exact sizes, so the work is
+	 * evenly divided. The tree must not change while the stream runs.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return A parallel stream of every slot.
+	 */
+	public Stream<AVLNode> parallelStream(AVLNode root) {
+		return StreamSupport.stream(new SlotSpliterator(root, Integer.MIN_VALUE, Integer.MAX_VALUE), true);
 	}
 
 	/**
 	 * Finds the nearest available parking slot.
+	 * 
+	 * The lowest-numbered available slot is found in a single descent: subtrees
+	 * whose available count is zero are skipped, so the lookup is O(log n) no
+	 * matter how full the parking lot is.
 	 *
 	 * @param node The root of the AVL Tree.
 	 * @return The nearest available slot number or -1 if no slot is available.
 	 */
 	public int findNearestAvailableSlot(AVLNode node) {
-		if (node == null)
+		if (node == null || node.getAvailableCount() == 0)
 			return -1;
 
-		int left = findNearestAvailableSlot(node.getLeftChild());
-		if (left != -1)
-			return left; // Return the first available slot
+		while (node != null) {
+			AVLNode left = node.getLeftChild();
+			if (left != null && left.getAvailableCount() > 0) {
+				node = left; // The first available slot is in the left subtree
+			} else if (node.isAvailable()) {
+				return node.getSlotNumber();
+			} else {
+				node = node.getRightChild();
+			}
+		}
+		return -1;
+	}
 
-		if (node.isAvailable())
-			return node.getSlotNumber();
+	/**
+	 * Finds the available parking slot closest to a target slot, such as the
+	 * slot next to a gate, an elevator or a charger.
+	 * 
+	 * The closest available slot at or below the target and the closest one at
+	 * or above it are each found in a bounded descent that skips subtrees whose
+	 * available count is zero, so the lookup is O(log n) no matter how full the
+	 * parking lot is. Of two slots at the same distance the lower one is chosen.
+	 *
+	 * @param node       The root of the AVL Tree.
+	 * @param targetSlot The slot number to park near.
+	 * @return The nearest available slot number or -1 if no slot is available.
+	 */
+	public int findNearestAvailableSlot(AVLNode node, int targetSlot) {
+		AVLNode floor = floorAvailable(node, targetSlot);
+		AVLNode ceiling = ceilingAvailable(node, targetSlot);
+		if (floor == null) {
+			return ceiling == null ? -1 : ceiling.getSlotNumber();
+		}
+		if (ceiling == null) {
+			return floor.getSlotNumber();
+		}
+		long below = (long) targetSlot - floor.getSlotNumber();
+		long above = (long) ceiling.getSlotNumber() - targetSlot;
+		return below <= above ? floor.getSlotNumber() : ceiling.getSlotNumber();
+	}
 
-		return findNearestAvailableSlot(node.getRightChild());
+	/**
+	 * Finds the highest available slot at or below a slot number.
+	 *
+	 * @param node       The root of the AVL Tree.
+	 * @param slotNumber The highest slot number to consider.
+	 * @return The slot, or null if no slot at or below the slot number is
+	 *         available.
+	 */
+	private AVLNode floorAvailable(AVLNode node, int slotNumber) {
+		// Deepest node at or below the slot number that is available or has an
+		// available left subtree; nodes found later are higher
+		AVLNode candidate = null;
+		while (node != null) {
+			if (node.getSlotNumber() > slotNumber) {
+				node = node.getLeftChild();
+			} else {
+				if (node.isAvailable() || availableCount(node.getLeftChild()) > 0) {
+					candidate = node;
+				}
+				node = node.getRightChild();
+			}
+		}
+		if (candidate == null || candidate.isAvailable()) {
+			return candidate;
+		}
+		// The highest available slot of the left subtree
+		node = candidate.getLeftChild();
+		while (node != null) {
+			if (availableCount(node.getRightChild()) > 0) {
+				node = node.getRightChild();
+			} else if (node.isAvailable()) {
+				return node;
+			} else {
+				node = node.getLeftChild();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the lowest available slot at or above a slot number.
+	 *
+	 * @param node       The root of the AVL Tree.
+	 * @param slotNumber The lowest slot number to consider.
+	 * @return The slot, or null if no slot at or above the slot number is
+	 *         available.
+	 */
+	private AVLNode ceilingAvailable(AVLNode node, int slotNumber) {
+		// Deepest node at or above the slot number that is available or has an
+		// available right subtree; nodes found later are lower
+		AVLNode candidate = null;
+		while (node != null) {
+			if (node.getSlotNumber() < slotNumber) {
+				node = node.getRightChild();
+			} else {
+				if (node.isAvailable() || availableCount(node.getRightChild()) > 0) {
+					candidate = node;
+				}
+				node = node.getLeftChild();
+			}
+		}
+		if (candidate == null || candidate.isAvailable()) {
+			return candidate;
+		}
+		// The lowest available slot of the right subtree
+		node = candidate.getRightChild();
+		while (node != null) {
+			if (availableCount(node.getLeftChild()) > 0) {
+				node = node.getLeftChild();
+			} else if (node.isAvailable()) {
+				return node;
+			} else {
+				node = node.getRightChild();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of available slots in a subtree.
+	 */
+	private static int availableCount(AVLNode node) {
+		return node == null ? 0 : node.getAvailableCount();
+	}
+
+	/**
+	 * Counts the slots in a range of slot numbers.
+	 * 
+	 * The counts of the slots below each bound are summed from the subtree counts
+	 * along one descent per bound, so the range is counted in O(log n) without
+	 * visiting its slots.
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number of the range.
+	 * @param lastSlot  The highest slot number of the range.
+	 * @return The statistics of the slots in the range.
+	 */
+	public ParkingStatistics countRange(AVLNode root, int firstSlot, int lastSlot) {
+		if (firstSlot > lastSlot) {
+			return new ParkingStatistics(0, 0, 0);
+		}
+		int[] counts = new int[3]; // Slots, available slots and reserved slots in the range
+		addCountsBelow(root, lastSlot + 1L, 1, counts);
+		addCountsBelow(root, firstSlot, -1, counts);
+		return new ParkingStatistics(counts[0], counts[0] - counts[1], counts[2]);
+	}
+
+	/**
+	 * Adds the counts of the slots numbered below a bound, multiplied by a sign,
+	 * to the slot, available and reserved counts.
+	 */
+	private static void addCountsBelow(AVLNode node, long bound, int sign, int[] counts) {
+		while (node != null) {
+			if (node.getSlotNumber() < bound) {
+				AVLNode left = node.getLeftChild();
+				counts[0] += sign * (1 + (left == null ? 0 : left.getSize()));
+				counts[1] += sign * ((node.isAvailable() ? 1 : 0) + availableCount(left));
+				counts[2] += sign * ((node.isAvailable() && node.isReserved() ? 1 : 0)
+						+ (left == null ? 0 : left.getReservedCount()));
+				node = node.getRightChild();
+			} else {
+				node = node.getLeftChild();
+			}
+		}
+	}
+
+	/**
+	 * Passes the slots in a range of slot numbers to an action, in ascending
+	 * order. Subtrees outside the range are never entered, so k slots are visited
+	 * in O(log n + k).
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number of the range.
+	 * @param lastSlot  The highest slot number of the range.
+	 * @param action    The action to perform on each slot.
+	 */
+	public void forEachInRange(AVLNode root, int firstSlot, int lastSlot, Consumer<AVLNode> action) {
+		walkRange(root, firstSlot, lastSlot, node -> true, AVLNode::getSize, node -> {
+			action.accept(node);
+			return true;
+		});
+	}
+
+	/**
+	 * Lists the available slots in a range of slot numbers, in ascending order.
+	 * Subtrees without available slots are skipped, so a nearly full range is
+	 * listed without visiting its occupied slots.
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number of the range.
+	 * @param lastSlot  The highest slot number of the range.
+	 * @return The available slot numbers in the range.
+	 */
+	public List<Integer> findAvailableSlots(AVLNode root, int firstSlot, int lastSlot) {
+		List<Integer> availableSlots = new ArrayList<>();
+		walkRange(root, firstSlot, lastSlot, AVLNode::isAvailable, AVLNode::getAvailableCount,
+				slot -> availableSlots.add(slot.getSlotNumber()));
+		return availableSlots;
+	}
+
+	/**
+	 * Applies an update to the slots of a sorted array of slot numbers in one
+	 * walk of the tree, merging the array with the in-order sequence of slots:
+	 * only subtrees holding some of the slot numbers are entered, and the counts
+	 * of every changed node are refreshed once on the way back up. Updating k
+	 * slots of n costs O(n + k) at worst, and far less for a few slots.
+	 * 
+	 * Slot numbers that are not present are skipped; a slot number given twice
+	 * is updated twice, in array order.
+	 *
+	 * @param root        The root of the AVL Tree.
+	 * @param slotNumbers The slot numbers, in ascending order.
+	 * @param update      The update, applied to each slot found.
+	 */
+	public void updateSlots(AVLNode root, int[] slotNumbers, SlotUpdate update) {
+		updateSlots(root, slotNumbers, 0, slotNumbers.length, update);
+	}
+
+	/**
+	 * Applies an update to the slots of a subtree whose numbers are in a range
+	 * of the sorted array.
+	 *
+	 * @return True if the status of a slot in the subtree changed.
+	 */
+	private boolean updateSlots(AVLNode node, int[] slotNumbers, int from, int to, SlotUpdate update) {
+		if (node == null || from >= to) {
+			return false;
+		}
+		int slotNumber = node.getSlotNumber();
+		int low = lowerBound(slotNumbers, from, to, slotNumber); // First position at or above the slot number
+		int high = low; // First position above the slot number
+		while (high < to && slotNumbers[high] == slotNumber) {
+			high++;
+		}
+		boolean changed = updateSlots(node.getLeftChild(), slotNumbers, from, low, update);
+		for (int position = low; position < high; position++) {
+			changed |= update.apply(node, position);
+		}
+		changed |= updateSlots(node.getRightChild(), slotNumbers, high, to, update);
+		if (changed) {
+			node.updateCounts();
+		}
+		return changed;
+	}
+
+	/**
+	 * Finds the first position of a sorted range holding a value at or above a
+	 * slot number.
+	 */
+	private static int lowerBound(int[] slotNumbers, int from, int to, int slotNumber) {
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if (slotNumbers[mid] < slotNumber) {
+				from = mid + 1;
+			} else {
+				to = mid;
+			}
+		}
+		return from;
+	}
+
+	/**
+	 * Passes the lowest available slots to an action, in ascending order, in one
+	 * walk of the tree that skips subtrees without available slots. The action
+	 * must make each slot unavailable; the counts of the visited nodes are
+	 * refreshed on the way back up.
+	 *
+	 * @param root   The root of the AVL Tree.
+	 * @param count  The number of slots wanted.
+	 * @param action The action occupying each slot.
+	 * @return The number of slots passed to the action, less than the count if
+	 *         the lot runs full.
+	 */
+	public int occupyAvailableSlots(AVLNode root, int count, Consumer<AVLNode> action) {
+		if (root == null || count <= 0 || root.getAvailableCount() == 0) {
+			return 0;
+		}
+		int occupied = occupyAvailableSlots(root.getLeftChild(), count, action);
+		if (occupied < count && root.isAvailable()) {
+			action.accept(root);
+			occupied++;
+		}
+		occupied += occupyAvailableSlots(root.getRightChild(), count - occupied, action);
+		root.updateCounts();
+		return occupied;
+	}
+
+	/**
+	 * Passes the slots from a slot number on to an action, in ascending order,
+	 * until the action asks to stop. When a status is given, subtrees without a
+	 * slot of that status are skipped by their subtree counts, so a page of p
+	 * slots costs about O(log n + p) however the slots are spread.
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number to pass.
+	 * @param status    The status of the slots to pass (null for every slot).
+	 * @param action    The action to perform on each slot; it returns false to
+	 *                  stop the walk.
+	 */
+	public void forEachFrom(AVLNode root, int firstSlot, SlotStatus status, Predicate<AVLNode> action) {
+		if (status == null) {
+			walkRange(root, firstSlot, Integer.MAX_VALUE, node -> true, AVLNode::getSize, action);
+		} else {
+			walkRange(root, firstSlot, Integer.MAX_VALUE, slot -> SlotStatus.of(slot) == status, status::countIn,
+					action);
+		}
+	}
+
+	/**
+	 * Walks the wanted slots in a range in order with an explicit stack,
+	 * entering only subtrees that overlap the range and hold a wanted slot.
+	 *
+	 * @param root        The root of the AVL Tree.
+	 * @param firstSlot   The lowest slot number of the range.
+	 * @param lastSlot    The highest slot number of the range.
+	 * @param wanted      Tells if a slot is wanted.
+	 * @param wantedCount Counts the wanted slots of a subtree.
+	 * @param action      The action to perform on each wanted slot; it returns
+	 *                    false to stop the walk.
+	 */
+	private void walkRange(AVLNode root, int firstSlot, int lastSlot, Predicate<AVLNode> wanted,
+			ToIntFunction<AVLNode> wantedCount, Predicate<AVLNode> action) {
+		Deque<AVLNode> stack = new ArrayDeque<>();
+		AVLNode node = root;
+		while (node != null || !stack.isEmpty()) {
+			while (node != null) {
+				if (wantedCount.applyAsInt(node) == 0) {
+					node = null; // No wanted slot in this subtree
+				} else if (node.getSlotNumber() < firstSlot) {
+					node = node.getRightChild();
+				} else {
+					stack.push(node);
+					node = node.getLeftChild();
+				}
+			}
+			if (stack.isEmpty()) {
+				return;
+			}
+			node = stack.pop();
+			if (node.getSlotNumber() > lastSlot) {
+				return;
+			}
+			if (wanted.test(node) && !action.test(node)) {
+				return;
+			}
+			node = node.getRightChild();
+		}
 	}
 
 	/**
@@ -228,100 +755,91 @@ public class AVLTree {
 	 * @param slotNumber The slot number to update.
 	 * @param status     New availability status (true = available, false =
 	 *                   occupied).
-	 * @return The updated AVLNode after modifying availability.
+	 * @return The root node of the AVL Tree (unchanged, as no rotation happens).
 	 */
 	public AVLNode updateAvailability(AVLNode node, int slotNumber, boolean status) {
-		if (node == null) {
-			System.out.println("Slot " + slotNumber + " not found!");
-			return null;
-		}
-		if (slotNumber < node.getSlotNumber()) {
-			node.setLeftChild(updateAvailability(node.getLeftChild(), slotNumber, status));
-		} else if (slotNumber > node.getSlotNumber()) {
-			node.setRightChild(updateAvailability(node.getRightChild(), slotNumber, status));
-		} else {
-			node.setAvailable(status);
-			// System.out.println("Slot " + slotNumber + " is now " + (status ? "available"
-			// : "occupied"));
+		SlotPath path = findPath(node, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null) {
+			eventSink.publish(new ParkingEvent(status ? ParkingMetrics.Operation.FREE : ParkingMetrics.Operation.PARK,
+					SlotOutcome.UNKNOWN_SLOT, slotNumber, null));
+			return node;
 		}
+		slot.setAvailable(status);
+		path.refreshCounts();
 		return node;
 	}
 
 	/**
 	 * Displays the available, occupied, and reserved parking slots in the AVL tree.
 	 * 
-	 * This method calls the helper method collectSlots() to collect and categorize
-	 * the slots based on their availability and reservation status, then prints out
-	 * the categorized slots.
+	 * The slots are sorted into a list per status in one in-order walk and
+	 * printed by {@link SlotPageRenderer#renderAvailability}.
 	 *
 	 * @param node The root node of the AVL tree to begin the slot collection.
 	 */
 	public void displaySlots(AVLNode node) {
-		List<Integer> availableSlots = new ArrayList<>();
-		List<Integer> occupiedSlots = new ArrayList<>();
-		List<Integer> reservedSlots = new ArrayList<>();
-		collectSlots(node, availableSlots, occupiedSlots, reservedSlots);
-
-		System.out.println("\nAvailable Slots: " + availableSlots);
-		System.out.println("Occupied Slots: " + occupiedSlots);
-		System.out.println("Reserved Slots: " + reservedSlots);
+		new SlotPageRenderer(this, new OutputStreamWriter(System.out)).renderAvailability(node, Integer.MIN_VALUE,
+				Integer.MAX_VALUE, null);
 	}
 
 	/**
-	 * Helper method that categorizes the parking slots into available, occupied,
-	 * and reserved.
-	 * 
-	 * This method traverses the AVL tree and adds slot numbers to the respective
-	 * lists (available, occupied, or reserved) based on the status of each slot.
-	 * 
-	 * @param node           The current node being evaluated.
-	 * @param availableSlots List to store the available slot numbers.
-	 * @param occupiedSlots  List to store the occupied slot numbers.
-	 * @param reservedSlots  List to store the reserved slot numbers.
+	 * Releases cars that have been parked for too long.
+	 *
+	 * @param node       The root of the AVL Tree.
+	 * @param hoursLimit Maximum hours a car can remain parked before removal.
+	 * @return The updated AVL Tree after removing old cars.
 	 */
-	private void collectSlots(AVLNode node, List<Integer> availableSlots, List<Integer> occupiedSlots,
-			List<Integer> reservedSlots) {
-		if (node == null)
-			return;
-
-		collectSlots(node.getLeftChild(), availableSlots, occupiedSlots, reservedSlots);
-
-		if (node.isAvailable() && !node.isReserved()) {
-			availableSlots.add(node.getSlotNumber());
-		} else if (node.isAvailable() && node.isReserved()) {
-			reservedSlots.add(node.getSlotNumber());
-		} else {
-			occupiedSlots.add(node.getSlotNumber());
-		}
+	public AVLNode releaseOldCars(AVLNode node, int hoursLimit) {
+		return releaseOldCars(node, hoursLimit, LocalDateTime.now());
+	}
 
-		collectSlots(node.getRightChild(), availableSlots, occupiedSlots, reservedSlots);
+	/**
+	 * Releases cars that had been parked for too long at a given time. Passing the
+	 * time in lets a journal replay a release exactly as it originally ran.
+	 *
+	 * @param node       The root of the AVL Tree.
+	 * @param hoursLimit Maximum hours a car can remain parked before removal.
+	 * @param now        The time parking durations are measured up to.
+	 * @return The updated AVL Tree after removing old cars.
+	 */
+	public AVLNode releaseOldCars(AVLNode node, int hoursLimit, LocalDateTime now) {
+		return releaseOldCars(node, hoursLimit, now, slot -> {
+		});
 	}
 
 	/**
-	 * Releases cars that have been parked for too long.
+	 * Releases cars that had been parked for too long at a given time and reports
+	 * each released slot before its car is removed, so callers can keep their own
+	 * indexes in sync.
 	 *
 	 * @param node       The root of the AVL Tree.
 	 * @param hoursLimit Maximum hours a car can remain parked before removal.
+	 * @param now        The time parking durations are measured up to.
+	 * @param onRelease  Called with each slot about to be released.
 	 * @return The updated AVL Tree after removing old cars.
 	 */
-	public AVLNode releaseOldCars(AVLNode node, int hoursLimit) {
+	public AVLNode releaseOldCars(AVLNode node, int hoursLimit, LocalDateTime now, Consumer<AVLNode> onRelease) {
 		if (node == null)
 			return node;
 
-		node.setLeftChild(releaseOldCars(node.getLeftChild(), hoursLimit));
+		node.setLeftChild(releaseOldCars(node.getLeftChild(), hoursLimit, now, onRelease));
 
-		if (!node.isAvailable() && node.getCarDetails() != null) {
-			long parkedDuration = ChronoUnit.HOURS.between(node.getCarDetails().getEntryTime(), LocalDateTime.now());
+		if (!node.isAvailable() && node.getCarDetails() != null && node.getCarDetails().getEntryTime() != null) {
+			long parkedDuration = ChronoUnit.HOURS.between(node.getCarDetails().getEntryTime(), now);
 
 			if (parkedDuration >= hoursLimit) {
+				onRelease.accept(node);
+				String licenseNumber = node.getCarDetails().getLicenseNumber();
 				node.setAvailable(true);
 				node.setCarDetails(null);
-				System.out.println("Slot " + node.getSlotNumber() + " is now available (Car stayed over " + hoursLimit
-						+ " hours).");
+				eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.RELEASED,
+						node.getSlotNumber(), licenseNumber, hoursLimit, 0));
 			}
 		}
 
-		node.setRightChild(releaseOldCars(node.getRightChild(), hoursLimit));
+		node.setRightChild(releaseOldCars(node.getRightChild(), hoursLimit, now, onRelease));
+		node.updateCounts();
 		return node;
 	}
 
@@ -329,53 +847,38 @@ public class AVLTree {
 	 * Prints the parking status of each slot in the AVL tree.
 	 * 
 	 * This method traverses the AVL tree in an in-order fashion and prints the
-	 * status of each slot, including the car details (if the slot is occupied).
+	 * status of each slot, including the car details (if the slot is occupied),
+	 * with {@link SlotPageRenderer#renderStatus}.
 	 * 
 	 * @param node The root node of the AVL tree to begin the parking status
 	 *             display.
 	 */
 	public void printParkingStatus(AVLNode node) {
-		if (node == null)
-			return;
-
-		printParkingStatus(node.getLeftChild());
-
-		if (node.isAvailable() && !node.isReserved()) {
-			System.out.println("Slot Number: " + node.getSlotNumber() + " | Status: Available");
-		} else if (node.isReserved() && node.isAvailable()) {
-			System.out.println("Slot Number: " + node.getSlotNumber() + " | Status: Reserved");
-		} else {
-			System.out.println("Slot Number: " + node.getSlotNumber() + " | Status: Occupied | Car: "
-					+ node.getCarDetails().getLicenseNumber() + " | Entry Time: "
-					+ node.getCarDetails().getEntryTime());
-		}
-
-		printParkingStatus(node.getRightChild());
+		new SlotPageRenderer(this, new OutputStreamWriter(System.out)).renderStatus(node, Integer.MIN_VALUE,
+				Integer.MAX_VALUE, null);
 	}
 
 	/**
 	 * Updates the reservation status of a given parking slot.
 	 * 
 	 * This method searches for the slot with the given slot number and updates its
-	 * reservation status. If the slot is not found, a message is printed.
+	 * reservation status. If the slot is not found, an event is published.
 	 * 
-	 * @param node       The current node being evaluated.
+	 * @param node       The root node of the AVL Tree.
 	 * @param slotNumber The slot number to be updated.
 	 * @param status     The new reservation status to set for the slot.
-	 * @return The updated AVLNode after the reservation status is updated.
+	 * @return The root node of the AVL Tree (unchanged, as no rotation happens).
 	 */
 	public AVLNode updateReservation(AVLNode node, int slotNumber, boolean status) {
-		if (node == null) {
-			System.out.println("Slot " + slotNumber + " not found!");
-			return null;
-		}
-		if (slotNumber < node.getSlotNumber()) {
-			node.setLeftChild(updateReservation(node.getLeftChild(), slotNumber, status));
-		} else if (slotNumber > node.getSlotNumber()) {
-			node.setRightChild(updateReservation(node.getRightChild(), slotNumber, status));
-		} else {
-			node.setReserved(status);
+		SlotPath path = findPath(node, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null) {
+			eventSink.publish(
+					new ParkingEvent(ParkingMetrics.Operation.RESERVE, SlotOutcome.UNKNOWN_SLOT, slotNumber, null));
+			return node;
 		}
+		slot.setReserved(status);
+		path.refreshCounts();
 		return node;
 	}
 
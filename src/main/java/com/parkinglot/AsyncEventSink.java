@@ -0,0 +1,126 @@
+package com.parkinglot;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event sink logging parking events through SLF4J at DEBUG level, off the
+ * thread of the operation.
+ *
+ * Publishing is a level check and a non-blocking offer to a bounded queue, so
+ * an operation never waits for the log: when the logger is below DEBUG the
+ * event is dropped at once, and when the queue is full it is dropped and
+ * counted. A writer thread takes the events in batches of up to 256 and logs
+ * them, formatting each message only then.
+ *
+ * Enable the events of the shared sink with
+ * {@code -Dorg.slf4j.simpleLogger.log.com.parkinglot.ParkingEvent=debug}.
+ */
+public class AsyncEventSink implements ParkingEventSink, Closeable {
+
+	private static final int BATCH_SIZE = 256; // Most events logged per wake-up of the writer
+
+	private final Logger logger; // Logger receiving the events
+	private final BlockingQueue<ParkingEvent> queue; // Events waiting for the writer
+	private final LongAdder dropped = new LongAdder(); // Events lost to a full queue
+	private final Thread writer; // Thread logging the queued events
+	private volatile boolean closed; // Indicates if the sink no longer accepts events
+
+	/**
+	 * Holder of the shared sink, created on first use.
+	 */
+	private static class Shared {
+		static final AsyncEventSink SINK = new AsyncEventSink(LoggerFactory.getLogger(ParkingEvent.class), 64 * 1024);
+	}
+
+	/**
+	 * Constructor to create a sink and start its writer.
+	 *
+	 * @param logger   The logger receiving the events.
+	 * @param capacity The most events waiting for the writer before new ones are
+	 *                 dropped.
+	 */
+	public AsyncEventSink(Logger logger, int capacity) {
+		this.logger = logger;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.writer = new Thread(this::writeLoop, "parking-event-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Returns the sink shared by every parking manager that was not given one,
+	 * logging to the {@code com.parkinglot.ParkingEvent} logger. It is never
+	 * closed; its writer is a daemon thread.
+	 *
+	 * @return The shared sink.
+	 */
+	public static AsyncEventSink shared() {
+		return Shared.SINK;
+	}
+
+	@Override
+	public void publish(ParkingEvent event) {
+		if (closed || !logger.isDebugEnabled()) {
+			return;
+		}
+		if (!queue.offer(event)) {
+			dropped.increment();
+		}
+	}
+
+	/**
+	 * Returns the number of events dropped because the writer fell behind.
+	 *
+	 * @return The count of events lost to a full queue.
+	 */
+	public long getDroppedEvents() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Writer loop: waits for an event, takes it with every event queued behind it
+	 * up to a batch and logs them. Ends once the sink is closed and the queue is
+	 * empty.
+	 */
+	private void writeLoop() {
+		List<ParkingEvent> batch = new ArrayList<>(BATCH_SIZE);
+		try {
+			while (!closed || !queue.isEmpty()) {
+				ParkingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, BATCH_SIZE - 1);
+				for (ParkingEvent event : batch) {
+					logger.debug("{} {}: {}", event.getOperation(), event.getOutcome(), event.getMessage());
+				}
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stops accepting events, logs the ones still queued and stops the writer.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link SlotStore} backed by the same augmented AVL Tree the
+ * {@link ParkingManager} works on, as the reference for other stores. Every
+ * operation is a single O(log n) descent, except releasing old cars, which
+ * visits every slot.
+ */
+public class AvlSlotStore implements SlotStore {
+
+	private final AVLTree tree; // AVL Tree instance managing the slots
+	private AVLNode root; // Root node of the AVL Tree
+
+	/**
+	 * Constructor to create an empty store.
+	 */
+	public AvlSlotStore() {
+		this(new AVLTree(), null);
+	}
+
+	/**
+	 * Constructor to wrap an existing AVL Tree.
+	 *
+	 * @param tree The AVL Tree instance managing the slots.
+	 * @param root The root node of the AVL Tree.
+	 */
+	public AvlSlotStore(AVLTree tree, AVLNode root) {
+		this.tree = tree;
+		this.root = root;
+	}
+
+	/**
+	 * Retrieves the root node of the AVL Tree.
+	 *
+	 * @return The root node (null if the store is empty).
+	 */
+	public AVLNode getRoot() {
+		return root;
+	}
+
+	@Override
+	public void addSlot(int slotNumber, Car carDetails, boolean available, boolean reserved) {
+		root = tree.insert(root, slotNumber, carDetails, available, reserved);
+	}
+
+	@Override
+	public int size() {
+		return root == null ? 0 : root.getSize();
+	}
+
+	@Override
+	public boolean contains(int slotNumber) {
+		return tree.search(root, slotNumber) != null;
+	}
+
+	@Override
+	public boolean isAvailable(int slotNumber) {
+		AVLNode slot = tree.search(root, slotNumber);
+		return slot != null && slot.isAvailable();
+	}
+
+	@Override
+	public boolean isReserved(int slotNumber) {
+		AVLNode slot = tree.search(root, slotNumber);
+		return slot != null && slot.isReserved();
+	}
+
+	@Override
+	public Car getCar(int slotNumber) {
+		AVLNode slot = tree.search(root, slotNumber);
+		return slot == null ? null : slot.getCarDetails();
+	}
+
+	@Override
+	public int findNearestAvailableSlot() {
+		return tree.findNearestAvailableSlot(root);
+	}
+
+	@Override
+	public int parkCar(String licenseNumber, LocalDateTime entryTime) {
+		SlotPath path = tree.findNearestAvailablePath(root);
+		AVLNode slot = path.getSlot();
+		if (slot == null) {
+			return -1;
+		}
+		slot.setCarDetails(new Car(licenseNumber, entryTime));
+		slot.setAvailable(false);
+		slot.setReserved(false);
+		path.refreshCounts();
+		return slot.getSlotNumber();
+	}
+
+	@Override
+	public boolean freeSlot(int slotNumber) {
+		SlotPath path = tree.findPath(root, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null || (slot.isAvailable() && !slot.isReserved())) {
+			return false;
+		}
+		slot.setCarDetails(null);
+		slot.setAvailable(true);
+		path.refreshCounts();
+		return true;
+	}
+
+	@Override
+	public boolean reserveSlot(int slotNumber) {
+		SlotPath path = tree.findPath(root, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null || !slot.isAvailable()) {
+			return false;
+		}
+		slot.setReserved(true);
+		path.refreshCounts();
+		return true;
+	}
+
+	@Override
+	public int releaseOldCars(int hoursLimit, LocalDateTime now) {
+		int[] released = new int[1];
+		root = tree.releaseOldCars(root, hoursLimit, now, slot -> released[0]++);
+		return released[0];
+	}
+
+	@Override
+	public ParkingStatistics getStatistics() {
+		return ParkingStatistics.of(root);
+	}
+
+	@Override
+	public void forEachSlot(SlotRowHandler handler) {
+		Deque<AVLNode> stack = new ArrayDeque<>();
+		AVLNode node = root;
+		while (node != null || !stack.isEmpty()) {
+			while (node != null) {
+				stack.push(node);
+				node = node.getLeftChild();
+			}
+			node = stack.pop();
+			handler.slot(node.getSlotNumber(), node.getCarDetails(), node.isAvailable(), node.isReserved());
+			node = node.getRightChild();
+		}
+	}
+}
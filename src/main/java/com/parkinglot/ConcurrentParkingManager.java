@@ -0,0 +1,462 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe front end of a {@link ParkingManager} for parking lots served by
+ * several entry and exit gates at once. The manager owns the root of its AVL
+ * Tree and guards it with a {@link StampedLock}:
+ *
+ * <ul>
+ * <li>Lookups of a single slot, the nearest available slot and the statistics
+ * first try an optimistic read, which takes no lock at all, and fall back to a
+ * shared read lock only if a writer interfered.</li>
+ * <li>Reads that print or walk many slots take the shared read lock, so they
+ * run in parallel with each other.</li>
+ * <li>Every change (park, free, reserve, release, and inserts with their
+ * rotations) takes the exclusive write lock, so readers never see a tree in
+ * the middle of a rotation.</li>
+ * </ul>
+ *
+ * Slots returned to callers are detached copies, as the nodes of the tree keep
+ * changing after the lock is released.
+ */
+public class ConcurrentParkingManager {
+
+	private static final int MAX_DEPTH = 64; // Bound on optimistic descents (AVL height of 2^31 slots is 45)
+
+	private final ParkingManager manager; // Manager applying the operations
+	private final AVLTree tree; // AVL Tree instance managing the slots
+	private final StampedLock lock = new StampedLock(); // Guards root and every node of the tree
+	private final boolean durableCommits; // Indicates if changes return only once their records are on disk
+	private AVLNode root; // Root node of the AVL Tree
+
+	/**
+	 * Constructor to take over a loaded parking lot. The manager and the root
+	 * must no longer be used directly by the caller.
+	 *
+	 * When the manager has durable commits, each change waits for its journal
+	 * record after the write lock is released instead of under it, so the
+	 * records of gates waiting at the same time are forced with one fsync.
+	 *
+	 * @param manager The manager applying the operations.
+	 * @param root    The root node of the AVL Tree.
+	 */
+	public ConcurrentParkingManager(ParkingManager manager, AVLNode root) {
+		this.manager = manager;
+		this.tree = new AVLTree();
+		this.root = root;
+		this.durableCommits = manager.isDurableCommits();
+		manager.setDurableCommits(false); // Waited for outside the lock instead
+	}
+
+	/**
+	 * Searches for a parking slot by slot number.
+	 *
+	 * @param slotNumber The slot number to search for.
+	 * @return A detached copy of the slot, or null if not found.
+	 */
+	public AVLNode search(int slotNumber) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			AVLNode node = root;
+			for (int depth = 0; node != null && depth < MAX_DEPTH && node.getSlotNumber() != slotNumber; depth++) {
+				node = slotNumber < node.getSlotNumber() ? node.getLeftChild() : node.getRightChild();
+			}
+			AVLNode copy = node == null ? null : copyOf(node);
+			if (lock.validate(stamp) && (copy == null || copy.getSlotNumber() == slotNumber)) {
+				return copy;
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			AVLNode slot = tree.search(root, slotNumber);
+			return slot == null ? null : copyOf(slot);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Finds the slot where a car is parked through the license plate index.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return A detached copy of the slot, or null if the car is not parked.
+	 */
+	public AVLNode findSlotByPlate(String licenseNumber) {
+		long stamp = lock.readLock();
+		try {
+			AVLNode slot = manager.findSlotByPlate(licenseNumber);
+			return slot == null ? null : copyOf(slot);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Finds the nearest available parking slot.
+	 *
+	 * @return The nearest available slot number or -1 if no slot is available.
+	 */
+	public int findNearestAvailableSlot() {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			AVLNode node = root;
+			int slotNumber = -1;
+			for (int depth = 0; node != null && depth < MAX_DEPTH && node.getAvailableCount() > 0; depth++) {
+				AVLNode left = node.getLeftChild();
+				if (left != null && left.getAvailableCount() > 0) {
+					node = left;
+				} else if (node.isAvailable()) {
+					slotNumber = node.getSlotNumber();
+					break;
+				} else {
+					node = node.getRightChild();
+				}
+			}
+			if (lock.validate(stamp)) {
+				return slotNumber;
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			return tree.findNearestAvailableSlot(root);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the occupancy counters, usually without taking a lock.
+	 *
+	 * @return The current parking statistics.
+	 */
+	public ParkingStatistics getParkingStatistics() {
+		long stamp = lock.tryOptimisticRead();
+		AVLNode node = root;
+		if (stamp != 0 && node != null) {
+			int size = node.getSize();
+			int available = node.getAvailableCount();
+			int reserved = node.getReservedCount();
+			if (lock.validate(stamp)) {
+				return new ParkingStatistics(size, size - available, reserved);
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			return manager.getParkingStatistics(root);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Calculates the fees due for every car currently parked. The slots are
+	 * walked by a parallel stream under the read lock, so gates wait for the
+	 * report but other readers do not.
+	 *
+	 * @param hourlyRate The hourly rate to be applied for parking.
+	 * @return The total of the parking fees.
+	 */
+	public double calculateRevenue(double hourlyRate) {
+		long stamp = lock.readLock();
+		try {
+			return manager.calculateRevenue(root, hourlyRate);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Calculates the fees due at a given time for every car currently parked,
+	 * under a tariff, on a parallel stream under the read lock.
+	 *
+	 * @param tariff The tariff to be applied for parking.
+	 * @param now    The time the fees are calculated at.
+	 * @return The number of cars billed, their hours and the total of their
+	 *         fees.
+	 */
+	public RevenueReport calculateRevenue(Tariff tariff, LocalDateTime now) {
+		long stamp = lock.readLock();
+		try {
+			return manager.calculateRevenue(root, tariff, now);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Displays the details of a specific parking slot.
+	 *
+	 * @param slotNumber The slot number whose details need to be displayed.
+	 */
+	public void displaySlotDetails(int slotNumber) {
+		long stamp = lock.readLock();
+		try {
+			manager.displaySlotDetails(root, slotNumber);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Calculates the parking fee for a car parked in a specific slot.
+	 *
+	 * @param slotNumber The slot number where the car is parked.
+	 * @param hourlyRate The hourly rate to be applied for parking.
+	 * @return The calculated parking fee.
+	 */
+	public double calculateParkingFee(int slotNumber, double hourlyRate) {
+		long stamp = lock.readLock();
+		try {
+			return manager.calculateParkingFee(root, slotNumber, hourlyRate);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Saves the parking lot to a binary snapshot file while gates keep reading.
+	 *
+	 * @param filePath The path where the snapshot will be saved.
+	 */
+	public void saveSnapshot(String filePath) {
+		long stamp = lock.readLock();
+		try {
+			manager.saveSnapshot(filePath, root);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Parks a car in the nearest available slot.
+	 *
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @return A detached copy of the slot the car was parked in, or null if no
+	 *         slot is available.
+	 */
+	public AVLNode parkCar(String licenseNumber) {
+		long stamp = lock.writeLock();
+		try {
+			AVLNode slot = manager.parkCar(root, licenseNumber);
+			return slot == null ? null : copyOf(slot);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Parks a car in the available slot closest to a target slot, such as the
+	 * slot next to the gate the car came in through.
+	 *
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @param targetSlot    The slot number to park near.
+	 * @return A detached copy of the slot the car was parked in, or null if no
+	 *         slot is available.
+	 */
+	public AVLNode parkCarNear(String licenseNumber, int targetSlot) {
+		long stamp = lock.writeLock();
+		try {
+			AVLNode slot = manager.parkCarNear(root, licenseNumber, targetSlot);
+			return slot == null ? null : copyOf(slot);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Frees an occupied parking slot.
+	 *
+	 * @param slotNumber The slot number to be freed.
+	 * @return True if the slot was freed.
+	 */
+	public boolean freeSlot(int slotNumber) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.vacateSlot(root, slotNumber) != null;
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Frees the slot of a car given its license plate number.
+	 *
+	 * @param licenseNumber The license plate number of the leaving car.
+	 */
+	public void freeByPlate(String licenseNumber) {
+		long stamp = lock.writeLock();
+		try {
+			manager.freeByPlate(root, licenseNumber);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Reserves a parking slot.
+	 *
+	 * @param slotNumber The slot number to reserve.
+	 * @return True if the slot was reserved.
+	 */
+	public boolean reserveSlot(int slotNumber) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.holdSlot(root, slotNumber) != null;
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Reserves many slots under one write lock, in one walk of the tree.
+	 *
+	 * @param slotNumbers The slot numbers to reserve, in any order.
+	 * @return The outcome for each slot number, in the order given.
+	 */
+	public SlotOutcome[] reserveSlots(int[] slotNumbers) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.reserveSlots(root, slotNumbers);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Frees many slots under one write lock, in one walk of the tree.
+	 *
+	 * @param slotNumbers The slot numbers to free, in any order.
+	 * @return The outcome for each slot number, in the order given.
+	 */
+	public SlotOutcome[] freeSlots(int[] slotNumbers) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.freeSlots(root, slotNumbers);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Parks many cars under one write lock, in one walk of the tree.
+	 *
+	 * @param licenseNumbers The license plate numbers of the cars to be parked.
+	 * @return The slot each car was parked in, in list order, or -1 if it was
+	 *         not parked.
+	 */
+	public int[] parkCars(List<String> licenseNumbers) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.parkCars(root, licenseNumbers);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Releases cars that have been parked for longer than a specified time limit.
+	 *
+	 * @param hoursLimit The number of hours beyond which a car is considered to
+	 *                   have stayed too long.
+	 */
+	public void releaseOldCars(int hoursLimit) {
+		long stamp = lock.writeLock();
+		try {
+			root = manager.releaseOldCars(root, hoursLimit);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Releases one car that has stayed beyond its limit.
+	 *
+	 * @param slotNumber The slot the car was parked in.
+	 * @param car        The car to release, as received by the listener.
+	 * @param hoursLimit The limit the car has stayed beyond.
+	 * @return True if the car was released, false if it had already left.
+	 */
+	public boolean releaseOverstay(int slotNumber, Car car, int hoursLimit) {
+		long stamp = lock.writeLock();
+		try {
+			return manager.releaseOverstay(root, slotNumber, car, hoursLimit) != null;
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Registers the listener receiving every arrival and departure. Cars already
+	 * parked are reported under the write lock, so no arrival is missed.
+	 *
+	 * @param listener The listener to register, or null to stop notifying.
+	 */
+	public void setParkingListener(ParkingListener listener) {
+		long stamp = lock.writeLock();
+		try {
+			manager.setParkingListener(listener);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Sets the sink receiving the outcome of every operation. Events are
+	 * published under the lock, so the sink must never block.
+	 *
+	 * @param eventSink The sink receiving the events.
+	 */
+	public void setEventSink(ParkingEventSink eventSink) {
+		long stamp = lock.writeLock();
+		try {
+			manager.setEventSink(eventSink);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Adds a new, available parking slot. Rotations happen under the write lock,
+	 * isolated from every reader.
+	 *
+	 * @param slotNumber The slot number to be inserted.
+	 */
+	public void insertSlot(int slotNumber) {
+		long stamp = lock.writeLock();
+		try {
+			root = manager.insertSlot(root, slotNumber);
+		} finally {
+			unlockWriteAndCommit(stamp);
+		}
+	}
+
+	/**
+	 * Releases the write lock, then waits for the journal record of the change
+	 * made under it when commits are durable.
+	 *
+	 * @param stamp The stamp of the write lock.
+	 */
+	private void unlockWriteAndCommit(long stamp) {
+		long sequence = manager.getJournalSequence();
+		lock.unlockWrite(stamp);
+		if (durableCommits) {
+			manager.awaitJournal(sequence);
+		}
+	}
+
+	/**
+	 * Creates a detached copy of a slot, including a copy of its car.
+	 *
+	 * @param slot The slot to copy.
+	 * @return A new node with the same status and no children.
+	 */
+	private static AVLNode copyOf(AVLNode slot) {
+		Car car = slot.getCarDetails();
+		return new AVLNode(slot.getSlotNumber(), car == null ? null : new Car(car.getLicenseNumber(), car.getEntryTime()),
+				slot.isAvailable(), slot.isReserved());
+	}
+}
@@ -0,0 +1,287 @@
+package com.parkinglot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * Generates parking lots of any size for benchmarks and load tests, replacing
+ * the Python script that produced the test workbooks.
+ *
+ * Slots are generated one at a time and written straight to the output, so a
+ * lot of 50M slots needs no more memory than one of 10. The lot is fully
+ * determined by the seed, the settings and the reference time: the same
+ * generator always produces the same slots.
+ *
+ * The occupied and reserved slots are spread at random with selection
+ * sampling, so their counts are exact: a lot of n slots with occupancy p has
+ * exactly round(n * p) parked cars, and the reservation ratio applies to the
+ * free slots in the same way.
+ */
+public class DatasetGenerator {
+
+	/** Highest number of slots in a workbook: the rows of a sheet minus the header. */
+	public static final int MAX_XLSX_SLOTS = 1048575;
+
+	/**
+	 * Distribution of how long parked cars have been parked.
+	 */
+	public enum StayDistribution {
+
+		/** Stays spread evenly between zero and the stay duration. */
+		UNIFORM,
+
+		/** Many short stays and a few long ones, with the stay duration as mean. */
+		EXPONENTIAL
+	}
+
+	private final long seed; // Seed of the random slots
+	private int firstSlot = 1; // Number of the first slot
+	private int slotStep = 1; // Difference between consecutive slot numbers
+	private double occupancy = 0.5; // Fraction of the slots holding a car
+	private double reservationRatio; // Fraction of the free slots that are reserved
+	private LocalDateTime referenceTime; // Time the stays are counted back from
+	private long stayMinutes = 24 * 60; // Maximum (uniform) or mean (exponential) stay
+	private StayDistribution stayDistribution = StayDistribution.UNIFORM; // Distribution of the stays
+	private String plateFormat = "CAR%07d"; // Format of the license numbers, given the car count
+
+	/**
+	 * Constructor to create a generator whose stays are counted back from the
+	 * current time, truncated to the minute.
+	 *
+	 * @param seed The seed of the random slots.
+	 */
+	public DatasetGenerator(long seed) {
+		this.seed = seed;
+		this.referenceTime = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+	}
+
+	/**
+	 * Sets the slot numbers, by default 1, 2, 3 and so on.
+	 *
+	 * @param firstSlot The number of the first slot.
+	 * @param slotStep  The difference between consecutive slot numbers.
+	 * @throws IllegalArgumentException If the step is not positive.
+	 */
+	public void setSlotNumbers(int firstSlot, int slotStep) {
+		if (slotStep <= 0) {
+			throw new IllegalArgumentException("Slot step must be positive: " + slotStep);
+		}
+		this.firstSlot = firstSlot;
+		this.slotStep = slotStep;
+	}
+
+	/**
+	 * Sets the fraction of the slots holding a car, by default 0.5.
+	 *
+	 * @param occupancy The fraction of occupied slots, between 0 and 1.
+	 * @throws IllegalArgumentException If the fraction is out of range.
+	 */
+	public void setOccupancy(double occupancy) {
+		this.occupancy = checkFraction("Occupancy", occupancy);
+	}
+
+	/**
+	 * Sets the fraction of the free slots that are reserved, by default 0.
+	 *
+	 * @param reservationRatio The fraction of reserved free slots, between 0 and
+	 *                         1.
+	 * @throws IllegalArgumentException If the fraction is out of range.
+	 */
+	public void setReservationRatio(double reservationRatio) {
+		this.reservationRatio = checkFraction("Reservation ratio", reservationRatio);
+	}
+
+	/**
+	 * Sets how long parked cars have been parked, by default uniformly up to a
+	 * day. Entry times are whole minutes, as in the workbooks.
+	 *
+	 * @param referenceTime The time the stays are counted back from.
+	 * @param stay          The longest stay (uniform) or the mean stay
+	 *                      (exponential).
+	 * @param distribution  The distribution of the stays.
+	 * @throws IllegalArgumentException If the stay is shorter than a minute.
+	 */
+	public void setEntryTimes(LocalDateTime referenceTime, Duration stay, StayDistribution distribution) {
+		if (stay.toMinutes() < 1) {
+			throw new IllegalArgumentException("Stay must be at least a minute: " + stay);
+		}
+		this.referenceTime = referenceTime.truncatedTo(ChronoUnit.MINUTES);
+		this.stayMinutes = stay.toMinutes();
+		this.stayDistribution = distribution;
+	}
+
+	/**
+	 * Sets the format of the license numbers, by default "CAR%07d". The format is
+	 * given the number of the car, counting from 1 in slot order.
+	 *
+	 * @param plateFormat The {@link String#format} pattern of the license
+	 *                    numbers.
+	 */
+	public void setPlateFormat(String plateFormat) {
+		this.plateFormat = plateFormat;
+	}
+
+	/**
+	 * Generates a lot and passes its slots to a handler, in slot order.
+	 *
+	 * @param slots   The number of slots.
+	 * @param handler The handler receiving the slots.
+	 */
+	public void generate(int slots, SlotRowHandler handler) {
+		try {
+			generate(slots, (slotNumber, licenseNumber, entryTime, available, reserved) -> handler.slot(slotNumber,
+					licenseNumber == null ? null : new Car(licenseNumber, entryTime), available, reserved));
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // The handler cannot throw it
+		}
+	}
+
+	/**
+	 * Generates a lot into a workbook with the layout of the parking lot files.
+	 *
+	 * @param filePath The path of the workbook to write.
+	 * @param slots    The number of slots, at most {@link #MAX_XLSX_SLOTS}.
+	 * @throws IOException              If the workbook cannot be written.
+	 * @throws IllegalArgumentException If the lot does not fit in a sheet.
+	 */
+	public void writeXlsx(String filePath, int slots) throws IOException {
+		if (slots > MAX_XLSX_SLOTS) {
+			throw new IllegalArgumentException(
+					slots + " slots do not fit in a workbook sheet; write a snapshot instead.");
+		}
+		try (XlsxSlotWriter writer = new XlsxSlotWriter(filePath)) {
+			generate(slots, (slotNumber, licenseNumber, entryTime, available, reserved) -> writer
+					.writeSlot(slotNumber, licenseNumber == null ? "" : licenseNumber, entryTime, available, reserved));
+		}
+	}
+
+	/**
+	 * Generates a lot into a binary snapshot.
+	 *
+	 * @param path  The snapshot file to write.
+	 * @param slots The number of slots.
+	 * @throws IOException If the snapshot cannot be written or a license number
+	 *                     is too long for it.
+	 */
+	public void writeSnapshot(Path path, int slots) throws IOException {
+		try (SlotSnapshot.Writer writer = new SlotSnapshot.Writer(path, slots)) {
+			generate(slots, writer::writeSlot);
+		}
+	}
+
+	/**
+	 * Generates a lot into a workbook (.xlsx) or a snapshot (.snap), chosen by
+	 * the file extension.
+	 *
+	 * @param filePath The path of the file to write.
+	 * @param slots    The number of slots.
+	 * @throws IOException              If the file cannot be written.
+	 * @throws IllegalArgumentException If the extension is not supported.
+	 */
+	public void write(String filePath, int slots) throws IOException {
+		if (filePath.endsWith(".xlsx")) {
+			writeXlsx(filePath, slots);
+		} else if (filePath.endsWith(".snap")) {
+			writeSnapshot(Path.of(filePath), slots);
+		} else {
+			throw new IllegalArgumentException("Unsupported file type: " + filePath + " (use .xlsx or .snap)");
+		}
+	}
+
+	/**
+	 * Generates every slot and passes it to a writer.
+	 */
+	private void generate(int slots, SlotWriter writer) throws IOException {
+		if (slots < 0) {
+			throw new IllegalArgumentException("Number of slots must not be negative: " + slots);
+		}
+		if (firstSlot + (long) slotStep * Math.max(0, slots - 1) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Slot numbers of " + slots + " slots overflow an int.");
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		long carsLeft = Math.round(slots * occupancy); // Cars still to park
+		long reservationsLeft = Math.round((slots - carsLeft) * reservationRatio); // Reservations still to make
+		long freeLeft = slots - carsLeft; // Free slots still to generate
+		int cars = 0;
+		for (int i = 0; i < slots; i++) {
+			int slotNumber = firstSlot + i * slotStep;
+			if (random.nextLong(slots - i) < carsLeft) {
+				carsLeft--;
+				cars++;
+				writer.writeSlot(slotNumber, String.format(plateFormat, cars), entryTime(random), false, false);
+			} else {
+				boolean reserved = random.nextLong(freeLeft) < reservationsLeft;
+				if (reserved) {
+					reservationsLeft--;
+				}
+				freeLeft--;
+				writer.writeSlot(slotNumber, null, null, true, reserved);
+			}
+		}
+	}
+
+	/**
+	 * Draws the entry time of a parked car.
+	 */
+	private LocalDateTime entryTime(SplittableRandom random) {
+		long minutes;
+		if (stayDistribution == StayDistribution.UNIFORM) {
+			minutes = random.nextLong(stayMinutes + 1);
+		} else {
+			minutes = Math.round(-Math.log(1 - random.nextDouble()) * stayMinutes);
+		}
+		return referenceTime.minusMinutes(minutes);
+	}
+
+	/**
+	 * Checks that a setting is a fraction between 0 and 1.
+	 */
+	private static double checkFraction(String name, double value) {
+		if (!(value >= 0 && value <= 1)) {
+			throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+		}
+		return value;
+	}
+
+	/**
+	 * Receives the generated slots, in slot order.
+	 */
+	private interface SlotWriter {
+		void writeSlot(int slotNumber, String licenseNumber, LocalDateTime entryTime, boolean available,
+				boolean reserved) throws IOException;
+	}
+
+	/**
+	 * Generates a lot from the command line:
+	 * {@code DatasetGenerator <file.xlsx|file.snap> <slots> [occupancy] [reservation ratio] [seed]}.
+	 *
+	 * @param args The file, the number of slots and the optional settings.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println(
+					"Usage: DatasetGenerator <file.xlsx|file.snap> <slots> [occupancy] [reservation ratio] [seed]");
+			return;
+		}
+		DatasetGenerator generator = new DatasetGenerator(args.length > 4 ? Long.parseLong(args[4]) : 42);
+		if (args.length > 2) {
+			generator.setOccupancy(Double.parseDouble(args[2]));
+		}
+		if (args.length > 3) {
+			generator.setReservationRatio(Double.parseDouble(args[3]));
+		}
+		int slots = Integer.parseInt(args[1]);
+		long start = System.nanoTime();
+		try {
+			generator.write(args[0], slots);
+			System.out.println("Generated " + slots + " slots to " + args[0] + " in "
+					+ (System.nanoTime() - start) / 1000000 + " ms");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
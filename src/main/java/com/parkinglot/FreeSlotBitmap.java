@@ -0,0 +1,248 @@
+package com.parkinglot;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Multi-level bitmap of free slot numbers, for densely numbered lots. Bit 0
+ * stands for the lowest slot number of the lot, which may be negative. Level 0
+ * has one bit per slot number; each higher level has one bit per word
+ * of the level below, set when that word has any bit set, up to a single top
+ * word. The lowest free slot is found with one {@link Long#numberOfTrailingZeros}
+ * per level, and setting or clearing a slot touches at most one word per level,
+ * so every operation is O(log64 n): three words for 262,144 slots, four for 16
+ * million.
+ *
+ * The bitmap takes one bit per slot number from the lowest to the highest one,
+ * so it only suits dense numbering: {@link #of} refuses lots whose numbers span
+ * more than twice as many numbers as there are slots, and those keep using the
+ * AVL Tree.
+ */
+public class FreeSlotBitmap {
+
+	private long[][] levels; // Level 0 holds one bit per slot number, the last level is one word
+	private long offset; // Slot number of bit 0
+
+	/**
+	 * Constructor to create an empty bitmap for the slot numbers from a lowest
+	 * one. The bitmap grows when a lower or higher slot number is set.
+	 *
+	 * @param offset   The lowest slot number to make room for.
+	 * @param capacity The number of slot numbers to make room for.
+	 */
+	public FreeSlotBitmap(int offset, int capacity) {
+		this.offset = offset;
+		this.levels = allocate(Math.max(64, capacity));
+	}
+
+	/**
+	 * Checks if the slot numbers of a lot are dense enough for a bitmap, that is
+	 * if they span at most twice as many numbers as there are slots.
+	 *
+	 * @param lowest  The lowest slot number.
+	 * @param highest The highest slot number.
+	 * @param slots   The number of slots.
+	 * @return True if a bitmap of the lot takes at most two bits per slot.
+	 */
+	public static boolean isDense(int lowest, int highest, int slots) {
+		return (long) highest - lowest + 1 <= 2L * slots;
+	}
+
+	/**
+	 * Checks if the slot numbers of an AVL Tree are dense enough for a bitmap.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return True if the tree is empty or its slot numbers are dense.
+	 * @see #isDense(int, int, int)
+	 */
+	public static boolean isDense(AVLNode root) {
+		return root == null || isDense(minSlotNumber(root), maxSlotNumber(root), root.getSize());
+	}
+
+	/**
+	 * Builds a bitmap of the available slots of an AVL Tree.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The bitmap, with the bit of every available slot set, or null if
+	 *         the slot numbers of the tree are not dense.
+	 */
+	public static FreeSlotBitmap of(AVLNode root) {
+		if (!isDense(root)) {
+			return null;
+		}
+		int lowest = root == null ? 0 : minSlotNumber(root);
+		int highest = root == null ? 0 : maxSlotNumber(root);
+		FreeSlotBitmap bitmap = new FreeSlotBitmap(lowest, highest - lowest + 1);
+		Deque<AVLNode> stack = new ArrayDeque<>();
+		if (root != null) {
+			stack.push(root);
+		}
+		while (!stack.isEmpty()) {
+			AVLNode node = stack.pop();
+			if (node.isAvailable()) {
+				bitmap.set(node.getSlotNumber());
+			}
+			if (node.getLeftChild() != null) {
+				stack.push(node.getLeftChild());
+			}
+			if (node.getRightChild() != null) {
+				stack.push(node.getRightChild());
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Marks a slot as free.
+	 *
+	 * @param slotNumber The slot number.
+	 */
+	public void set(int slotNumber) {
+		if (slotNumber < offset || slotNumber - offset >= levels[0].length * 64L) {
+			grow(slotNumber);
+		}
+		int index = (int) (slotNumber - offset);
+		for (long[] level : levels) {
+			int word = index >>> 6;
+			boolean wasEmpty = level[word] == 0;
+			level[word] |= 1L << index;
+			if (!wasEmpty) {
+				return; // Higher levels already have the bit of this word
+			}
+			index = word;
+		}
+	}
+
+	/**
+	 * Marks a slot as taken.
+	 *
+	 * @param slotNumber The slot number.
+	 */
+	public void clear(int slotNumber) {
+		if (!covers(slotNumber)) {
+			return;
+		}
+		int index = (int) (slotNumber - offset);
+		for (long[] level : levels) {
+			int word = index >>> 6;
+			level[word] &= ~(1L << index);
+			if (level[word] != 0) {
+				return; // The word still has free bits
+			}
+			index = word;
+		}
+	}
+
+	/**
+	 * Checks if a slot is marked as free.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return True if the slot is free.
+	 */
+	public boolean get(int slotNumber) {
+		if (!covers(slotNumber)) {
+			return false;
+		}
+		int index = (int) (slotNumber - offset);
+		return (levels[0][index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Checks if the bitmap has not yet been marked free.
+	 *
+	 * @return True if no slot is free.
+	 */
+	public boolean isEmpty() {
+		return levels[levels.length - 1][0] == 0;
+	}
+
+	/**
+	 * Finds the lowest free slot.
+	 *
+	 * @return The lowest free slot number; only valid if the bitmap is not
+	 *         {@link #isEmpty() empty}, as any int may be a slot number.
+	 */
+	public int first() {
+		int top = levels.length - 1;
+		int index = Long.numberOfTrailingZeros(levels[top][0]);
+		for (int level = top - 1; level >= 0; level--) {
+			index = (index << 6) + Long.numberOfTrailingZeros(levels[level][index]);
+		}
+		return (int) (index + offset);
+	}
+
+	/**
+	 * Checks if a slot number has a bit in the bitmap.
+	 */
+	private boolean covers(int slotNumber) {
+		return slotNumber >= offset && slotNumber - offset < levels[0].length * 64L;
+	}
+
+	/**
+	 * Rebuilds the levels with room for a slot number below or above the
+	 * current ones, at least doubling the room, and keeps the free slots. The
+	 * offset moves down by whole words so the old words copy over unchanged.
+	 *
+	 * @param slotNumber The slot number needing a bit.
+	 */
+	private void grow(int slotNumber) {
+		long[] bits = levels[0];
+		long room = bits.length * 64L;
+		long shift = 0; // Bits added below the current offset
+		long capacity = Math.max(room * 2, slotNumber - offset + 1);
+		if (slotNumber < offset) {
+			shift = Math.max(room, (offset - slotNumber + 63) & ~63L);
+			capacity = room + shift;
+		}
+		offset -= shift;
+		levels = allocate(Math.toIntExact(capacity));
+		System.arraycopy(bits, 0, levels[0], (int) (shift >>> 6), bits.length);
+		for (int level = 1; level < levels.length; level++) {
+			long[] below = levels[level - 1];
+			for (int word = 0; word < below.length; word++) {
+				if (below[word] != 0) {
+					levels[level][word >>> 6] |= 1L << word;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Allocates empty levels for a number of slot numbers.
+	 */
+	private static long[][] allocate(int capacity) {
+		long[][] allocated = new long[0][];
+		int words = (capacity + 63) >>> 6;
+		while (true) {
+			allocated = Arrays.copyOf(allocated, allocated.length + 1);
+			allocated[allocated.length - 1] = new long[words];
+			if (words == 1) {
+				return allocated;
+			}
+			words = (words + 63) >>> 6;
+		}
+	}
+
+	/**
+	 * Returns the lowest slot number of a non-empty AVL Tree.
+	 */
+	private static int minSlotNumber(AVLNode root) {
+		AVLNode node = root;
+		while (node.getLeftChild() != null) {
+			node = node.getLeftChild();
+		}
+		return node.getSlotNumber();
+	}
+
+	/**
+	 * Returns the highest slot number of an AVL Tree.
+	 */
+	private static int maxSlotNumber(AVLNode root) {
+		int max = 0;
+		for (AVLNode node = root; node != null; node = node.getRightChild()) {
+			max = node.getSlotNumber();
+		}
+		return max;
+	}
+}
@@ -0,0 +1,124 @@
+package com.parkinglot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with log-linear buckets:
+ * every power of two is split into 16 equal buckets, so a percentile is
+ * reported within 1/16 (about 6%) of the true value from 16 ns to hours, in a
+ * fixed array of 960 counters.
+ *
+ * Recording is a bucket computation and two atomic increments, so threads
+ * recording at the same time never block each other.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Buckets per power of two
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS); // Values recorded in each bucket
+	private final LongAdder totalNanos = new LongAdder(); // Sum of the values recorded
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos The latency in nanoseconds (negative values count as 0).
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		totalNanos.add(value);
+	}
+
+	/**
+	 * Returns the number of latencies recorded.
+	 *
+	 * @return The count of recorded values.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the mean of the latencies recorded.
+	 *
+	 * @return The mean in nanoseconds, or 0 if nothing was recorded.
+	 */
+	public long getMeanNanos() {
+		long count = getCount();
+		return count == 0 ? 0 : totalNanos.sum() / count;
+	}
+
+	/**
+	 * Returns the latencies at some percentiles, read from one pass over the
+	 * buckets. Each is the highest value of the bucket holding it, so it is never
+	 * below the true percentile and at most 1/16 above it.
+	 *
+	 * @param percentiles The percentiles, between 0 and 100, in ascending order.
+	 * @return The latency in nanoseconds at each percentile (0 if nothing was
+	 *         recorded).
+	 */
+	public long[] getPercentiles(double... percentiles) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		long[] values = new long[percentiles.length];
+		if (count == 0) {
+			return values;
+		}
+		int bucket = 0;
+		long seen = snapshot[0];
+		for (int p = 0; p < percentiles.length; p++) {
+			long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * count));
+			while (seen < rank && bucket < BUCKETS - 1) {
+				seen += snapshot[++bucket];
+			}
+			values[p] = highestValueOf(bucket);
+		}
+		return values;
+	}
+
+	/**
+	 * Clears every bucket. Values recorded during the reset may be kept or lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		totalNanos.reset();
+	}
+
+	/**
+	 * Finds the bucket of a value: values below 16 have a bucket each, larger
+	 * values are placed by their highest bit and the 4 bits below it.
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the highest value that falls in a bucket.
+	 */
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+		return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,73 @@
+package com.parkinglot;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Immutable snapshot of the count and latencies of one operation of a parking
+ * manager. All latencies are in nanoseconds.
+ */
+public class OperationStatistics {
+
+	private final String operation; // Name of the operation
+	private final long count; // Number of calls recorded
+	private final long meanNanos; // Mean latency
+	private final long p50Nanos; // Median latency
+	private final long p99Nanos; // 99th percentile latency
+	private final long p999Nanos; // 99.9th percentile latency
+
+	/**
+	 * Constructor to initialize a snapshot.
+	 *
+	 * @param operation Name of the operation.
+	 * @param count     Number of calls recorded.
+	 * @param meanNanos Mean latency.
+	 * @param p50Nanos  Median latency.
+	 * @param p99Nanos  99th percentile latency.
+	 * @param p999Nanos 99.9th percentile latency.
+	 */
+	@ConstructorParameters({ "operation", "count", "meanNanos", "p50Nanos", "p99Nanos", "p999Nanos" })
+	public OperationStatistics(String operation, long count, long meanNanos, long p50Nanos, long p99Nanos,
+			long p999Nanos) {
+		this.operation = operation;
+		this.count = count;
+		this.meanNanos = meanNanos;
+		this.p50Nanos = p50Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMeanNanos() {
+		return meanNanos;
+	}
+
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+	public long getP999Nanos() {
+		return p999Nanos;
+	}
+
+	/**
+	 * Returns a string representation of the snapshot.
+	 *
+	 * @return The operation, its count and its latencies in microseconds.
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %d calls | mean %.1f us | p50 %.1f us | p99 %.1f us | p99.9 %.1f us", operation,
+				count, meanNanos / 1000.0, p50Nanos / 1000.0, p99Nanos / 1000.0, p999Nanos / 1000.0);
+	}
+}
@@ -0,0 +1,360 @@
+package com.parkinglot;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background service releasing cars as soon as they stay beyond the limit of
+ * their slot class, instead of waiting for an operator to remove cars parked for
+ * too long.
+ *
+ * Every parked car gets a deadline (entry time plus the limit of its slot
+ * class) in a hierarchical timing wheel of four levels of 64 buckets. A level 0
+ * bucket spans one tick, a level 1 bucket 64 ticks, and so on. Scheduling and
+ * cancelling a deadline is O(1); each tick only looks at the buckets that start
+ * at that tick, and a deadline is moved down a level at most three times before
+ * it fires, so firing is O(1) amortized per car. No tick ever traverses the
+ * parking lot, and the gates are only locked to release the cars that are due.
+ *
+ * The sweeper follows the lot through {@link ParkingListener}: parks schedule a
+ * deadline and departures cancel it. A deadline never fires before it is due;
+ * it fires at most one tick (plus scheduling delay) late. A tick that fails is
+ * logged and counted, and the next tick runs as usual.
+ */
+public class OverstaySweeper implements ParkingListener, Closeable {
+
+	private static final int WHEEL_BITS = 6;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS; // Buckets per level
+	private static final int LEVELS = 4; // Levels of the wheel (64^4 ticks in range)
+	private static final long MILLIS_PER_HOUR = 3600000L;
+	private static final Logger LOGGER = LoggerFactory.getLogger(OverstaySweeper.class);
+
+	private final ConcurrentParkingManager gates; // Gates whose cars are released
+	private final NavigableMap<Integer, Integer> hoursLimits; // First slot of each class to its limit in hours
+	private final long tickMillis; // Duration of one tick of the wheel
+	private final Clock clock; // Clock deadlines are measured with
+	private final long startMillis; // Time the sweeper was created
+	private final Deadline[] buckets = new Deadline[LEVELS * WHEEL_SIZE]; // Heads of the bucket lists
+	private final Map<Car, Deadline> scheduled = new IdentityHashMap<>(); // Deadline of each parked car
+
+	private long currentTick; // Last tick processed
+	private Deadline due; // Deadlines already due, waiting for the next tick
+	private long released; // Number of cars released
+	private long totalLagMillis; // Sum of the firing lags of released cars
+	private long maxLagMillis; // Largest firing lag of a released car
+	private long failedTicks; // Number of ticks that threw
+	private ScheduledExecutorService ticker; // Thread running the ticks (null until started)
+
+	/**
+	 * Constructor to create a sweeper using the system clock.
+	 *
+	 * @param gates       The gates whose cars are released.
+	 * @param hoursLimits Limit in hours of each slot class, keyed by the first slot
+	 *                    of the class. Slots below the first key are not limited.
+	 * @param tickMillis  Duration of one tick, the precision of the deadlines.
+	 */
+	public OverstaySweeper(ConcurrentParkingManager gates, NavigableMap<Integer, Integer> hoursLimits,
+			long tickMillis) {
+		this(gates, hoursLimits, tickMillis, Clock.systemDefaultZone());
+	}
+
+	/**
+	 * Constructor to create a sweeper using the given clock.
+	 *
+	 * @param gates       The gates whose cars are released.
+	 * @param hoursLimits Limit in hours of each slot class, keyed by the first slot
+	 *                    of the class. Slots below the first key are not limited.
+	 * @param tickMillis  Duration of one tick, the precision of the deadlines.
+	 * @param clock       The clock deadlines are measured with.
+	 */
+	public OverstaySweeper(ConcurrentParkingManager gates, NavigableMap<Integer, Integer> hoursLimits,
+			long tickMillis, Clock clock) {
+		this.gates = gates;
+		this.hoursLimits = new TreeMap<>(hoursLimits);
+		this.tickMillis = tickMillis;
+		this.clock = clock;
+		this.startMillis = clock.millis();
+		this.currentTick = startMillis / tickMillis;
+	}
+
+	/**
+	 * Schedules the cars already parked and starts ticking in the background.
+	 */
+	public void start() {
+		gates.setParkingListener(this);
+		ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "overstay-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long firstTick = tickMillis - clock.millis() % tickMillis;
+		ticker.scheduleAtFixedRate(this::tick, firstTick, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops ticking and stops following the gates.
+	 */
+	@Override
+	public void close() {
+		gates.setParkingListener(null);
+		if (ticker != null) {
+			ticker.shutdownNow();
+			try {
+				ticker.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Schedules the deadline of a car that has just parked.
+	 *
+	 * @param slotNumber The slot the car was parked in.
+	 * @param car        The parked car.
+	 */
+	@Override
+	public void carParked(int slotNumber, Car car) {
+		Map.Entry<Integer, Integer> limit = hoursLimits.floorEntry(slotNumber);
+		LocalDateTime entryTime = car.getEntryTime();
+		if (limit == null || entryTime == null) {
+			return;
+		}
+		long deadlineMillis = entryTime.atZone(clock.getZone()).toInstant().toEpochMilli()
+				+ limit.getValue() * MILLIS_PER_HOUR;
+		Deadline deadline = new Deadline(slotNumber, car, limit.getValue(), deadlineMillis,
+				Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+		synchronized (this) {
+			Deadline previous = scheduled.put(car, deadline);
+			if (previous != null) {
+				previous.cancelled = true;
+			}
+			schedule(deadline);
+		}
+	}
+
+	/**
+	 * Cancels the deadline of a car that has left.
+	 *
+	 * @param slotNumber The slot the car left.
+	 * @param car        The car that left.
+	 */
+	@Override
+	public synchronized void carLeft(int slotNumber, Car car) {
+		Deadline deadline = scheduled.remove(car);
+		if (deadline != null) {
+			deadline.cancelled = true;
+		}
+	}
+
+	/**
+	 * Advances the wheel up to the current time and releases every car whose
+	 * deadline has passed. Called by the background thread once per tick.
+	 */
+	void tick() {
+		try {
+			List<Deadline> fired = collectDue(clock.millis() / tickMillis);
+			for (Deadline deadline : fired) {
+				if (gates.releaseOverstay(deadline.slotNumber, deadline.car, deadline.hoursLimit)) {
+					long lag = clock.millis() - Math.max(deadline.deadlineMillis, startMillis);
+					synchronized (this) {
+						released++;
+						totalLagMillis += lag;
+						maxLagMillis = Math.max(maxLagMillis, lag);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			// Keep ticking so later deadlines still fire
+			synchronized (this) {
+				failedTicks++;
+			}
+			LOGGER.error("Overstay sweeper tick failed", e);
+		}
+	}
+
+	/**
+	 * Returns the number of parked cars with a deadline that has not fired yet.
+	 *
+	 * @return The backlog of scheduled deadlines.
+	 */
+	public synchronized int getBacklog() {
+		return scheduled.size();
+	}
+
+	/**
+	 * Returns the number of cars released by the sweeper.
+	 *
+	 * @return The number of released cars.
+	 */
+	public synchronized long getReleasedCount() {
+		return released;
+	}
+
+	/**
+	 * Returns the number of ticks that failed. The deadlines a failed tick had
+	 * collected are not fired again.
+	 *
+	 * @return The number of failed ticks.
+	 */
+	public synchronized long getFailedTicks() {
+		return failedTicks;
+	}
+
+	/**
+	 * Returns the largest delay between a deadline (or the start of the sweeper,
+	 * for cars already overdue then) and the release of its car.
+	 *
+	 * @return The maximum firing lag in milliseconds.
+	 */
+	public synchronized long getMaxFiringLagMillis() {
+		return maxLagMillis;
+	}
+
+	/**
+	 * Returns the average delay between a deadline and the release of its car.
+	 *
+	 * @return The average firing lag in milliseconds, or 0 if no car was released.
+	 */
+	public synchronized double getAverageFiringLagMillis() {
+		return released == 0 ? 0 : (double) totalLagMillis / released;
+	}
+
+	/**
+	 * Advances the wheel tick by tick up to the target tick and detaches every
+	 * deadline that is due.
+	 *
+	 * @param targetTick The tick of the current time.
+	 * @return The deadlines to fire, in no particular order.
+	 */
+	private synchronized List<Deadline> collectDue(long targetTick) {
+		List<Deadline> fired = new ArrayList<>();
+		Deadline deadline = due;
+		due = null;
+		while (currentTick < targetTick) {
+			currentTick++;
+			// Move the higher level buckets starting at this tick down, highest first
+			for (int level = LEVELS - 1; level > 0; level--) {
+				if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+					Deadline cascaded = detach(level);
+					while (cascaded != null) {
+						Deadline next = cascaded.next;
+						if (!cascaded.cancelled) {
+							schedule(cascaded);
+						}
+						cascaded = next;
+					}
+				}
+			}
+			Deadline expired = detach(0);
+			while (expired != null) {
+				Deadline next = expired.next;
+				expired.next = deadline;
+				deadline = expired;
+				expired = next;
+			}
+			if (due != null) {
+				// Deadlines cascaded onto the current tick
+				Deadline last = due;
+				while (last.next != null) {
+					last = last.next;
+				}
+				last.next = deadline;
+				deadline = due;
+				due = null;
+			}
+		}
+		while (deadline != null) {
+			Deadline next = deadline.next;
+			deadline.next = null;
+			if (!deadline.cancelled) {
+				scheduled.remove(deadline.car);
+				fired.add(deadline);
+			}
+			deadline = next;
+		}
+		return fired;
+	}
+
+	/**
+	 * Adds a deadline to the bucket covering it, or to the due list if it is
+	 * already due.
+	 *
+	 * @param deadline The deadline to schedule.
+	 */
+	private void schedule(Deadline deadline) {
+		long delta = deadline.deadlineTick - currentTick;
+		if (delta <= 0) {
+			deadline.next = due;
+			due = deadline;
+			return;
+		}
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+			level++;
+		}
+		// Deadlines beyond the range of the wheel wait in its last bucket and are
+		// scheduled again when it is reached
+		long tick = Math.min(deadline.deadlineTick, currentTick + (1L << (WHEEL_BITS * LEVELS)) - 1);
+		int index = level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & (WHEEL_SIZE - 1));
+		deadline.next = buckets[index];
+		buckets[index] = deadline;
+	}
+
+	/**
+	 * Empties the bucket of a level that starts at the current tick.
+	 *
+	 * @param level The level of the wheel.
+	 * @return The deadlines of the bucket, linked through their next field.
+	 */
+	private Deadline detach(int level) {
+		int index = level * WHEEL_SIZE + (int) ((currentTick >>> (WHEEL_BITS * level)) & (WHEEL_SIZE - 1));
+		Deadline head = buckets[index];
+		buckets[index] = null;
+		return head;
+	}
+
+	/**
+	 * Deadline of one parked car, linked into a bucket of the wheel.
+	 */
+	private static class Deadline {
+
+		private final int slotNumber; // Slot the car was parked in
+		private final Car car; // Parked car
+		private final int hoursLimit; // Limit of the slot class
+		private final long deadlineMillis; // Time the car has to leave by
+		private final long deadlineTick; // First tick at or after the deadline
+		private Deadline next; // Next deadline of the same bucket
+		private boolean cancelled; // Indicates if the car left before its deadline
+
+		/**
+		 * Constructor to create the deadline of a parked car.
+		 *
+		 * @param slotNumber     The slot the car was parked in.
+		 * @param car            The parked car.
+		 * @param hoursLimit     The limit of the slot class.
+		 * @param deadlineMillis The time the car has to leave by.
+		 * @param deadlineTick   The first tick at or after the deadline.
+		 */
+		private Deadline(int slotNumber, Car car, int hoursLimit, long deadlineMillis, long deadlineTick) {
+			this.slotNumber = slotNumber;
+			this.car = car;
+			this.hoursLimit = hoursLimit;
+			this.deadlineMillis = deadlineMillis;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.parkinglot;
+
+/**
+ * Immutable record of what an operation did to one slot, published to a
+ * {@link ParkingEventSink} instead of being printed.
+ *
+ * The event holds only the operation, its outcome and the values the message
+ * needs; the message itself is built when {@link #getMessage()} is called, so
+ * operations whose events are never shown pay nothing for formatting.
+ */
+public class ParkingEvent {
+
+	private final ParkingMetrics.Operation operation; // Operation that produced the event
+	private final SlotOutcome outcome; // What the operation did to the slot
+	private final int slotNumber; // Slot concerned (0 if no slot was found)
+	private final String licenseNumber; // Car concerned (null if none)
+	private final long hours; // Hours parked, or the limit a released car stayed over
+	private final double fee; // Fee charged (0 unless the outcome is FEE_CALCULATED)
+
+	/**
+	 * Constructor to initialize an event without hours or fee.
+	 *
+	 * @param operation     The operation that produced the event.
+	 * @param outcome       What the operation did to the slot.
+	 * @param slotNumber    The slot concerned.
+	 * @param licenseNumber The car concerned, or null if none.
+	 */
+	public ParkingEvent(ParkingMetrics.Operation operation, SlotOutcome outcome, int slotNumber,
+			String licenseNumber) {
+		this(operation, outcome, slotNumber, licenseNumber, 0, 0);
+	}
+
+	/**
+	 * Constructor to initialize an event.
+	 *
+	 * @param operation     The operation that produced the event.
+	 * @param outcome       What the operation did to the slot.
+	 * @param slotNumber    The slot concerned.
+	 * @param licenseNumber The car concerned, or null if none.
+	 * @param hours         The hours parked, or the limit a released car stayed
+	 *                      over.
+	 * @param fee           The fee charged.
+	 */
+	public ParkingEvent(ParkingMetrics.Operation operation, SlotOutcome outcome, int slotNumber, String licenseNumber,
+			long hours, double fee) {
+		this.operation = operation;
+		this.outcome = outcome;
+		this.slotNumber = slotNumber;
+		this.licenseNumber = licenseNumber;
+		this.hours = hours;
+		this.fee = fee;
+	}
+
+	public ParkingMetrics.Operation getOperation() {
+		return operation;
+	}
+
+	public SlotOutcome getOutcome() {
+		return outcome;
+	}
+
+	public int getSlotNumber() {
+		return slotNumber;
+	}
+
+	public String getLicenseNumber() {
+		return licenseNumber;
+	}
+
+	public long getHours() {
+		return hours;
+	}
+
+	public double getFee() {
+		return fee;
+	}
+
+	/**
+	 * Builds the message the operation used to print for this outcome.
+	 *
+	 * @return The message shown to the user, on one line except for fees, which
+	 *         take two.
+	 */
+	public String getMessage() {
+		switch (outcome) {
+		case PARKED:
+			return "Car " + licenseNumber + " parked at slot " + slotNumber;
+		case ALREADY_PARKED:
+			return "Car " + licenseNumber + " is already parked at slot " + slotNumber + ".";
+		case LOT_FULL:
+			return "No available slots.";
+		case RESERVATION_CLEARED:
+			return "Reservation cleared for Slot " + slotNumber + ".";
+		case FREED:
+			return "Slot " + slotNumber + " is now available.";
+		case ALREADY_AVAILABLE:
+			return "Slot " + slotNumber + " is already available.";
+		case NOT_FOUND:
+			if (operation == ParkingMetrics.Operation.RESERVE) {
+				return "Slot " + slotNumber + " not found.";
+			}
+			return "Slot " + slotNumber + " is not present in the parking lot.";
+		case UNKNOWN_SLOT:
+			return "Slot " + slotNumber + " not found!";
+		case NOT_PARKED:
+			return "Car " + licenseNumber + " is not parked in the parking lot.";
+		case RESERVED:
+			return "Slot " + slotNumber + " has been reserved.";
+		case OCCUPIED:
+			return "Slot " + slotNumber + " is already occupied.";
+		case RELEASED:
+			return "Slot " + slotNumber + " is now available (Car stayed over " + hours + " hours).";
+		case NOT_OCCUPIED:
+			return "Slot " + slotNumber + " is not occupied.";
+		case FEE_CALCULATED:
+			return "Car " + licenseNumber + " parked for " + hours + " hours." + System.lineSeparator()
+					+ "Total Fee: EUR " + fee;
+		default:
+			return outcome + " (slot " + slotNumber + ")";
+		}
+	}
+
+	/**
+	 * Returns a string representation of the event.
+	 *
+	 * @return The operation, the outcome and the message.
+	 */
+	@Override
+	public String toString() {
+		return operation + " " + outcome + ": " + getMessage();
+	}
+}
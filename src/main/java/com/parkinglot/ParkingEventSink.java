@@ -0,0 +1,21 @@
+package com.parkinglot;
+
+/**
+ * Receives the outcome of every operation of a parking manager, in place of
+ * the messages the operations used to print. Events are published on the
+ * thread performing the operation, often under the manager's lock, so sinks
+ * must return quickly and must never block on I/O.
+ */
+public interface ParkingEventSink {
+
+	/** Sink dropping every event. */
+	ParkingEventSink NONE = event -> {
+	};
+
+	/**
+	 * Called when an operation has finished with a slot.
+	 *
+	 * @param event What the operation did.
+	 */
+	void publish(ParkingEvent event);
+}
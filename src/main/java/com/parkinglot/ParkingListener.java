@@ -0,0 +1,27 @@
+package com.parkinglot;
+
+/**
+ * Receives the arrivals and departures of cars from a {@link ParkingManager}.
+ * Methods are called on the thread performing the operation, right after the
+ * slot has changed, so they must return quickly and must not call back into the
+ * manager.
+ */
+public interface ParkingListener {
+
+	/**
+	 * Called when a car has been parked in a slot.
+	 *
+	 * @param slotNumber The slot the car was parked in.
+	 * @param car        The parked car.
+	 */
+	void carParked(int slotNumber, Car car);
+
+	/**
+	 * Called when a car has left its slot, freed by a gate or released for
+	 * staying too long.
+	 *
+	 * @param slotNumber The slot the car left.
+	 * @param car        The car that left.
+	 */
+	void carLeft(int slotNumber, Car car);
+}
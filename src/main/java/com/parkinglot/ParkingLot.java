@@ -1,5 +1,8 @@
 package com.parkinglot;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -8,20 +11,54 @@ import java.util.Scanner;
  * various parking operations, and manage parking slots.
  */
 public class ParkingLot {
+
+	private static final int PAGE_SIZE = 500; // Slots shown per page by options 5 and 6
+
 	public static void main(String[] args) {
 		// Create instances of ParkingManager and AVLTree
 		ParkingManager manager = new ParkingManager();
 		AVLTree avlTree = new AVLTree();
 		AVLNode root = null;
 		String filePath = "src/main/resources/parking_lot_data.xlsx"; // File path for parking slot data
+		String snapshotPath = "src/main/resources/parking_lot_data.snap"; // Snapshot used for restarts
+		String journalPath = "src/main/resources/parking_lot_data.journal"; // Journal of changes since the snapshot
 
-		// Load parking slots from the Excel file to initialize the system
-		root = manager.loadParkingSlotsFromFile(filePath, avlTree);
+		// Collect the outcome of each operation, shown once the command is done
+		List<ParkingEvent> events = new ArrayList<>();
+		manager.setEventSink(events::add);
+
+		// Load parking slots from the last snapshot, or from the Excel file on first start
+		String loadPath = new File(snapshotPath).exists() ? snapshotPath : filePath;
+		if (loadPath.equals(snapshotPath)) {
+			root = manager.loadSnapshot(snapshotPath, avlTree);
+		} else {
+			root = manager.loadParkingSlotsStreaming(filePath, avlTree);
+		}
+		// Never run on, or checkpoint, a lot that failed to load
+		if (root == null) {
+			System.out.println("The parking lot could not be loaded. Restore " + loadPath + " and start again.");
+			return;
+		}
+		System.out.println("Parking slots loaded successfully from " + loadPath);
+		// Replay the changes journaled since then and keep journaling
+		root = manager.startJournal(journalPath, snapshotPath, root);
+		// Acknowledge a change only once it is on disk
+		manager.setDurableCommits(true);
+		// Assign slots from a bitmap of the free slots, or the tree if the numbering is sparse
+		manager.useBitmapAllocator(root);
+		// Publish operation latencies and lot gauges over JMX
+		manager.getMetrics().register("parking_lot_data");
 
 		Scanner scanner = new Scanner(System.in);
 
 		// Main loop for user interaction
 		while (true) {
+			// Show the outcome of the last command
+			for (ParkingEvent event : events) {
+				System.out.println(event.getMessage());
+			}
+			events.clear();
+
 			// Display menu options
 			System.out.println("\nPARKING LOT MANAGEMENT");
 			System.out.println("1. Park a Car");
@@ -35,6 +72,11 @@ public class ParkingLot {
 			System.out.println("9. Reserve a Parking Slot");
 			System.out.println("10. Calculate Parking Fee");
 			System.out.println("11. Save & Exit");
+			System.out.println("12. Find a Car by License Number");
+			System.out.println("13. Remove a Car by License Number");
+			System.out.println("14. Park a Car Near a Gate");
+			System.out.println("15. Show Zone Statistics");
+			System.out.println("16. Show Revenue Report");
 			System.out.print("Enter your choice: ");
 
 			// Get user input
@@ -67,12 +109,20 @@ public class ParkingLot {
 				System.out.println("Nearest Available Slot: " + (nearestSlot == -1 ? "None" : nearestSlot));
 				break;
 			case 5:
-				// Show the status of all parking slots
-				manager.displayParkingStatus(root);
+				// Show the status of the parking slots, a page at a time
+				SlotStatus statusFilter = readStatusFilter(scanner);
+				int statusCursor = manager.displayParkingStatus(root, Integer.MIN_VALUE, PAGE_SIZE, statusFilter);
+				while ((statusCursor = readNextPage(scanner, statusCursor)) != -1) {
+					statusCursor = manager.displayParkingStatus(root, statusCursor, PAGE_SIZE, statusFilter);
+				}
 				break;
 			case 6:
-				// Show the list of available, occupied, and reserved slots
-				manager.displaySlots(root);
+				// Show the list of available, occupied, and reserved slots, a page at a time
+				SlotStatus listFilter = readStatusFilter(scanner);
+				int listCursor = manager.displaySlots(root, Integer.MIN_VALUE, PAGE_SIZE, listFilter);
+				while ((listCursor = readNextPage(scanner, listCursor)) != -1) {
+					listCursor = manager.displaySlots(root, listCursor, PAGE_SIZE, listFilter);
+				}
 				break;
 			case 7:
 				// Show statistics of the parking lot
@@ -100,14 +150,111 @@ public class ParkingLot {
 				break;
 			case 11:
 				// Save the parking lot data and exit the program
-				manager.saveParkingSlotsToFile(filePath, root);
+				if (manager.saveParkingSlotsStreaming(filePath, root)) {
+					System.out.println("Parking slots saved successfully to " + filePath);
+				} else {
+					System.out.println("The parking lot could not be saved to " + filePath + ".");
+				}
+				manager.stopJournal();
 				System.out.println("Exiting...");
 				scanner.close(); // Close scanner before exiting
 				return;
+			case 12:
+				// Find the slot where a car is parked
+				System.out.print("Enter Car License Number: ");
+				String findLicense = scanner.nextLine();
+				AVLNode carSlot = manager.findSlotByPlate(findLicense);
+				if (carSlot == null) {
+					System.out.println("Car " + findLicense + " is not parked in the parking lot.");
+				} else {
+					manager.displaySlotDetails(root, carSlot.getSlotNumber());
+				}
+				break;
+			case 13:
+				// Remove a parked car by its license number and free its slot
+				System.out.print("Enter Car License Number: ");
+				String leavingLicense = scanner.nextLine();
+				root = manager.freeByPlate(root, leavingLicense);
+				break;
+			case 14:
+				// Park a car in the available slot closest to the slot at its gate
+				System.out.print("Enter Car License Number: ");
+				String gateLicense = scanner.nextLine();
+				System.out.print("Enter the Slot Number at the Gate: ");
+				int gateSlot = scanner.nextInt();
+				manager.parkCarNear(root, gateLicense, gateSlot);
+				break;
+			case 15:
+				// Show the occupancy and free slots of a range of slots, such as a floor
+				System.out.print("Enter the First Slot of the Zone: ");
+				int firstSlot = scanner.nextInt();
+				System.out.print("Enter the Last Slot of the Zone: ");
+				int lastSlot = scanner.nextInt();
+				if (firstSlot > lastSlot) {
+					System.out.println("The first slot must not be above the last slot.");
+					break;
+				}
+				ParkingZone zone = new ParkingZone("Zone", firstSlot, lastSlot);
+				manager.displayZoneStatistics(root, List.of(zone));
+				System.out.println("Available Slots: " + manager.findAvailableSlots(root, zone));
+				break;
+			case 16:
+				// Show the fees due for every parked car at an hourly rate, capped per day
+				System.out.print("Enter Hourly Rate: ");
+				double revenueRate = scanner.nextDouble();
+				System.out.print("Enter Daily Cap (0 for none): ");
+				double dailyCap = scanner.nextDouble();
+				manager.displayRevenueReport(root, Tariff.capped(revenueRate, dailyCap));
+				break;
 			default:
 				// Handle invalid input
 				System.out.println("Invalid choice. Please try again.");
 			}
 		}
 	}
+
+	/**
+	 * Asks for the status of the slots to show.
+	 *
+	 * @param scanner The scanner reading user input.
+	 * @return The chosen status, or null to show every slot.
+	 */
+	private static SlotStatus readStatusFilter(Scanner scanner) {
+		System.out.print("Filter by Status (all, available, reserved, occupied): ");
+		String status = scanner.nextLine().trim();
+		if (status.isEmpty() || status.equalsIgnoreCase("all")) {
+			return null;
+		}
+		try {
+			return SlotStatus.valueOf(status.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.out.println("Invalid status. Showing all slots.");
+			return null;
+		}
+	}
+
+	/**
+	 * Asks whether to show another page.
+	 *
+	 * @param scanner The scanner reading user input.
+	 * @param cursor  The slot number the next page starts from, or -1 if the
+	 *                last page was shown.
+	 * @return The slot number to show the next page from, or -1 to stop.
+	 */
+	private static int readNextPage(Scanner scanner, int cursor) {
+		if (cursor == -1) {
+			return -1;
+		}
+		System.out.print("Press Enter for the next " + PAGE_SIZE + " slots from slot " + cursor
+				+ ", enter a slot number to jump to, or q to stop: ");
+		String answer = scanner.nextLine().trim();
+		if (answer.isEmpty()) {
+			return cursor;
+		}
+		try {
+			return Integer.parseInt(answer);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
 }
@@ -4,14 +4,32 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.LongToDoubleFunction;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Manages parking slots using an AVL Tree. Handles loading and saving parking
@@ -19,13 +37,54 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
  */
 public class ParkingManager {
 
+	static final DateTimeFormatter ENTRY_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParkingManager.class);
+
 	private AVLTree tree; // AVL Tree instance to manage parking slots
+	private SlotJournal journal; // Write-ahead journal of state changes (null if not journaling)
+	private long journalSequence; // Sequence number of the last record this manager journaled
+	private boolean durableCommits; // Indicates if changes return only once their records are on disk
+	private Map<String, AVLNode> plateIndex; // License number of each parked car to its slot
+	private AVLNode indexedRoot; // Root of the lot the license plate index covers
+	private PriorityQueue<ParkedCar> entryTimes; // Parked cars, earliest entry time first
+	private int entryTimesLimit; // Queue size that triggers dropping stale entries
+	private ParkingListener listener; // Receiver of arrivals and departures (null if none)
+	private FreeSlotBitmap freeSlotBitmap; // Free slots for the bitmap allocator (null when the tree allocates)
+	private AVLNode bitmapRoot; // Root of the lot the bitmap describes
+	private final ParkingMetrics metrics = new ParkingMetrics(); // Latencies of the operations and lot gauges
+	private ParkingEventSink eventSink = AsyncEventSink.shared(); // Receiver of the outcome of each operation
 
 	/**
 	 * Constructor to initialize the ParkingManager with an empty AVL Tree.
 	 */
 	public ParkingManager() {
 		this.tree = new AVLTree();
+		this.plateIndex = new HashMap<>();
+		this.entryTimes = new PriorityQueue<>(Comparator.comparing(parked -> parked.car.getEntryTime()));
+		this.entryTimesLimit = 1024;
+	}
+
+	/**
+	 * Returns the metrics of this manager: the latencies of parking, freeing,
+	 * reserving, fee calculations and loads, and gauges of the lot. Register them
+	 * to publish them over JMX.
+	 *
+	 * @return The metrics of this manager.
+	 */
+	public ParkingMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the sink receiving the outcome of every operation, in place of the
+	 * messages the operations used to print. By default the outcomes go to the
+	 * shared {@link AsyncEventSink}, which logs them only at DEBUG level.
+	 *
+	 * @param eventSink The sink receiving the events.
+	 */
+	public void setEventSink(ParkingEventSink eventSink) {
+		this.eventSink = eventSink;
+		tree.setEventSink(eventSink);
 	}
 
 	/**
@@ -33,16 +92,18 @@ public class ParkingManager {
 	 *
 	 * @param filePath The path to the Excel file.
 	 * @param avlTree  The AVL Tree instance where data will be loaded.
-	 * @return The root node of the AVL Tree after inserting parking slots.
+	 * @return The root node of the AVL Tree after inserting parking slots, or null
+	 *         if the file could not be read.
 	 */
 	public AVLNode loadParkingSlotsFromFile(String filePath, AVLTree avlTree) {
+		long start = System.nanoTime();
 		AVLNode root = null;
+		List<AVLNode> slots = new ArrayList<>();
 
 		try (FileInputStream file = new FileInputStream(new File(filePath));
 				Workbook workbook = new XSSFWorkbook(file)) {
 
 			Sheet sheet = workbook.getSheetAt(0);
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
 			for (Row row : sheet) {
 				if (row.getRowNum() == 0)
@@ -57,20 +118,49 @@ public class ParkingManager {
 				if (slotNumber == -1)
 					continue;// Skip invalid slot numbers
 
-				LocalDateTime entryTime = entryTimeStr.isEmpty() ? null : LocalDateTime.parse(entryTimeStr, formatter);
+				LocalDateTime entryTime = entryTimeStr.isEmpty() ? null
+						: LocalDateTime.parse(entryTimeStr, ENTRY_TIME_FORMAT);
 				Car car = licenseNumber.isEmpty() ? null : new Car(licenseNumber, entryTime);
 
-				// Insert slot into AVL Tree
-				root = avlTree.insert(root, slotNumber, car);
-				avlTree.updateAvailability(root, slotNumber, availability);
-				avlTree.updateReservation(root, slotNumber, reservations);
+				slots.add(new AVLNode(slotNumber, car, availability, reservations));
 			}
 
-			System.out.println("Parking slots loaded successfully from " + filePath);
+			// Build the AVL Tree in one pass, as saved files are in slot order
+			root = avlTree.buildBalanced(slots);
+			indexParkedCars(root);
+		} catch (IOException e) {
+			LOGGER.error("Could not load parking slots from {}", filePath, e);
+		}
+
+		metrics.record(ParkingMetrics.Operation.LOAD, start, root);
+		return root;
+	}
+
+	/**
+	 * Loads parking slot data from an Excel file by streaming its rows with the
+	 * XSSF event (SAX) reader instead of building the whole workbook in memory.
+	 * The slots are then linked into a balanced AVL Tree in linear time.
+	 *
+	 * @param filePath The path to the Excel file.
+	 * @param avlTree  The AVL Tree instance where data will be loaded.
+	 * @return The root node of the AVL Tree after inserting parking slots, or null
+	 *         if the file could not be read.
+	 */
+	public AVLNode loadParkingSlotsStreaming(String filePath, AVLTree avlTree) {
+		long start = System.nanoTime();
+		AVLNode root = null;
+		List<AVLNode> slots = new ArrayList<>();
+
+		try {
+			XlsxSlotReader.read(filePath, (slotNumber, car, availability, reservations) -> slots
+					.add(new AVLNode(slotNumber, car, availability, reservations)));
+			root = avlTree.buildBalanced(slots);
+			indexParkedCars(root);
 		} catch (IOException e) {
-			e.printStackTrace();
+			LOGGER.error("Could not load parking slots from {}", filePath, e);
 		}
 
+		metrics.record(ParkingMetrics.Operation.LOAD, start, root);
 		return root;
 	}
 
@@ -79,8 +169,9 @@ public class ParkingManager {
 	 *
 	 * @param filePath The path where the Excel file will be saved.
 	 * @param root     The root node of the AVL Tree.
+	 * @return True if the file was saved.
 	 */
-	public void saveParkingSlotsToFile(String filePath, AVLNode root) {
+	public boolean saveParkingSlotsToFile(String filePath, AVLNode root) {
 		try (Workbook workbook = new XSSFWorkbook()) {
 			Sheet sheet = workbook.createSheet("Parking Slots");
 
@@ -99,41 +190,263 @@ public class ParkingManager {
 			try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
 				workbook.write(fileOut);
 			}
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("Could not save parking slots to {}", filePath, e);
+			return false;
+		}
+	}
 
-			System.out.println("Parking slots saved successfully to " + filePath);
+	/**
+	 * Saves parking slot data to an Excel file with the SXSSF streaming writer.
+	 * The tree is walked in order without recursion and rows are flushed to disk
+	 * as they are written, so memory use stays flat however large the lot is.
+	 *
+	 * @param filePath The path where the Excel file will be saved.
+	 * @param root     The root node of the AVL Tree.
+	 * @return True if the file was saved.
+	 */
+	public boolean saveParkingSlotsStreaming(String filePath, AVLNode root) {
+		try (XlsxSlotWriter writer = new XlsxSlotWriter(filePath)) {
+			Deque<AVLNode> stack = new ArrayDeque<>();
+			AVLNode node = root;
+			while (node != null || !stack.isEmpty()) {
+				while (node != null) {
+					stack.push(node);
+					node = node.getLeftChild();
+				}
+				node = stack.pop();
+				writer.writeSlot(node);
+				node = node.getRightChild();
+			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			LOGGER.error("Could not save parking slots to {}", filePath, e);
+			return false;
 		}
+		return true;
 	}
 
 	/**
-	 * Recursively saves parking slot data from the AVL Tree to the Excel sheet.
+	 * Saves the parking lot to a binary snapshot file for fast restarts.
 	 *
-	 * @param sheet    The Excel sheet where data will be written.
-	 * @param node     The current AVL node being processed.
-	 * @param rowIndex The current row index in the sheet.
-	 * @return The next row index after writing data.
+	 * @param filePath The path where the snapshot will be saved.
+	 * @param root     The root node of the AVL Tree.
+	 * @return True if the snapshot was saved.
+	 */
+	public boolean saveSnapshot(String filePath, AVLNode root) {
+		try {
+			SlotSnapshot.write(Path.of(filePath), root);
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("Could not save parking slots to {}", filePath, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Loads the parking lot from a binary snapshot file and builds a balanced AVL
+	 * Tree from it in linear time.
+	 *
+	 * @param filePath The path to the snapshot file.
+	 * @param avlTree  The AVL Tree instance where data will be loaded.
+	 * @return The root node of the AVL Tree, or null if the snapshot could not be
+	 *         read or is corrupt.
+	 */
+	public AVLNode loadSnapshot(String filePath, AVLTree avlTree) {
+		long start = System.nanoTime();
+		AVLNode root = null;
+		List<AVLNode> slots = new ArrayList<>();
+
+		try {
+			SlotSnapshot.read(Path.of(filePath), (slotNumber, car, availability, reservations) -> slots
+					.add(new AVLNode(slotNumber, car, availability, reservations)));
+			root = avlTree.buildBalanced(slots);
+			indexParkedCars(root);
+		} catch (IOException e) {
+			LOGGER.error("Could not load parking slots from {}", filePath, e);
+		}
+
+		metrics.record(ParkingMetrics.Operation.LOAD, start, root);
+		return root;
+	}
+
+	/**
+	 * Loads the parking lot from a binary snapshot file into a slot store, such as
+	 * a {@link PrimitiveSlotStore} for lots too large for an AVL Tree on the heap.
+	 *
+	 * @param filePath The path to the snapshot file.
+	 * @param store    The empty store where data will be loaded.
+	 * @return True if the snapshot was loaded; otherwise the store must be
+	 *         discarded.
 	 */
-	private int saveNodeDataToSheet(Sheet sheet, AVLNode node, int rowIndex) {
-		if (node == null)
-			return rowIndex;
+	public boolean loadSnapshot(String filePath, SlotStore store) {
+		try {
+			SlotSnapshot.read(Path.of(filePath), store::addSlot);
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("Could not load parking slots from {}", filePath, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Brings the parking lot up to date with the journal left by the previous run
+	 * and starts journaling every park, free, reserve, release of old cars and
+	 * new slot.
+	 * 
+	 * The journal is replayed on top of the given root (loaded from the last
+	 * snapshot, or from the Excel file on first start), the result is
+	 * checkpointed into the snapshot, and a new journal is opened. Records are
+	 * forced to disk in groups at most 5 ms after they are written, and the
+	 * journal is folded into the snapshot in the background once it exceeds 16
+	 * MB.
+	 *
+	 * If the lot could not be loaded (a null root), nothing is replayed or
+	 * written and journaling does not start, so the snapshot and the journal of
+	 * the previous run survive for another attempt.
+	 *
+	 * @param journalPath  The path of the journal file.
+	 * @param snapshotPath The path of the snapshot the journal applies to.
+	 * @param root         The root node of the AVL Tree loaded at startup.
+	 * @return The root node of the AVL Tree after replaying the journal.
+	 */
+	public AVLNode startJournal(String journalPath, String snapshotPath, AVLNode root) {
+		return startJournal(journalPath, snapshotPath, root, 5, 16L * 1024 * 1024);
+	}
 
-		rowIndex = saveNodeDataToSheet(sheet, node.getLeftChild(), rowIndex);
+	/**
+	 * Brings the parking lot up to date with the journal left by the previous run
+	 * and starts journaling with the given group commit interval and compaction
+	 * threshold.
+	 *
+	 * @param journalPath           The path of the journal file.
+	 * @param snapshotPath          The path of the snapshot the journal applies to.
+	 * @param root                  The root node of the AVL Tree loaded at startup.
+	 * @param groupCommitMillis     Longest time a record waits for its fsync.
+	 * @param compactThresholdBytes Journal size that triggers a compaction.
+	 * @return The root node of the AVL Tree after replaying the journal.
+	 */
+	public AVLNode startJournal(String journalPath, String snapshotPath, AVLNode root, long groupCommitMillis,
+			long compactThresholdBytes) {
+		try {
+			root = SlotJournal.recover(Path.of(journalPath), Path.of(snapshotPath), root, tree);
+			indexParkedCars(root);
+			if (freeSlotBitmap != null) {
+				useBitmapAllocator(root);
+			}
+			journal = new SlotJournal(Path.of(journalPath), Path.of(snapshotPath), groupCommitMillis,
+					compactThresholdBytes);
+			journalSequence = 0;
+			metrics.setRoot(root);
+		} catch (IOException e) {
+			LOGGER.error("Could not start the journal {}", journalPath, e);
+		}
+		return root;
+	}
 
-		Row row = sheet.createRow(rowIndex++);
-		row.createCell(0).setCellValue(node.getSlotNumber());
-		row.createCell(1).setCellValue(node.getCarDetails() == null ? "" : node.getCarDetails().getLicenseNumber());
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-		String formattedDate = "";
-		if (node.getCarDetails() != null && node.getCarDetails().getEntryTime() != null) {
-			formattedDate = node.getCarDetails().getEntryTime().format(formatter);
+	/**
+	 * Flushes the journal to disk and stops journaling.
+	 */
+	public void stopJournal() {
+		if (journal == null)
+			return;
+		try {
+			journal.close();
+		} catch (IOException e) {
+			LOGGER.error("Could not flush the journal", e);
 		}
-		row.createCell(2).setCellValue(formattedDate);
-		row.createCell(3).setCellValue(node.isAvailable());
-		row.createCell(4).setCellValue(node.isReserved());
+		journal = null;
+	}
 
-		rowIndex = saveNodeDataToSheet(sheet, node.getRightChild(), rowIndex);
+	/**
+	 * Returns the number of background compactions of the journal that failed.
+	 * Their records stay on disk and are folded in again later.
+	 *
+	 * @return The number of failed compactions, or 0 if not journaling.
+	 */
+	public long getJournalCompactionFailures() {
+		SlotJournal current = journal;
+		return current == null ? 0 : current.getCompactionFailures();
+	}
 
+	/**
+	 * Sets whether every park, free, reserve and release waits for its journal
+	 * record to be forced to disk before returning. Without it, a change is
+	 * acknowledged at once and lost in a crash within the group commit interval.
+	 *
+	 * @param durableCommits True to wait for the fsync of each change.
+	 */
+	public void setDurableCommits(boolean durableCommits) {
+		this.durableCommits = durableCommits;
+	}
+
+	public boolean isDurableCommits() {
+		return durableCommits;
+	}
+
+	/**
+	 * Returns the sequence number of the last journal record written by this
+	 * manager, for callers that wait for it with {@link #awaitJournal} after
+	 * releasing their own lock.
+	 *
+	 * @return The sequence number, or 0 if nothing was journaled.
+	 */
+	public long getJournalSequence() {
+		return journalSequence;
+	}
+
+	/**
+	 * Waits until a journal record has been forced to disk. Records of other
+	 * threads waiting at the same time are forced with the same fsync. Nothing
+	 * happens when not journaling.
+	 *
+	 * @param sequence The sequence number of the record.
+	 */
+	public void awaitJournal(long sequence) {
+		SlotJournal current = journal;
+		if (current == null || sequence == 0) {
+			return;
+		}
+		try {
+			current.awaitDurable(sequence);
+		} catch (IOException e) {
+			LOGGER.error("Could not force journal record {} to disk", sequence, e);
+		}
+	}
+
+	/**
+	 * Waits for the last journal record to reach the disk when commits are
+	 * durable.
+	 */
+	private void commit() {
+		if (durableCommits) {
+			awaitJournal(journalSequence);
+		}
+	}
+
+	/**
+	 * Saves parking slot data from the AVL Tree to the Excel sheet, walking the
+	 * slots in order with the slot iterator.
+	 *
+	 * @param sheet    The Excel sheet where data will be written.
+	 * @param root     The root node of the AVL Tree.
+	 * @param rowIndex The row index of the first slot in the sheet.
+	 * @return The next row index after writing data.
+	 */
+	private int saveNodeDataToSheet(Sheet sheet, AVLNode root, int rowIndex) {
+		for (Iterator<AVLNode> slots = tree.iterator(root); slots.hasNext();) {
+			AVLNode node = slots.next();
+			Row row = sheet.createRow(rowIndex++);
+			row.createCell(0).setCellValue(node.getSlotNumber());
+			row.createCell(1).setCellValue(node.getCarDetails() == null ? "" : node.getCarDetails().getLicenseNumber());
+			String formattedDate = "";
+			if (node.getCarDetails() != null && node.getCarDetails().getEntryTime() != null) {
+				formattedDate = node.getCarDetails().getEntryTime().format(ENTRY_TIME_FORMAT);
+			}
+			row.createCell(2).setCellValue(formattedDate);
+			row.createCell(3).setCellValue(node.isAvailable());
+			row.createCell(4).setCellValue(node.isReserved());
+		}
 		return rowIndex;
 	}
 
@@ -145,29 +458,109 @@ public class ParkingManager {
 	 * @return The updated AVL Tree root after assignment.
 	 */
 	public AVLNode assignParkingSlot(AVLNode root, String licenseNumber) {
-		int slotNumber = tree.findNearestAvailableSlot(root);
+		parkCar(root, licenseNumber);
+		return root;
+	}
 
-		if (slotNumber == -1) {
-			System.out.println("No available slots.");
-			return root;
+	/**
+	 * Parks a car in the nearest available slot in a single descent of the AVL
+	 * tree: the slot is found, occupied and the counts on its path refreshed
+	 * without searching the tree again.
+	 *
+	 * @param root          The root node of the AVL Tree.
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @return The slot the car was parked in, or null if no slot is available.
+	 */
+	public AVLNode parkCar(AVLNode root, String licenseNumber) {
+		long start = System.nanoTime();
+		try {
+			bindPlateIndex(root);
+			if (isParked(licenseNumber)) {
+				return null;
+			}
+			return occupy(findNearestAvailablePath(root), licenseNumber, bitmapOf(root));
+		} finally {
+			commit();
+			metrics.record(ParkingMetrics.Operation.PARK, start, root);
 		}
+	}
 
-		Car newCar = new Car(licenseNumber, LocalDateTime.now());
-		root = tree.updateAvailability(root, slotNumber, false);
-		AVLNode slot = tree.search(root, slotNumber);
-		slot.setCarDetails(newCar);
-
-		if (slot != null) {
-			slot.setCarDetails(newCar);
-			// Remove reservation since the car is parked
-			if (slot.isReserved()) {
-				slot.setReserved(false);
-				System.out.println("Reservation cleared for Slot " + slotNumber + ".");
+	/**
+	 * Parks a car in the available slot closest to a target slot, such as the
+	 * slot next to the gate the car came in through.
+	 *
+	 * @param root          The root node of the AVL Tree.
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @param targetSlot    The slot number to park near.
+	 * @return The slot the car was parked in, or null if no slot is available.
+	 */
+	public AVLNode parkCarNear(AVLNode root, String licenseNumber, int targetSlot) {
+		long start = System.nanoTime();
+		try {
+			bindPlateIndex(root);
+			if (isParked(licenseNumber)) {
+				return null;
 			}
-			System.out.println("Car " + licenseNumber + " parked at slot " + slotNumber);
+			int slotNumber = tree.findNearestAvailableSlot(root, targetSlot);
+			return occupy(slotNumber < 0 ? tree.findNearestAvailablePath(root) : tree.findPath(root, slotNumber),
+					licenseNumber, bitmapOf(root));
+		} finally {
+			commit();
+			metrics.record(ParkingMetrics.Operation.PARK, start, root);
 		}
+	}
 
-		return root;
+	/**
+	 * Publishes the outcome of an operation to the event sink.
+	 */
+	private void publish(ParkingMetrics.Operation operation, SlotOutcome outcome, int slotNumber,
+			String licenseNumber) {
+		eventSink.publish(new ParkingEvent(operation, outcome, slotNumber, licenseNumber));
+	}
+
+	/**
+	 * Checks if a car is already parked, reporting the slot it is parked at.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return True if the car is already parked.
+	 */
+	private boolean isParked(String licenseNumber) {
+		AVLNode parked = findSlotToChange(licenseNumber);
+		if (parked != null) {
+			publish(ParkingMetrics.Operation.PARK, SlotOutcome.ALREADY_PARKED, parked.getSlotNumber(), licenseNumber);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Parks a car in the slot at the end of a path and refreshes the counts on
+	 * the path.
+	 *
+	 * @param path          The path to an available slot, or to no slot if the
+	 *                      lot is full.
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @param bitmap        The free slot bitmap of the lot (null if none).
+	 * @return The slot the car was parked in, or null if no slot is available.
+	 */
+	private AVLNode occupy(SlotPath path, String licenseNumber, FreeSlotBitmap bitmap) {
+		AVLNode slot = path.getSlot();
+
+		if (slot == null) {
+			publish(ParkingMetrics.Operation.PARK, SlotOutcome.LOT_FULL, 0, licenseNumber);
+			return null;
+		}
+
+		// Remove reservation since the car is parked
+		if (slot.isReserved()) {
+			publish(ParkingMetrics.Operation.PARK, SlotOutcome.RESERVATION_CLEARED, slot.getSlotNumber(),
+					licenseNumber);
+		}
+		fill(slot, licenseNumber, bitmap);
+		path.refreshCounts();
+		publish(ParkingMetrics.Operation.PARK, SlotOutcome.PARKED, slot.getSlotNumber(), licenseNumber);
+
+		return slot;
 	}
 
 	/**
@@ -178,36 +571,267 @@ public class ParkingManager {
 	 * @return The updated AVL Tree root after freeing the slot.
 	 */
 	public AVLNode freeSlot(AVLNode root, int slotNumber) {
-		AVLNode slot = tree.search(root, slotNumber);
+		vacateSlot(root, slotNumber);
+		return root;
+	}
 
-		if (slot == null) {
-			System.out.println("Slot " + slotNumber + " is not present in the parking lot.");
-			return root;
+	/**
+	 * Frees an occupied parking slot in a single descent of the AVL tree.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param slotNumber The slot number to be freed.
+	 * @return The freed slot, or null if the slot does not exist or was already
+	 *         available.
+	 */
+	public AVLNode vacateSlot(AVLNode root, int slotNumber) {
+		long start = System.nanoTime();
+		try {
+			SlotPath path = tree.findPath(root, slotNumber);
+			if (path.getSlot() == null) {
+				publish(ParkingMetrics.Operation.FREE, SlotOutcome.NOT_FOUND, slotNumber, null);
+				return null;
+			}
+			return vacate(path, bitmapOf(root));
+		} finally {
+			commit();
+			metrics.record(ParkingMetrics.Operation.FREE, start, root);
 		}
+	}
+
+	/**
+	 * Frees the slot at the end of a path and refreshes the counts along it.
+	 *
+	 * @param path   The path to an existing slot.
+	 * @param bitmap The free slot bitmap of the lot (null if none).
+	 * @return The freed slot, or null if the slot was already available.
+	 */
+	private AVLNode vacate(SlotPath path, FreeSlotBitmap bitmap) {
+		AVLNode slot = path.getSlot();
+		int slotNumber = slot.getSlotNumber();
 
 		if (slot.isAvailable() && !slot.isReserved()) {
-			System.out.println("Slot " + slotNumber + " is already available.");
-			return root;
+			publish(ParkingMetrics.Operation.FREE, SlotOutcome.ALREADY_AVAILABLE, slotNumber, null);
+			return null;
 		}
 
+		Car car = slot.getCarDetails();
+		empty(slot, bitmap);
+		path.refreshCounts();
+		publish(ParkingMetrics.Operation.FREE, SlotOutcome.FREED, slotNumber,
+				car == null ? null : car.getLicenseNumber());
+
+		return slot;
+	}
+
+	/**
+	 * Parks a car in an available slot, clearing its reservation, and updates the
+	 * indexes, the bitmap, the journal and the listener. The caller refreshes the
+	 * counts of the slot's ancestors.
+	 *
+	 * @param slot          The available slot.
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @param bitmap        The free slot bitmap of the lot (null if none).
+	 */
+	private void fill(AVLNode slot, String licenseNumber, FreeSlotBitmap bitmap) {
+		slot.setCarDetails(new Car(licenseNumber, LocalDateTime.now()));
+		slot.setAvailable(false);
+		slot.setReserved(false);
+		if (bitmap != null) {
+			bitmap.clear(slot.getSlotNumber());
+		}
+		plateIndex.put(licenseNumber, slot);
+		trackEntryTime(slot);
+		if (journal != null) {
+			journalSequence = journal.logPark(slot.getSlotNumber(), slot.getCarDetails());
+		}
+		if (listener != null) {
+			listener.carParked(slot.getSlotNumber(), slot.getCarDetails());
+		}
+	}
+
+	/**
+	 * Frees an occupied or reserved slot, keeping its reservation, and updates
+	 * the indexes, the bitmap, the journal and the listener. The caller refreshes
+	 * the counts of the slot's ancestors.
+	 *
+	 * @param slot   The slot to free.
+	 * @param bitmap The free slot bitmap of the lot (null if none).
+	 */
+	private void empty(AVLNode slot, FreeSlotBitmap bitmap) {
+		int slotNumber = slot.getSlotNumber();
+		Car car = slot.getCarDetails();
+		if (car != null) {
+			plateIndex.remove(car.getLicenseNumber(), slot);
+		}
 		slot.setCarDetails(null);
-		root = tree.updateAvailability(root, slotNumber, true);
-		System.out.println("Slot " + slotNumber + " is now available.");
+		slot.setAvailable(true);
+		if (bitmap != null) {
+			bitmap.set(slotNumber);
+		}
+		if (journal != null) {
+			journalSequence = journal.logFree(slotNumber);
+		}
+		if (listener != null && car != null) {
+			listener.carLeft(slotNumber, car);
+		}
+	}
 
-		return root;
+	/**
+	 * Finds the slot where a car is parked, in O(1) through the license plate
+	 * index. The index covers one parking lot, the one last loaded or parked in,
+	 * and is kept in sync by every park, free and release of old cars; entries
+	 * made stale by changes applied outside the manager are detected here and
+	 * dropped by the next change. The lookup never modifies the index, so it
+	 * may run alongside other lookups.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return The slot the car is parked in, or null if the car is not parked.
+	 */
+	public AVLNode findSlotByPlate(String licenseNumber) {
+		AVLNode slot = plateIndex.get(licenseNumber);
+		if (slot == null) {
+			return null;
+		}
+		Car car = slot.getCarDetails();
+		if (slot.isAvailable() || car == null || !licenseNumber.equals(car.getLicenseNumber())) {
+			return null;
+		}
+		return slot;
+	}
+
+	/**
+	 * Finds the slot where a car is parked before changing it, dropping a stale
+	 * index entry.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return The slot the car is parked in, or null if the car is not parked.
+	 */
+	private AVLNode findSlotToChange(String licenseNumber) {
+		AVLNode slot = findSlotByPlate(licenseNumber);
+		if (slot == null) {
+			plateIndex.remove(licenseNumber);
+		}
+		return slot;
+	}
+
+	/**
+	 * Makes the license plate index cover the lot of a root, rebuilding it from
+	 * the lot's parked cars when it covered another lot, so a car parked in one
+	 * lot is never found in, or refused by, another lot served by this manager.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 */
+	private void bindPlateIndex(AVLNode root) {
+		if (root == indexedRoot) {
+			return;
+		}
+		plateIndex.clear();
+		indexedRoot = root;
+		Deque<AVLNode> stack = new ArrayDeque<>();
+		if (root != null) {
+			stack.push(root);
+		}
+		while (!stack.isEmpty()) {
+			AVLNode node = stack.pop();
+			if (!node.isAvailable() && node.getCarDetails() != null) {
+				plateIndex.put(node.getCarDetails().getLicenseNumber(), node);
+			}
+			if (node.getLeftChild() != null) {
+				stack.push(node.getLeftChild());
+			}
+			if (node.getRightChild() != null) {
+				stack.push(node.getRightChild());
+			}
+		}
+	}
+
+	/**
+	 * Frees the slot of a car given its license plate number, as read at an exit
+	 * gate.
+	 *
+	 * @param root          The root node of the AVL Tree.
+	 * @param licenseNumber The license plate number of the leaving car.
+	 * @return The updated AVL Tree root after freeing the slot.
+	 */
+	public AVLNode freeByPlate(AVLNode root, String licenseNumber) {
+		long start = System.nanoTime();
+		try {
+			bindPlateIndex(root);
+			AVLNode slot = findSlotToChange(licenseNumber);
+			SlotPath path = slot == null ? null : tree.findPath(root, slot.getSlotNumber());
+			if (path == null || path.getSlot() != slot) {
+				publish(ParkingMetrics.Operation.FREE, SlotOutcome.NOT_PARKED, 0, licenseNumber);
+				return root;
+			}
+			vacate(path, bitmapOf(root));
+			return root;
+		} finally {
+			commit();
+			metrics.record(ParkingMetrics.Operation.FREE, start, root);
+		}
+	}
+
+	/**
+	 * Makes the license plate index cover a parking lot and adds every parked car
+	 * of the lot to the entry time index. The loaders do this themselves; a lot
+	 * built outside the manager must be indexed before cars are looked up by
+	 * plate or released by age.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 */
+	public void indexParkedCars(AVLNode root) {
+		indexedRoot = null;
+		bindPlateIndex(root);
+		for (AVLNode slot : plateIndex.values()) {
+			trackEntryTime(slot);
+		}
+	}
+
+	/**
+	 * Adds the car parked in a slot to the entry time index. Cars without an entry
+	 * time never overstay and are not tracked.
+	 * 
+	 * Entries are not removed when a car leaves; they are recognized as stale and
+	 * dropped when they reach the head of the queue, or all at once whenever the
+	 * queue has doubled in size since they were last dropped.
+	 *
+	 * @param slot The occupied slot.
+	 */
+	private void trackEntryTime(AVLNode slot) {
+		if (slot.getCarDetails().getEntryTime() == null) {
+			return;
+		}
+		entryTimes.add(new ParkedCar(slot, slot.getCarDetails()));
+		if (entryTimes.size() > entryTimesLimit) {
+			entryTimes.removeIf(ParkedCar::isStale);
+			entryTimesLimit = Math.max(1024, 2 * entryTimes.size());
+		}
 	}
 
 	/**
 	 * Displays the available, occupied, and reserved slots in the AVL tree.
 	 * 
-	 * This method calls the tree's `displaySlots` method to categorize the slots
-	 * into available, occupied, and reserved slots, then prints out the categorized
-	 * slots.
+	 * The slots are categorized in one in-order walk and printed through a
+	 * buffered writer, see {@link SlotPageRenderer}.
 	 * 
 	 * @param root The root node of the AVL tree to begin displaying slots from.
 	 */
 	public void displaySlots(AVLNode root) {
-		tree.displaySlots(root);
+		renderer().renderAvailability(root, Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+	}
+
+	/**
+	 * Displays one page of the available, occupied, and reserved slots.
+	 *
+	 * @param root     The root node of the AVL Tree.
+	 * @param fromSlot The lowest slot number of the page.
+	 * @param pageSize The maximum number of slots on the page.
+	 * @param status   The status of the slots to show (null for every slot).
+	 * @return The slot number to start the next page from, or -1 if no slot is
+	 *         left.
+	 */
+	public int displaySlots(AVLNode root, int fromSlot, int pageSize, SlotStatus status) {
+		return renderer().renderAvailability(root, fromSlot, pageSize, status);
 	}
 
 	/**
@@ -223,38 +847,250 @@ public class ParkingManager {
 	 *         available slots are found.
 	 */
 	public int findNearestAvailableSlot(AVLNode root) {
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		if (bitmap != null) {
+			return bitmap.isEmpty() ? -1 : bitmap.first();
+		}
 		return tree.findNearestAvailableSlot(root);
 	}
 
+	/**
+	 * Finds the path to the nearest available slot, through the free slot bitmap
+	 * when the bitmap allocator is in use for this lot. A slot the bitmap reports
+	 * free but the tree does not (after a change made outside the manager) is
+	 * dropped from the bitmap and the tree is searched instead.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The path to the nearest available slot, ending at no slot if the
+	 *         lot is full.
+	 */
+	private SlotPath findNearestAvailablePath(AVLNode root) {
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		if (bitmap != null && !bitmap.isEmpty()) {
+			int slotNumber = bitmap.first();
+			SlotPath path = tree.findPath(root, slotNumber);
+			if (path.getSlot() != null && path.getSlot().isAvailable()) {
+				return path;
+			}
+			bitmap.clear(slotNumber);
+		}
+		return tree.findNearestAvailablePath(root);
+	}
+
+	/**
+	 * Switches slot assignment to a {@link FreeSlotBitmap} of the available slots
+	 * of a parking lot, which finds the lowest free slot in O(log64 n) word reads
+	 * instead of a descent of the AVL Tree. Parks, frees and releases keep the
+	 * bitmap in sync; reservations leave a slot available and do not change it.
+	 * The bitmap serves the lot of the given root only; other lots served by
+	 * this manager keep using the tree. A lot whose slot numbers are not dense
+	 * (see {@link FreeSlotBitmap#isDense(AVLNode)}) keeps using the tree too, and
+	 * so does a lot that stops being dense when a slot is inserted.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return True if the bitmap allocator is in use, false if the lot is sparse.
+	 */
+	public boolean useBitmapAllocator(AVLNode root) {
+		freeSlotBitmap = FreeSlotBitmap.of(root);
+		bitmapRoot = freeSlotBitmap == null ? null : root;
+		return freeSlotBitmap != null;
+	}
+
+	/**
+	 * Switches slot assignment back to descents of the AVL Tree.
+	 */
+	public void useTreeAllocator() {
+		freeSlotBitmap = null;
+		bitmapRoot = null;
+	}
+
+	/**
+	 * Returns the free slot bitmap if it describes the lot of a root.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The bitmap, or null if the tree allocates in this lot.
+	 */
+	private FreeSlotBitmap bitmapOf(AVLNode root) {
+		return root != null && root == bitmapRoot ? freeSlotBitmap : null;
+	}
+
+	/**
+	 * Adds a new, available parking slot to the AVL Tree.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param slotNumber The slot number to be inserted.
+	 * @return The updated AVL Tree root after insertion.
+	 */
+	public AVLNode insertSlot(AVLNode root, int slotNumber) {
+		AVLNode newRoot = tree.insert(root, slotNumber, null);
+		if (root == indexedRoot) {
+			indexedRoot = newRoot; // Same lot, rotated
+		}
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		if (bitmap != null && !FreeSlotBitmap.isDense(newRoot)) {
+			useTreeAllocator(); // The new slot number is far outside the lot
+		} else if (bitmap != null) {
+			bitmapRoot = newRoot;
+			if (tree.search(newRoot, slotNumber).isAvailable()) {
+				bitmap.set(slotNumber);
+			}
+		}
+		if (journal != null) {
+			journalSequence = journal.logInsert(slotNumber);
+		}
+		commit();
+		metrics.setRoot(newRoot);
+		return newRoot;
+	}
+
 	/**
 	 * Prints the parking status of each slot in the AVL tree.
 	 * 
-	 * This method calls the tree's `printParkingStatus` method to print the status
-	 * of each slot. The parking status includes whether the slot is available,
-	 * reserved, or occupied, and additional information about the car if the slot
-	 * is occupied.
+	 * The parking status includes whether the slot is available, reserved, or
+	 * occupied, and additional information about the car if the slot is occupied.
+	 * The lines go through a buffered writer, see {@link SlotPageRenderer}.
 	 * 
 	 * @param root The root node of the AVL tree to start displaying the parking
 	 *             status from.
 	 */
 	public void displayParkingStatus(AVLNode root) {
-		tree.printParkingStatus(root);
+		renderer().renderStatus(root, Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+	}
+
+	/**
+	 * Prints one page of the parking status, starting at a slot number.
+	 *
+	 * @param root     The root node of the AVL Tree.
+	 * @param fromSlot The lowest slot number of the page.
+	 * @param pageSize The maximum number of slots on the page.
+	 * @param status   The status of the slots to show (null for every slot).
+	 * @return The slot number to start the next page from, or -1 if no slot is
+	 *         left.
+	 */
+	public int displayParkingStatus(AVLNode root, int fromSlot, int pageSize, SlotStatus status) {
+		return renderer().renderStatus(root, fromSlot, pageSize, status);
+	}
+
+	/**
+	 * Creates a renderer writing to the console.
+	 *
+	 * @return A page renderer over System.out.
+	 */
+	private SlotPageRenderer renderer() {
+		return new SlotPageRenderer(tree, new OutputStreamWriter(System.out));
 	}
 
 	/**
 	 * Releases cars that have been parked for longer than a specified time limit.
 	 * 
-	 * This method recursively traverses the AVL tree and checks each slot to see if
-	 * a car has been parked for longer than the given `hoursLimit`. If so, it marks
-	 * the slot as available.
+	 * This method reads the current time once and pops cars from the entry time
+	 * index, earliest first, for as long as they have been parked for at least
+	 * `hoursLimit` hours, so a sweep costs O(k log n) for k released cars instead
+	 * of a pass over every slot.
 	 * 
-	 * @param node       The current node being evaluated.
+	 * @param node       The root node of the AVL Tree.
 	 * @param hoursLimit The number of hours beyond which a car is considered to
 	 *                   have stayed too long.
-	 * @return The updated AVLNode with old cars released as needed.
+	 * @return The updated AVL Tree root with old cars released as needed.
 	 */
 	public AVLNode releaseOldCars(AVLNode node, int hoursLimit) {
-		return tree.releaseOldCars(node, hoursLimit);
+		LocalDateTime now = LocalDateTime.now();
+		FreeSlotBitmap bitmap = bitmapOf(node);
+
+		// Pop cars in entry time order until the first one that may stay
+		List<ParkedCar> otherLots = new ArrayList<>();
+		while (!entryTimes.isEmpty()) {
+			ParkedCar parked = entryTimes.peek();
+			if (parked.isStale()) {
+				entryTimes.poll();
+				continue;
+			}
+			if (ChronoUnit.HOURS.between(parked.car.getEntryTime(), now) < hoursLimit) {
+				break;
+			}
+			entryTimes.poll();
+
+			SlotPath path = tree.findPath(node, parked.slot.getSlotNumber());
+			if (path.getSlot() != parked.slot) {
+				otherLots.add(parked); // Parked in another lot handled by this manager
+				continue;
+			}
+			plateIndex.remove(parked.car.getLicenseNumber(), parked.slot);
+			parked.slot.setAvailable(true);
+			parked.slot.setCarDetails(null);
+			path.refreshCounts();
+			if (bitmap != null) {
+				bitmap.set(parked.slot.getSlotNumber());
+			}
+			if (journal != null) {
+				journalSequence = journal.logFree(parked.slot.getSlotNumber());
+			}
+			if (listener != null) {
+				listener.carLeft(parked.slot.getSlotNumber(), parked.car);
+			}
+			eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.RELEASED,
+					parked.slot.getSlotNumber(), parked.car.getLicenseNumber(), hoursLimit, 0));
+		}
+		entryTimes.addAll(otherLots);
+		commit();
+		metrics.setRoot(node);
+		return node;
+	}
+
+	/**
+	 * Releases one car that has stayed beyond its limit, as found by an overstay
+	 * sweeper. Nothing happens if the car has already left the slot.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param slotNumber The slot the car was parked in.
+	 * @param car        The car to release, as received by the listener.
+	 * @param hoursLimit The limit the car has stayed beyond.
+	 * @return The freed slot, or null if the slot no longer holds the car.
+	 */
+	public AVLNode releaseOverstay(AVLNode root, int slotNumber, Car car, int hoursLimit) {
+		SlotPath path = tree.findPath(root, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null || slot.isAvailable() || slot.getCarDetails() != car) {
+			return null;
+		}
+
+		plateIndex.remove(car.getLicenseNumber(), slot);
+		slot.setAvailable(true);
+		slot.setCarDetails(null);
+		path.refreshCounts();
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		if (bitmap != null) {
+			bitmap.set(slotNumber);
+		}
+		if (journal != null) {
+			journalSequence = journal.logFree(slotNumber);
+		}
+		if (listener != null) {
+			listener.carLeft(slotNumber, car);
+		}
+		eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.RELEASED, slotNumber,
+				car.getLicenseNumber(), hoursLimit, 0));
+		commit();
+
+		return slot;
+	}
+
+	/**
+	 * Registers the listener receiving every arrival and departure, replacing any
+	 * previous one. The listener is first told about every car already parked.
+	 *
+	 * @param listener The listener to register, or null to stop notifying.
+	 */
+	public void setParkingListener(ParkingListener listener) {
+		this.listener = listener;
+		if (listener != null) {
+			for (String licenseNumber : new ArrayList<>(plateIndex.keySet())) {
+				AVLNode slot = findSlotByPlate(licenseNumber);
+				if (slot != null) {
+					listener.carParked(slot.getSlotNumber(), slot.getCarDetails());
+				}
+			}
+		}
 	}
 
 	/**
@@ -285,18 +1121,45 @@ public class ParkingManager {
 	 * @return The calculated parking fee.
 	 */
 	public double calculateParkingFee(AVLNode root, int slotNumber, double hourlyRate) {
-		AVLNode slot = tree.search(root, slotNumber);
-		if (slot == null || slot.isAvailable()) {
-			System.out.println("Slot " + slotNumber + " is not occupied.");
-			return 0;
-		}
+		return calculateParkingFee(root, slotNumber, hours -> hours * hourlyRate);
+	}
+
+	/**
+	 * Calculates the parking fee for a car parked in a specific slot under a
+	 * tariff, as {@link #calculateRevenue(AVLNode, Tariff, LocalDateTime)} bills
+	 * it in the revenue of the whole lot.
+	 *
+	 * @param root       The root node of the AVL tree.
+	 * @param slotNumber The slot number where the car is parked.
+	 * @param tariff     The tariff to be applied for parking.
+	 * @return The calculated parking fee.
+	 */
+	public double calculateParkingFee(AVLNode root, int slotNumber, Tariff tariff) {
+		return calculateParkingFee(root, slotNumber, tariff::fee);
+	}
+
+	/**
+	 * Calculates the parking fee for a car parked in a slot from the whole hours
+	 * it has been parked.
+	 */
+	private double calculateParkingFee(AVLNode root, int slotNumber, LongToDoubleFunction feeOfHours) {
+		long start = System.nanoTime();
+		try {
+			AVLNode slot = tree.search(root, slotNumber);
+			if (slot == null || slot.isAvailable()) {
+				publish(ParkingMetrics.Operation.FEE, SlotOutcome.NOT_OCCUPIED, slotNumber, null);
+				return 0;
+			}
 
-		long hoursParked = ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), LocalDateTime.now());
-		double totalFee = hoursParked * hourlyRate;
+			long hoursParked = ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), LocalDateTime.now());
+			double totalFee = feeOfHours.applyAsDouble(hoursParked);
 
-		System.out.println("Car " + slot.getCarDetails().getLicenseNumber() + " parked for " + hoursParked + " hours.");
-		System.out.println("Total Fee: EUR " + totalFee);
-		return totalFee;
+			eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FEE, SlotOutcome.FEE_CALCULATED, slotNumber,
+					slot.getCarDetails().getLicenseNumber(), hoursParked, totalFee));
+			return totalFee;
+		} finally {
+			metrics.record(ParkingMetrics.Operation.FEE, start, root);
+		}
 	}
 
 	/**
@@ -307,63 +1170,358 @@ public class ParkingManager {
 	 * @return The updated AVL Tree root after reservation.
 	 */
 	public AVLNode reserveSlot(AVLNode root, int slotNumber) {
-		AVLNode slot = tree.search(root, slotNumber);
-		if (slot == null) {
-			System.out.println("Slot " + slotNumber + " not found.");
-			return root;
+		holdSlot(root, slotNumber);
+		return root;
+	}
+
+	/**
+	 * Reserves a parking slot in a single descent of the AVL tree.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param slotNumber The slot number to reserve.
+	 * @return The reserved slot, or null if the slot does not exist or is
+	 *         occupied.
+	 */
+	public AVLNode holdSlot(AVLNode root, int slotNumber) {
+		long start = System.nanoTime();
+		try {
+			SlotPath path = tree.findPath(root, slotNumber);
+			AVLNode slot = path.getSlot();
+			if (slot == null) {
+				publish(ParkingMetrics.Operation.RESERVE, SlotOutcome.NOT_FOUND, slotNumber, null);
+				return null;
+			}
+
+			if (!slot.isAvailable()) {
+				publish(ParkingMetrics.Operation.RESERVE, SlotOutcome.OCCUPIED, slotNumber,
+						slot.getCarDetails() == null ? null : slot.getCarDetails().getLicenseNumber());
+				return null;
+			}
+			slot.setReserved(true);
+			path.refreshCounts();
+			if (journal != null) {
+				journalSequence = journal.logReserve(slotNumber);
+			}
+			publish(ParkingMetrics.Operation.RESERVE, SlotOutcome.RESERVED, slotNumber, null);
+			return slot;
+		} finally {
+			commit();
+			metrics.record(ParkingMetrics.Operation.RESERVE, start, root);
 		}
+	}
 
-		if (!slot.isAvailable()) {
-			System.out.println("Slot " + slotNumber + " is already occupied.");
-			return root;
+	/**
+	 * Reserves many slots in one walk of the AVL Tree instead of one descent
+	 * each, without printing a message per slot.
+	 *
+	 * @param root        The root node of the AVL Tree.
+	 * @param slotNumbers The slot numbers to reserve, in any order.
+	 * @return The outcome for each slot number, in the order given: RESERVED,
+	 *         OCCUPIED or NOT_FOUND.
+	 */
+	public SlotOutcome[] reserveSlots(AVLNode root, int[] slotNumbers) {
+		SlotOutcome[] outcomes = new SlotOutcome[slotNumbers.length];
+		Arrays.fill(outcomes, SlotOutcome.NOT_FOUND);
+		int[] positions = new int[slotNumbers.length];
+		tree.updateSlots(root, sortedCopy(slotNumbers, positions), (slot, position) -> {
+			if (!slot.isAvailable()) {
+				outcomes[positions[position]] = SlotOutcome.OCCUPIED;
+				return false;
+			}
+			boolean changed = !slot.isReserved();
+			slot.setReserved(true);
+			if (journal != null) {
+				journalSequence = journal.logReserve(slot.getSlotNumber());
+			}
+			outcomes[positions[position]] = SlotOutcome.RESERVED;
+			return changed;
+		});
+		commit();
+		return outcomes;
+	}
+
+	/**
+	 * Frees many slots in one walk of the AVL Tree instead of one descent each,
+	 * without printing a message per slot. Like a single free, freeing a
+	 * reserved slot keeps its reservation.
+	 *
+	 * @param root        The root node of the AVL Tree.
+	 * @param slotNumbers The slot numbers to free, in any order.
+	 * @return The outcome for each slot number, in the order given: FREED,
+	 *         ALREADY_AVAILABLE or NOT_FOUND.
+	 */
+	public SlotOutcome[] freeSlots(AVLNode root, int[] slotNumbers) {
+		SlotOutcome[] outcomes = new SlotOutcome[slotNumbers.length];
+		Arrays.fill(outcomes, SlotOutcome.NOT_FOUND);
+		int[] positions = new int[slotNumbers.length];
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		tree.updateSlots(root, sortedCopy(slotNumbers, positions), (slot, position) -> {
+			if (slot.isAvailable() && !slot.isReserved()) {
+				outcomes[positions[position]] = SlotOutcome.ALREADY_AVAILABLE;
+				return false;
+			}
+			empty(slot, bitmap);
+			outcomes[positions[position]] = SlotOutcome.FREED;
+			return true;
+		});
+		commit();
+		return outcomes;
+	}
+
+	/**
+	 * Parks many cars in the nearest available slots in one walk of the AVL
+	 * Tree instead of one descent each, without printing a message per car. The
+	 * cars get the slots in list order, as if parked one after the other.
+	 *
+	 * @param root           The root node of the AVL Tree.
+	 * @param licenseNumbers The license plate numbers of the cars to be parked.
+	 * @return The slot each car was parked in, in list order, or -1 if the car
+	 *         is already parked (or listed twice) or no slot was left.
+	 */
+	public int[] parkCars(AVLNode root, List<String> licenseNumbers) {
+		int[] slots = new int[licenseNumbers.size()];
+		Arrays.fill(slots, -1);
+		int[] arriving = new int[licenseNumbers.size()]; // Positions of the cars to park
+		int count = 0;
+		Set<String> batch = new HashSet<>();
+		bindPlateIndex(root);
+		for (int i = 0; i < licenseNumbers.size(); i++) {
+			String licenseNumber = licenseNumbers.get(i);
+			if (batch.add(licenseNumber) && findSlotToChange(licenseNumber) == null) {
+				arriving[count++] = i;
+			}
 		}
-		slot.setReserved(true);
-		System.out.println("Slot " + slotNumber + " has been reserved.");
-		return root;
+		int[] next = { 0 }; // Next arriving car to get a slot
+		FreeSlotBitmap bitmap = bitmapOf(root);
+		tree.occupyAvailableSlots(root, count, slot -> {
+			int position = arriving[next[0]++];
+			fill(slot, licenseNumbers.get(position), bitmap);
+			slots[position] = slot.getSlotNumber();
+		});
+		commit();
+		return slots;
+	}
+
+	/**
+	 * Sorts a copy of the slot numbers of a batch, remembering where each came
+	 * from.
+	 *
+	 * @param slotNumbers The slot numbers in the order given.
+	 * @param positions   Receives the original position of each sorted slot
+	 *                    number.
+	 * @return The slot numbers in ascending order.
+	 */
+	private static int[] sortedCopy(int[] slotNumbers, int[] positions) {
+		long[] packed = new long[slotNumbers.length]; // Slot number in the high half, position in the low half
+		for (int i = 0; i < slotNumbers.length; i++) {
+			packed[i] = ((long) slotNumbers[i] << 32) | i;
+		}
+		Arrays.sort(packed);
+		int[] sorted = new int[packed.length];
+		for (int i = 0; i < packed.length; i++) {
+			sorted[i] = (int) (packed[i] >> 32);
+			positions[i] = (int) packed[i];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Returns a snapshot of the occupancy counters of the parking lot.
+	 * 
+	 * The counters are the subtree aggregates kept on the root node, which every
+	 * state change (loading, parking, freeing, reserving and releasing old cars)
+	 * updates along its path. Reading them is O(1) and never traverses the tree.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The current parking statistics.
+	 */
+	public ParkingStatistics getParkingStatistics(AVLNode root) {
+		return ParkingStatistics.of(root);
 	}
 
 	/**
 	 * Displays statistics about the parking lot.
 	 */
 	public void displayParkingStatistics(AVLNode node) {
-		int totalSlots = countTotalSlots(node);
-		int occupiedSlots = countOccupiedSlots(node);
-		int availableSlots = totalSlots - occupiedSlots;
+		ParkingStatistics statistics = getParkingStatistics(node);
 
 		System.out.println("\n--- Parking Statistics ---");
-		System.out.println("Total Slots: " + totalSlots);
-		System.out.println("Occupied Slots: " + occupiedSlots);
-		System.out.println("Available Slots: " + availableSlots);
+		System.out.println("Total Slots: " + statistics.getTotalSlots());
+		System.out.println("Occupied Slots: " + statistics.getOccupiedSlots());
+		System.out.println("Reserved Slots: " + statistics.getReservedSlots());
+		System.out.println("Available Slots: " + statistics.getAvailableSlots());
 	}
 
 	/**
-	 * Counts the total number of slots in the AVL tree.
-	 * 
-	 * This method recursively traverses the AVL tree and counts the total number of
-	 * slots (nodes) in the tree.
-	 * 
-	 * @param node The current node being evaluated.
-	 * @return The total number of slots in the tree.
+	 * Recounts the occupancy of the parking lot slot by slot over a parallel
+	 * stream of the slots, to audit the subtree counters that
+	 * getParkingStatistics reads. The two must always agree.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @return The parking statistics counted from the slots themselves.
 	 */
-	private int countTotalSlots(AVLNode node) {
-		if (node == null)
-			return 0;
-		return 1 + countTotalSlots(node.getLeftChild()) + countTotalSlots(node.getRightChild());
+	public ParkingStatistics recountParkingStatistics(AVLNode root) {
+		int[] counts = tree.parallelStream(root).collect(() -> new int[SlotStatus.values().length],
+				(partial, slot) -> partial[SlotStatus.of(slot).ordinal()]++, (left, right) -> {
+					for (int i = 0; i < left.length; i++) {
+						left[i] += right[i];
+					}
+				});
+		int occupied = counts[SlotStatus.OCCUPIED.ordinal()];
+		int reserved = counts[SlotStatus.RESERVED.ordinal()];
+		return new ParkingStatistics(occupied + reserved + counts[SlotStatus.AVAILABLE.ordinal()], occupied, reserved);
 	}
 
 	/**
-	 * Counts the number of occupied slots in the AVL tree.
-	 * 
-	 * This method recursively traverses the AVL tree and counts the slots that are
-	 * occupied. A slot is considered occupied if its availability status is false.
-	 * 
-	 * @param node The current node being evaluated.
-	 * @return The number of occupied slots in the tree.
+	 * Calculates the fees due for every car currently parked, as
+	 * calculateParkingFee would for each slot, in one pass over a parallel
+	 * stream of the slots.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param hourlyRate The hourly rate to be applied for parking.
+	 * @return The total of the parking fees.
+	 */
+	public double calculateRevenue(AVLNode root, double hourlyRate) {
+		return calculateRevenue(root, hourlyRate, LocalDateTime.now());
+	}
+
+	/**
+	 * Calculates the fees due at a given time for every car currently parked.
+	 * The total is the hours of all the cars times the rate, as the fees of
+	 * calculateParkingFee add up to, without rounding to the cent.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param hourlyRate The hourly rate to be applied for parking.
+	 * @param now        The time the fees are calculated at.
+	 * @return The total of the parking fees.
+	 */
+	public double calculateRevenue(AVLNode root, double hourlyRate, LocalDateTime now) {
+		return calculateRevenue(root, Tariff.flat(hourlyRate), now).getHoursParked() * hourlyRate;
+	}
+
+	/**
+	 * Calculates the fees due at a given time for every car currently parked,
+	 * under a tariff, in one pass over a parallel stream of the slots.
+	 *
+	 * The time is converted to an epoch second once, and each car's hours are
+	 * counted from it with integer arithmetic; fees come from the compiled
+	 * schedule of the tariff. Totals are kept in cents, so they do not depend on
+	 * how the stream was split.
+	 *
+	 * @param root   The root node of the AVL Tree.
+	 * @param tariff The tariff to be applied for parking.
+	 * @param now    The time the fees are calculated at.
+	 * @return The number of cars billed, their hours and the total of their
+	 *         fees.
+	 */
+	public RevenueReport calculateRevenue(AVLNode root, Tariff tariff, LocalDateTime now) {
+		long nowEpochSecond = now.toEpochSecond(ZoneOffset.UTC);
+		int nowNano = now.getNano();
+		// Cars, hours and cents of each part of the stream
+		long[] totals = tree.parallelStream(root).collect(() -> new long[3], (partial, slot) -> {
+			Car car = slot.getCarDetails();
+			if (!slot.isAvailable() && car != null && car.getEntryTime() != null) {
+				long hours = Tariff.hoursParked(car.getEntryTime(), nowEpochSecond, nowNano);
+				partial[0]++;
+				partial[1] += hours;
+				partial[2] += tariff.feeCents(hours);
+			}
+		}, (left, right) -> {
+			for (int i = 0; i < left.length; i++) {
+				left[i] += right[i];
+			}
+		});
+		return new RevenueReport(tariff, now, (int) totals[0], totals[1], totals[2]);
+	}
+
+	/**
+	 * Displays the number of parked cars and the fees due for all of them.
+	 *
+	 * @param root       The root node of the AVL Tree.
+	 * @param hourlyRate The hourly rate to be applied for parking.
+	 */
+	public void displayRevenueReport(AVLNode root, double hourlyRate) {
+		displayRevenueReport(root, Tariff.flat(hourlyRate));
+	}
+
+	/**
+	 * Displays the number of parked cars, their hours and the fees due for all
+	 * of them under a tariff.
+	 *
+	 * @param root   The root node of the AVL Tree.
+	 * @param tariff The tariff to be applied for parking.
+	 */
+	public void displayRevenueReport(AVLNode root, Tariff tariff) {
+		RevenueReport report = calculateRevenue(root, tariff, LocalDateTime.now());
+		System.out.println("\n--- Revenue Report ---");
+		System.out.println("Tariff: " + tariff);
+		System.out.println("Occupied Slots: " + report.getParkedCars());
+		System.out.println("Hours Parked: " + report.getHoursParked());
+		System.out.println("Total Revenue: EUR " + report.getRevenue());
+	}
+
+	/**
+	 * Returns the occupancy of a zone, counted in O(log n) from the subtree
+	 * counts of the AVL Tree.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @param zone The zone to count.
+	 * @return The statistics of the slots in the zone.
 	 */
-	private int countOccupiedSlots(AVLNode node) {
-		if (node == null)
-			return 0;
-		return (node.isAvailable() ? 0 : 1) + countOccupiedSlots(node.getLeftChild())
-				+ countOccupiedSlots(node.getRightChild());
+	public ParkingStatistics getZoneStatistics(AVLNode root, ParkingZone zone) {
+		return tree.countRange(root, zone.getFirstSlot(), zone.getLastSlot());
+	}
+
+	/**
+	 * Lists the available slots of a zone.
+	 *
+	 * @param root The root node of the AVL Tree.
+	 * @param zone The zone to search.
+	 * @return The available slot numbers in the zone, in ascending order.
+	 */
+	public List<Integer> findAvailableSlots(AVLNode root, ParkingZone zone) {
+		return tree.findAvailableSlots(root, zone.getFirstSlot(), zone.getLastSlot());
+	}
+
+	/**
+	 * Displays the statistics of every zone of the parking lot.
+	 *
+	 * @param root  The root node of the AVL Tree.
+	 * @param zones The zones of the parking lot.
+	 */
+	public void displayZoneStatistics(AVLNode root, List<ParkingZone> zones) {
+		System.out.println("\n--- Zone Statistics ---");
+		for (ParkingZone zone : zones) {
+			System.out.println(zone + ": " + getZoneStatistics(root, zone));
+		}
+	}
+
+	/**
+	 * Entry of the entry time index: a car and the slot it was parked in.
+	 */
+	private static class ParkedCar {
+
+		private final AVLNode slot; // Slot the car was parked in
+		private final Car car; // Parked car, compared by its entry time
+
+		/**
+		 * Constructor to create an entry for a parked car.
+		 *
+		 * @param slot The slot the car was parked in.
+		 * @param car  The parked car.
+		 */
+		private ParkedCar(AVLNode slot, Car car) {
+			this.slot = slot;
+			this.car = car;
+		}
+
+		/**
+		 * Checks if the car has left its slot since the entry was made.
+		 *
+		 * @return True if the slot no longer holds this car.
+		 */
+		private boolean isStale() {
+			return slot.isAvailable() || slot.getCarDetails() != car;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.parkinglot;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms of the operations of a parking manager and gauges of the
+ * parking lot it last worked on, published over JMX once registered.
+ *
+ * Recording an operation costs two clock reads and a few lock-free updates and
+ * never takes a lock, so the metrics can stay on under gate load. The gauges
+ * are read from the subtree counts of the root when asked for, so they cost
+ * nothing between reads.
+ */
+public class ParkingMetrics implements ParkingMetricsMXBean {
+
+	/**
+	 * Operations of a parking manager that are timed.
+	 */
+	public enum Operation {
+
+		/** Parking a car: assignParkingSlot, parkCar and parkCarNear. */
+		PARK,
+
+		/** Freeing a slot: freeSlot, vacateSlot and freeByPlate. */
+		FREE,
+
+		/** Reserving a slot: reserveSlot and holdSlot. */
+		RESERVE,
+
+		/** Calculating the fee of a slot: calculateParkingFee. */
+		FEE,
+
+		/** Loading a parking lot from a workbook or a snapshot. */
+		LOAD
+	}
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParkingMetrics.class);
+
+	private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length]; // One per operation
+	private volatile AVLNode root; // Root of the parking lot last worked on (null before)
+
+	/**
+	 * Constructor to create empty metrics.
+	 */
+	public ParkingMetrics() {
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Records an operation that started at a given time and ends now.
+	 *
+	 * @param operation  The operation.
+	 * @param startNanos The {@link System#nanoTime()} the operation started at.
+	 * @param root       The root of the parking lot after the operation.
+	 */
+	public void record(Operation operation, long startNanos, AVLNode root) {
+		latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+		setRoot(root);
+	}
+
+	/**
+	 * Points the gauges at the parking lot a manager worked on last, after an
+	 * operation that is not timed, such as inserting a slot.
+	 *
+	 * @param root The root of the parking lot after the operation.
+	 */
+	public void setRoot(AVLNode root) {
+		if (this.root != root) {
+			this.root = root;
+		}
+	}
+
+	/**
+	 * Returns the statistics of one operation.
+	 *
+	 * @param operation The operation.
+	 * @return The count and latency percentiles of the operation.
+	 */
+	public OperationStatistics getStatistics(Operation operation) {
+		LatencyHistogram histogram = latencies[operation.ordinal()];
+		long[] percentiles = histogram.getPercentiles(50, 99, 99.9);
+		return new OperationStatistics(operation.name(), histogram.getCount(), histogram.getMeanNanos(),
+				percentiles[0], percentiles[1], percentiles[2]);
+	}
+
+	@Override
+	public List<OperationStatistics> getOperations() {
+		List<OperationStatistics> operations = new ArrayList<>();
+		for (Operation operation : Operation.values()) {
+			operations.add(getStatistics(operation));
+		}
+		return operations;
+	}
+
+	@Override
+	public int getTreeHeight() {
+		AVLNode node = root;
+		return node == null ? 0 : node.getHeight();
+	}
+
+	@Override
+	public int getTotalSlots() {
+		return ParkingStatistics.of(root).getTotalSlots();
+	}
+
+	@Override
+	public int getOccupiedSlots() {
+		return ParkingStatistics.of(root).getOccupiedSlots();
+	}
+
+	@Override
+	public int getReservedSlots() {
+		return ParkingStatistics.of(root).getReservedSlots();
+	}
+
+	@Override
+	public int getAvailableSlots() {
+		return ParkingStatistics.of(root).getAvailableSlots();
+	}
+
+	@Override
+	public double getOccupancyPercent() {
+		ParkingStatistics statistics = ParkingStatistics.of(root);
+		return statistics.getTotalSlots() == 0 ? 0
+				: 100.0 * statistics.getOccupiedSlots() / statistics.getTotalSlots();
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : latencies) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * Publishes the metrics on the platform MBean server under
+	 * {@code com.parkinglot:type=ParkingMetrics,name=<name>}.
+	 *
+	 * @param name The name telling the parking lot apart from others in the JVM.
+	 * @return The name the metrics were registered under, or null if they could
+	 *         not be registered.
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("com.parkinglot:type=ParkingMetrics,name=" + ObjectName.quote(name));
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			LOGGER.error("Could not register the parking metrics of {}", name, e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.parkinglot;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link ParkingMetrics}: the latencies of every
+ * operation of a parking manager and gauges of its parking lot, readable from
+ * JConsole, VisualVM or any JMX client.
+ */
+public interface ParkingMetricsMXBean {
+
+	/**
+	 * Returns the count and latency percentiles of every operation.
+	 *
+	 * @return The statistics of each operation, in the order of
+	 *         {@link ParkingMetrics.Operation}.
+	 */
+	List<OperationStatistics> getOperations();
+
+	/**
+	 * Returns the height of the AVL Tree.
+	 *
+	 * @return The height of the tree, or 0 if no lot was seen yet.
+	 */
+	int getTreeHeight();
+
+	/**
+	 * Returns the number of slots in the parking lot, one per tree node.
+	 *
+	 * @return The number of slots.
+	 */
+	int getTotalSlots();
+
+	/**
+	 * Returns the number of occupied slots.
+	 *
+	 * @return The number of slots with a car parked in them.
+	 */
+	int getOccupiedSlots();
+
+	/**
+	 * Returns the number of free but reserved slots.
+	 *
+	 * @return The number of reserved slots.
+	 */
+	int getReservedSlots();
+
+	/**
+	 * Returns the number of free slots without a reservation.
+	 *
+	 * @return The number of available slots.
+	 */
+	int getAvailableSlots();
+
+	/**
+	 * Returns the share of the slots that are occupied.
+	 *
+	 * @return The occupancy in percent.
+	 */
+	double getOccupancyPercent();
+
+	/**
+	 * Clears the counts and latencies of every operation.
+	 */
+	void reset();
+}
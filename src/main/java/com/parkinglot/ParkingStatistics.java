@@ -0,0 +1,70 @@
+package com.parkinglot;
+
+/**
+ * Immutable snapshot of the occupancy counters of a parking lot. A slot is
+ * counted in exactly one of the occupied, reserved or available categories, so
+ * the three always add up to the total.
+ */
+public class ParkingStatistics {
+
+	private final int totalSlots; // Number of slots in the parking lot
+	private final int occupiedSlots; // Slots with a car parked in them
+	private final int reservedSlots; // Free slots held by a reservation
+	private final int availableSlots; // Free slots without a reservation
+
+	/**
+	 * Constructor to initialize a statistics snapshot.
+	 *
+	 * @param totalSlots    Number of slots in the parking lot.
+	 * @param occupiedSlots Number of occupied slots.
+	 * @param reservedSlots Number of free but reserved slots.
+	 */
+	public ParkingStatistics(int totalSlots, int occupiedSlots, int reservedSlots) {
+		this.totalSlots = totalSlots;
+		this.occupiedSlots = occupiedSlots;
+		this.reservedSlots = reservedSlots;
+		this.availableSlots = totalSlots - occupiedSlots - reservedSlots;
+	}
+
+	/**
+	 * Creates a snapshot from the subtree counts kept on an AVL node. This is an
+	 * O(1) read and never traverses the tree.
+	 *
+	 * @param root The root node of the AVL Tree (null for an empty lot).
+	 * @return The statistics of the subtree rooted at the node.
+	 */
+	public static ParkingStatistics of(AVLNode root) {
+		if (root == null) {
+			return new ParkingStatistics(0, 0, 0);
+		}
+		return new ParkingStatistics(root.getSize(), root.getSize() - root.getAvailableCount(),
+				root.getReservedCount());
+	}
+
+	public int getTotalSlots() {
+		return totalSlots;
+	}
+
+	public int getOccupiedSlots() {
+		return occupiedSlots;
+	}
+
+	public int getReservedSlots() {
+		return reservedSlots;
+	}
+
+	public int getAvailableSlots() {
+		return availableSlots;
+	}
+
+	/**
+	 * Returns a string representation of the statistics snapshot.
+	 *
+	 * @return String representation of the counters.
+	 */
+	@Override
+	public String toString() {
+		return "Total: " + totalSlots + " | Occupied: " + occupiedSlots + " | Reserved: " + reservedSlots
+				+ " | Available: " + availableSlots;
+	}
+}
@@ -0,0 +1,62 @@
+package com.parkinglot;
+
+/**
+ * A named range of slot numbers of a parking lot, such as a floor or a level.
+ * Both bounds are included in the zone.
+ */
+public class ParkingZone {
+
+	private final String name; // Name of the zone, e.g. "Level 1"
+	private final int firstSlot; // Lowest slot number of the zone
+	private final int lastSlot; // Highest slot number of the zone
+
+	/**
+	 * Constructor to initialize a zone.
+	 *
+	 * @param name      Name of the zone.
+	 * @param firstSlot Lowest slot number of the zone.
+	 * @param lastSlot  Highest slot number of the zone.
+	 * @throws IllegalArgumentException If the first slot is above the last one.
+	 */
+	public ParkingZone(String name, int firstSlot, int lastSlot) {
+		if (firstSlot > lastSlot) {
+			throw new IllegalArgumentException("Zone " + name + " starts at slot " + firstSlot
+					+ " after its last slot " + lastSlot + ".");
+		}
+		this.name = name;
+		this.firstSlot = firstSlot;
+		this.lastSlot = lastSlot;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getFirstSlot() {
+		return firstSlot;
+	}
+
+	public int getLastSlot() {
+		return lastSlot;
+	}
+
+	/**
+	 * Checks if a slot belongs to the zone.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return True if the slot number lies within the zone.
+	 */
+	public boolean contains(int slotNumber) {
+		return slotNumber >= firstSlot && slotNumber <= lastSlot;
+	}
+
+	/**
+	 * Returns a string representation of the zone.
+	 *
+	 * @return The name and slot range of the zone.
+	 */
+	@Override
+	public String toString() {
+		return name + " (slots " + firstSlot + "-" + lastSlot + ")";
+	}
+}
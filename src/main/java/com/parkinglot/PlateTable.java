@@ -0,0 +1,196 @@
+package com.parkinglot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interned license plates for {@link PrimitiveSlotStore}, without an object per
+ * plate. Plates are stored as UTF-8 bytes in one arena, each prefixed by its
+ * length, and identified by an int id. An open-addressing table of ids finds
+ * the id of a plate, and a reference count per id frees the plate once no slot
+ * uses it. Freed ids are reused, and the arena is compacted once more than half
+ * of it belongs to freed plates.
+ */
+class PlateTable {
+
+	static final int MAX_PLATE_BYTES = 255; // Longest plate, as its length is stored in one byte
+
+	private static final int EMPTY = 0; // Free position of the hash table
+	private static final int DELETED = -1; // Position of a freed plate in the hash table
+
+	private byte[] arena = new byte[1024]; // Length-prefixed plate bytes
+	private int arenaUsed; // Bytes of the arena in use, freed plates included
+	private int arenaGarbage; // Bytes of the arena belonging to freed plates
+	private int[] offsets = new int[16]; // Arena offset of each id
+	private int[] refs = new int[16]; // Number of slots using each id
+	private int[] freeIds = new int[16]; // Ids no longer used
+	private int freeCount; // Number of ids in freeIds
+	private int idCount; // Number of ids ever handed out
+	private int[] hashTable = new int[32]; // Id + 1 of the plate at each position, or EMPTY or DELETED
+	private int hashUsed; // Positions of the hash table that are not EMPTY
+
+	/**
+	 * Returns the id of a plate, adding the plate if it is new, and counts one
+	 * more slot using it.
+	 *
+	 * @param plate The license plate number.
+	 * @return The id of the plate.
+	 * @throws IllegalArgumentException If the plate is longer than 255 bytes.
+	 */
+	int acquire(String plate) {
+		byte[] bytes = plate.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_PLATE_BYTES) {
+			throw new IllegalArgumentException("License number " + plate + " is too long.");
+		}
+		int hash = Arrays.hashCode(bytes);
+		int mask = hashTable.length - 1;
+		int deleted = -1;
+		for (int position = hash & mask;; position = (position + 1) & mask) {
+			int entry = hashTable[position];
+			if (entry == EMPTY) {
+				int id = add(bytes);
+				if (deleted >= 0) {
+					hashTable[deleted] = id + 1;
+				} else {
+					hashTable[position] = id + 1;
+					if (++hashUsed * 2 > hashTable.length) {
+						rehash(hashTable.length * 2);
+					}
+				}
+				refs[id] = 1;
+				return id;
+			}
+			if (entry == DELETED) {
+				if (deleted < 0) {
+					deleted = position;
+				}
+			} else if (matches(entry - 1, bytes)) {
+				refs[entry - 1]++;
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Counts one slot less using a plate, and frees the plate once no slot uses
+	 * it.
+	 *
+	 * @param id The id of the plate.
+	 */
+	void release(int id) {
+		if (--refs[id] > 0) {
+			return;
+		}
+		int length = arena[offsets[id]] & 0xFF;
+		int mask = hashTable.length - 1;
+		for (int position = hash(id) & mask;; position = (position + 1) & mask) {
+			if (hashTable[position] == id + 1) {
+				hashTable[position] = DELETED;
+				break;
+			}
+		}
+		if (freeCount == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+		}
+		freeIds[freeCount++] = id;
+		arenaGarbage += length + 1;
+		if (arenaGarbage > 4096 && arenaGarbage * 2 > arenaUsed) {
+			compact();
+		}
+	}
+
+	/**
+	 * Returns the plate of an id.
+	 *
+	 * @param id The id of the plate.
+	 * @return The license plate number.
+	 */
+	String plate(int id) {
+		int offset = offsets[id];
+		return new String(arena, offset + 1, arena[offset] & 0xFF, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends the bytes of a new plate to the arena and assigns it an id.
+	 */
+	private int add(byte[] bytes) {
+		int id = freeCount > 0 ? freeIds[--freeCount] : idCount++;
+		if (id == offsets.length) {
+			offsets = Arrays.copyOf(offsets, id * 2);
+			refs = Arrays.copyOf(refs, id * 2);
+		}
+		if (arenaUsed + bytes.length + 1 > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + bytes.length + 1));
+		}
+		offsets[id] = arenaUsed;
+		arena[arenaUsed] = (byte) bytes.length;
+		System.arraycopy(bytes, 0, arena, arenaUsed + 1, bytes.length);
+		arenaUsed += bytes.length + 1;
+		return id;
+	}
+
+	/**
+	 * Checks if the plate of an id has the given bytes.
+	 */
+	private boolean matches(int id, byte[] bytes) {
+		int offset = offsets[id];
+		return (arena[offset] & 0xFF) == bytes.length
+				&& Arrays.equals(arena, offset + 1, offset + 1 + bytes.length, bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Computes the hash of the plate of an id, the same as for its bytes.
+	 */
+	private int hash(int id) {
+		int offset = offsets[id];
+		int hash = 1;
+		for (int i = offset + 1; i <= offset + (arena[offset] & 0xFF); i++) {
+			hash = 31 * hash + arena[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * Rebuilds the hash table with the given capacity, dropping freed positions.
+	 */
+	private void rehash(int capacity) {
+		int[] old = hashTable;
+		hashTable = new int[capacity];
+		hashUsed = 0;
+		int mask = capacity - 1;
+		for (int entry : old) {
+			if (entry > 0) {
+				int position = hash(entry - 1) & mask;
+				while (hashTable[position] != EMPTY) {
+					position = (position + 1) & mask;
+				}
+				hashTable[position] = entry;
+				hashUsed++;
+			}
+		}
+	}
+
+	/**
+	 * Copies the plates still in use to a new arena and rebuilds the hash table.
+	 */
+	private void compact() {
+		boolean[] free = new boolean[idCount];
+		for (int i = 0; i < freeCount; i++) {
+			free[freeIds[i]] = true;
+		}
+		byte[] compacted = new byte[Math.max(1024, (arenaUsed - arenaGarbage) * 2)];
+		int used = 0;
+		for (int id = 0; id < idCount; id++) {
+			if (!free[id]) {
+				int length = (arena[offsets[id]] & 0xFF) + 1;
+				System.arraycopy(arena, offsets[id], compacted, used, length);
+				offsets[id] = used;
+				used += length;
+			}
+		}
+		arena = compacted;
+		arenaUsed = used;
+		arenaGarbage = 0;
+		rehash(hashTable.length);
+	}
+}
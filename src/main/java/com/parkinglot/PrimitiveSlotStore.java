@@ -0,0 +1,345 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * {@link SlotStore} keeping every slot in parallel primitive arrays instead of
+ * one object graph per slot:
+ *
+ * <ul>
+ * <li>slot numbers in a sorted int array, searched by binary search;</li>
+ * <li>availability and reservation as bitsets, with a summary bitset of the
+ * non-empty availability words to find the nearest available slot;</li>
+ * <li>entry times as epoch seconds (UTC) in a long array;</li>
+ * <li>license numbers as ids into a {@link PlateTable} of interned plates.</li>
+ * </ul>
+ *
+ * A slot costs 16 bytes, plus about 35 bytes for the plate while a car is
+ * parked. In a half-occupied lot of a million slots this is about 33 bytes per
+ * slot against 90 to 120 for AVL nodes with their cars, and 10 million empty
+ * slots fit in about 154 MB. Entry times are kept to the second, like in snapshots, and
+ * plates are limited to 255 bytes.
+ *
+ * Adding slots in ascending order is O(1) amortized; adding a slot below the
+ * highest one shifts the arrays and is O(n).
+ */
+public class PrimitiveSlotStore implements SlotStore {
+
+	private static final int NO_PLATE = -1;
+	private static final long NO_ENTRY_TIME = Long.MIN_VALUE;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private int[] slotNumbers; // Slot numbers in ascending order
+	private long[] entryTimes; // Entry epoch second of each slot's car
+	private int[] plates; // Plate id of each slot's car (NO_PLATE if none)
+	private long[] available; // Bit set for each available slot
+	private long[] reserved; // Bit set for each reserved slot
+	private long[] availableWords; // Bit set for each non-zero word of available
+	private int count; // Number of slots
+	private int availableCount; // Number of available slots
+	private int reservedCount; // Number of available and reserved slots
+
+	private final PlateTable plateTable = new PlateTable(); // Interned plates of the parked cars
+
+	/**
+	 * Constructor to create an empty store.
+	 */
+	public PrimitiveSlotStore() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor to create an empty store sized for a number of slots, so that
+	 * loading them never grows the arrays.
+	 *
+	 * @param expectedSlots The number of slots expected.
+	 */
+	public PrimitiveSlotStore(int expectedSlots) {
+		int capacity = Math.max(64, expectedSlots);
+		this.slotNumbers = new int[capacity];
+		this.entryTimes = new long[capacity];
+		this.plates = new int[capacity];
+		this.available = new long[(capacity + 63) / 64];
+		this.reserved = new long[available.length];
+		this.availableWords = new long[(available.length + 63) / 64];
+	}
+
+	@Override
+	public void addSlot(int slotNumber, Car carDetails, boolean available, boolean reserved) {
+		int index;
+		if (count == 0 || slotNumber > slotNumbers[count - 1]) {
+			index = count;
+			ensureCapacity(count + 1);
+		} else {
+			int found = Arrays.binarySearch(slotNumbers, 0, count, slotNumber);
+			if (found >= 0) {
+				return; // Duplicate slot numbers are not allowed.
+			}
+			index = -found - 1;
+			ensureCapacity(count + 1);
+			System.arraycopy(slotNumbers, index, slotNumbers, index + 1, count - index);
+			System.arraycopy(entryTimes, index, entryTimes, index + 1, count - index);
+			System.arraycopy(plates, index, plates, index + 1, count - index);
+			insertBit(this.available, index, count);
+			insertBit(this.reserved, index, count);
+			refreshWords(index >>> 6, count >>> 6);
+		}
+		slotNumbers[index] = slotNumber;
+		entryTimes[index] = NO_ENTRY_TIME;
+		plates[index] = NO_PLATE;
+		count++;
+		if (carDetails != null) {
+			setCar(index, carDetails.getLicenseNumber(), carDetails.getEntryTime());
+		}
+		setStatus(index, available, reserved);
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public boolean contains(int slotNumber) {
+		return indexOf(slotNumber) >= 0;
+	}
+
+	@Override
+	public boolean isAvailable(int slotNumber) {
+		int index = indexOf(slotNumber);
+		return index >= 0 && isSet(available, index);
+	}
+
+	@Override
+	public boolean isReserved(int slotNumber) {
+		int index = indexOf(slotNumber);
+		return index >= 0 && isSet(reserved, index);
+	}
+
+	@Override
+	public Car getCar(int slotNumber) {
+		int index = indexOf(slotNumber);
+		return index < 0 ? null : carAt(index);
+	}
+
+	@Override
+	public int findNearestAvailableSlot() {
+		int index = firstAvailable();
+		return index < 0 ? -1 : slotNumbers[index];
+	}
+
+	@Override
+	public int parkCar(String licenseNumber, LocalDateTime entryTime) {
+		int index = firstAvailable();
+		if (index < 0) {
+			return -1;
+		}
+		setCar(index, licenseNumber, entryTime);
+		setStatus(index, false, false);
+		return slotNumbers[index];
+	}
+
+	@Override
+	public boolean freeSlot(int slotNumber) {
+		int index = indexOf(slotNumber);
+		if (index < 0) {
+			return false;
+		}
+		boolean isReserved = isSet(reserved, index);
+		if (isSet(available, index) && !isReserved) {
+			return false;
+		}
+		clearCar(index);
+		setStatus(index, true, isReserved);
+		return true;
+	}
+
+	@Override
+	public boolean reserveSlot(int slotNumber) {
+		int index = indexOf(slotNumber);
+		if (index < 0 || !isSet(available, index)) {
+			return false;
+		}
+		setStatus(index, true, true);
+		return true;
+	}
+
+	@Override
+	public int releaseOldCars(int hoursLimit, LocalDateTime now) {
+		long nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+		int released = 0;
+		for (int index = 0; index < count; index++) {
+			long entryTime = entryTimes[index];
+			if (entryTime != NO_ENTRY_TIME && plates[index] != NO_PLATE && !isSet(available, index)
+					&& (nowSeconds - entryTime) / 3600 >= hoursLimit) {
+				clearCar(index);
+				setStatus(index, true, isSet(reserved, index));
+				released++;
+			}
+		}
+		return released;
+	}
+
+	@Override
+	public ParkingStatistics getStatistics() {
+		return new ParkingStatistics(count, count - availableCount, reservedCount);
+	}
+
+	@Override
+	public void forEachSlot(SlotRowHandler handler) {
+		for (int index = 0; index < count; index++) {
+			handler.slot(slotNumbers[index], carAt(index), isSet(available, index), isSet(reserved, index));
+		}
+	}
+
+	/**
+	 * Finds the position of a slot in the arrays.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The index of the slot, or a negative value if it is missing.
+	 */
+	private int indexOf(int slotNumber) {
+		return Arrays.binarySearch(slotNumbers, 0, count, slotNumber);
+	}
+
+	/**
+	 * Creates the car parked in a slot from its plate id and entry time.
+	 *
+	 * @param index The index of the slot.
+	 * @return A new car, or null if the slot holds no car.
+	 */
+	private Car carAt(int index) {
+		if (plates[index] == NO_PLATE) {
+			return null;
+		}
+		long entryTime = entryTimes[index];
+		return new Car(plateTable.plate(plates[index]),
+				entryTime == NO_ENTRY_TIME ? null : LocalDateTime.ofEpochSecond(entryTime, 0, ZoneOffset.UTC));
+	}
+
+	/**
+	 * Finds the lowest available slot through the summary bitset.
+	 *
+	 * @return The index of the slot, or -1 if no slot is available.
+	 */
+	private int firstAvailable() {
+		for (int summary = 0; summary < availableWords.length; summary++) {
+			if (availableWords[summary] != 0) {
+				int word = summary * 64 + Long.numberOfTrailingZeros(availableWords[summary]);
+				return word * 64 + Long.numberOfTrailingZeros(available[word]);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sets the availability and reservation of a slot and updates the counters.
+	 *
+	 * @param index       The index of the slot.
+	 * @param isAvailable Indicates if the slot is available.
+	 * @param isReserved  Indicates if the slot is reserved.
+	 */
+	private void setStatus(int index, boolean isAvailable, boolean isReserved) {
+		boolean wasAvailable = isSet(available, index);
+		boolean wasReserved = isSet(reserved, index);
+		availableCount += (isAvailable ? 1 : 0) - (wasAvailable ? 1 : 0);
+		reservedCount += (isAvailable && isReserved ? 1 : 0) - (wasAvailable && wasReserved ? 1 : 0);
+		setBit(available, index, isAvailable);
+		setBit(reserved, index, isReserved);
+		refreshWords(index >>> 6, index >>> 6);
+	}
+
+	/**
+	 * Stores the car of a slot, interning its plate.
+	 *
+	 * @param index         The index of the slot.
+	 * @param licenseNumber The license plate number of the car.
+	 * @param entryTime     The entry time of the car (null if unknown).
+	 */
+	private void setCar(int index, String licenseNumber, LocalDateTime entryTime) {
+		clearCar(index);
+		plates[index] = plateTable.acquire(licenseNumber);
+		entryTimes[index] = entryTime == null ? NO_ENTRY_TIME : entryTime.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	/**
+	 * Removes the car of a slot, releasing its plate once no slot uses it.
+	 *
+	 * @param index The index of the slot.
+	 */
+	private void clearCar(int index) {
+		if (plates[index] != NO_PLATE) {
+			plateTable.release(plates[index]);
+		}
+		plates[index] = NO_PLATE;
+		entryTimes[index] = NO_ENTRY_TIME;
+	}
+
+	/**
+	 * Grows the arrays to hold at least the given number of slots.
+	 *
+	 * @param capacity The number of slots needed.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= slotNumbers.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, slotNumbers.length + (slotNumbers.length >> 1));
+		slotNumbers = Arrays.copyOf(slotNumbers, newCapacity);
+		entryTimes = Arrays.copyOf(entryTimes, newCapacity);
+		plates = Arrays.copyOf(plates, newCapacity);
+		int words = (newCapacity + 63) / 64;
+		available = Arrays.copyOf(available, words);
+		reserved = Arrays.copyOf(reserved, words);
+		availableWords = Arrays.copyOf(availableWords, (words + 63) / 64);
+	}
+
+	/**
+	 * Recomputes the summary bits of a range of availability words.
+	 *
+	 * @param first The first word to refresh.
+	 * @param last  The last word to refresh.
+	 */
+	private void refreshWords(int first, int last) {
+		for (int word = first; word <= last && word < available.length; word++) {
+			setBit(availableWords, word, available[word] != 0);
+		}
+	}
+
+	/**
+	 * Checks if a bit is set.
+	 */
+	private static boolean isSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Sets or clears a bit.
+	 */
+	private static void setBit(long[] bits, int index, boolean value) {
+		if (value) {
+			bits[index >>> 6] |= 1L << index;
+		} else {
+			bits[index >>> 6] &= ~(1L << index);
+		}
+	}
+
+	/**
+	 * Shifts the bits from an index up to a length up by one position and clears
+	 * the bit at the index.
+	 *
+	 * @param bits   The bitset, with room for length + 1 bits.
+	 * @param index  The index of the bit to open up.
+	 * @param length The number of bits in use.
+	 */
+	private static void insertBit(long[] bits, int index, int length) {
+		int first = index >>> 6;
+		for (int word = length >>> 6; word > first; word--) {
+			bits[word] = (bits[word] << 1) | (bits[word - 1] >>> 63);
+		}
+		long shifted = -1L << index; // Bits of the first word at or above the index
+		bits[first] = (bits[first] & ~shifted) | ((bits[first] & shifted) << 1);
+	}
+}
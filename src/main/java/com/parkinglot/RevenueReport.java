@@ -0,0 +1,85 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable totals of the fees due for every car parked at one moment, under
+ * one tariff. Amounts are kept in cents, so totals summed in any order or
+ * across any number of lots are exact.
+ */
+public class RevenueReport {
+
+	private final Tariff tariff; // Tariff the fees were calculated with
+	private final LocalDateTime time; // Time the fees were calculated at
+	private final int parkedCars; // Cars billed
+	private final long hoursParked; // Whole hours parked by all the cars
+	private final long revenueCents; // Fees due by all the cars
+
+	/**
+	 * Constructor to initialize a report.
+	 *
+	 * @param tariff       The tariff the fees were calculated with.
+	 * @param time         The time the fees were calculated at.
+	 * @param parkedCars   The number of cars billed.
+	 * @param hoursParked  The whole hours parked by all the cars.
+	 * @param revenueCents The fees due by all the cars, in cents.
+	 */
+	public RevenueReport(Tariff tariff, LocalDateTime time, int parkedCars, long hoursParked, long revenueCents) {
+		this.tariff = tariff;
+		this.time = time;
+		this.parkedCars = parkedCars;
+		this.hoursParked = hoursParked;
+		this.revenueCents = revenueCents;
+	}
+
+	/**
+	 * Adds the totals of another report calculated with the same tariff at the
+	 * same time, such as the report of another zone.
+	 *
+	 * @param other The report to add.
+	 * @return A report of the cars of both.
+	 */
+	public RevenueReport plus(RevenueReport other) {
+		return new RevenueReport(tariff, time, parkedCars + other.parkedCars, hoursParked + other.hoursParked,
+				revenueCents + other.revenueCents);
+	}
+
+	public Tariff getTariff() {
+		return tariff;
+	}
+
+	public LocalDateTime getTime() {
+		return time;
+	}
+
+	public int getParkedCars() {
+		return parkedCars;
+	}
+
+	public long getHoursParked() {
+		return hoursParked;
+	}
+
+	public long getRevenueCents() {
+		return revenueCents;
+	}
+
+	/**
+	 * Returns the fees due by all the cars.
+	 *
+	 * @return The revenue in euros.
+	 */
+	public double getRevenue() {
+		return revenueCents / 100.0;
+	}
+
+	/**
+	 * Returns a string representation of the report.
+	 *
+	 * @return The cars, hours and revenue.
+	 */
+	@Override
+	public String toString() {
+		return "Parked Cars: " + parkedCars + " | Hours: " + hoursParked + " | Revenue: EUR " + getRevenue();
+	}
+}
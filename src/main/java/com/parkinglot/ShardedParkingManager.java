@@ -0,0 +1,472 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Parking lot split into zones, such as the floors of a garage, each held in
+ * its own AVL Tree behind its own {@link ConcurrentParkingManager}. Gates of
+ * different zones never contend for the same lock or tree:
+ *
+ * <ul>
+ * <li>Operations on one slot go straight to the shard of its zone, found by a
+ * binary search over the zones.</li>
+ * <li>Parking picks the first zone with a free slot, or starts from the zone of
+ * the gate when parking near it.</li>
+ * <li>Lookups by license plate ask the shards one by one.</li>
+ * <li>Site-wide statistics, releases of old cars and snapshots fan out across
+ * the shards on a fork-join pool and run in parallel.</li>
+ * </ul>
+ *
+ * A car is checked against every shard before it is parked, but not under one
+ * lock, so two gates parking the same plate at the same moment in two zones
+ * are not rejected.
+ */
+public class ShardedParkingManager {
+
+	private final List<ParkingZone> zones; // Zones in ascending slot order
+	private final List<ConcurrentParkingManager> shards; // Shard of each zone, in the same order
+	private final ForkJoinPool pool; // Pool running the site-wide operations
+	private ParkingEventSink eventSink = AsyncEventSink.shared(); // Receiver of the outcome of each operation
+
+	/**
+	 * Constructor to split a loaded parking lot into zones, fanning out on the
+	 * common fork-join pool.
+	 *
+	 * @param root  The root node of the AVL Tree; it must no longer be used by
+	 *              the caller.
+	 * @param zones The zones of the parking lot.
+	 * @throws IllegalArgumentException If zones overlap or a slot lies outside
+	 *                                  every zone.
+	 */
+	public ShardedParkingManager(AVLNode root, List<ParkingZone> zones) {
+		this(root, zones, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor to split a loaded parking lot into zones. The slots of each
+	 * zone are linked into a balanced tree of their own, without copying them.
+	 *
+	 * @param root  The root node of the AVL Tree; it must no longer be used by
+	 *              the caller.
+	 * @param zones The zones of the parking lot.
+	 * @param pool  The pool running the site-wide operations.
+	 * @throws IllegalArgumentException If zones overlap or a slot lies outside
+	 *                                  every zone.
+	 */
+	public ShardedParkingManager(AVLNode root, List<ParkingZone> zones, ForkJoinPool pool) {
+		List<ParkingZone> sorted = new ArrayList<>(zones);
+		sorted.sort(Comparator.comparingInt(ParkingZone::getFirstSlot));
+		for (int i = 1; i < sorted.size(); i++) {
+			if (sorted.get(i).getFirstSlot() <= sorted.get(i - 1).getLastSlot()) {
+				throw new IllegalArgumentException("Zones " + sorted.get(i - 1) + " and " + sorted.get(i) + " overlap.");
+			}
+		}
+
+		AVLTree tree = new AVLTree();
+		int zonedSlots = 0;
+		List<List<AVLNode>> slotsByZone = new ArrayList<>(sorted.size());
+		for (ParkingZone zone : sorted) {
+			List<AVLNode> slots = new ArrayList<>();
+			tree.forEachInRange(root, zone.getFirstSlot(), zone.getLastSlot(), slots::add);
+			slotsByZone.add(slots);
+			zonedSlots += slots.size();
+		}
+		int totalSlots = root == null ? 0 : root.getSize();
+		if (zonedSlots != totalSlots) {
+			throw new IllegalArgumentException((totalSlots - zonedSlots) + " slots lie outside every zone.");
+		}
+
+		this.zones = List.copyOf(sorted);
+		this.shards = new ArrayList<>(sorted.size());
+		for (List<AVLNode> slots : slotsByZone) {
+			ParkingManager manager = new ParkingManager();
+			AVLNode shardRoot = tree.buildBalanced(slots);
+			manager.indexParkedCars(shardRoot);
+			shards.add(new ConcurrentParkingManager(manager, shardRoot));
+		}
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the zones of the parking lot.
+	 *
+	 * @return The zones, in ascending slot order.
+	 */
+	public List<ParkingZone> getZones() {
+		return zones;
+	}
+
+	/**
+	 * Searches for a parking slot by slot number in the shard of its zone.
+	 *
+	 * @param slotNumber The slot number to search for.
+	 * @return A detached copy of the slot, or null if not found.
+	 */
+	public AVLNode search(int slotNumber) {
+		int zone = zoneOf(slotNumber);
+		return zone < 0 ? null : shards.get(zone).search(slotNumber);
+	}
+
+	/**
+	 * Displays the details of a specific parking slot.
+	 *
+	 * @param slotNumber The slot number whose details need to be displayed.
+	 */
+	public void displaySlotDetails(int slotNumber) {
+		int zone = zoneOf(slotNumber);
+		if (zone < 0) {
+			System.out.println("Slot " + slotNumber + " is not present in the parking lot.");
+			return;
+		}
+		shards.get(zone).displaySlotDetails(slotNumber);
+	}
+
+	/**
+	 * Finds the slot where a car is parked, asking each shard in turn.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return A detached copy of the slot, or null if the car is not parked.
+	 */
+	public AVLNode findSlotByPlate(String licenseNumber) {
+		for (ConcurrentParkingManager shard : shards) {
+			AVLNode slot = shard.findSlotByPlate(licenseNumber);
+			if (slot != null) {
+				return slot;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Parks a car in the nearest (lowest) available slot of the whole lot, in the
+	 * first zone that has one.
+	 *
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @return A detached copy of the slot the car was parked in, or null if no
+	 *         slot is available or the car is already parked.
+	 */
+	public AVLNode parkCar(String licenseNumber) {
+		if (isParked(licenseNumber)) {
+			return null;
+		}
+		for (ConcurrentParkingManager shard : shards) {
+			if (hasFreeSlot(shard)) {
+				AVLNode slot = shard.parkCar(licenseNumber);
+				if (slot != null) {
+					return slot;
+				}
+			}
+		}
+		eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.PARK, SlotOutcome.LOT_FULL, 0, licenseNumber));
+		return null;
+	}
+
+	/**
+	 * Parks a car close to a target slot, such as the slot at the gate it came
+	 * in through. The car stays in the zone of the target if that zone has a free
+	 * slot, and otherwise goes to the closest zone that has one.
+	 *
+	 * @param licenseNumber The license plate number of the car to be parked.
+	 * @param targetSlot    The slot number to park near.
+	 * @return A detached copy of the slot the car was parked in, or null if no
+	 *         slot is available or the car is already parked.
+	 */
+	public AVLNode parkCarNear(String licenseNumber, int targetSlot) {
+		if (isParked(licenseNumber)) {
+			return null;
+		}
+		List<Integer> byDistance = new ArrayList<>(zones.size());
+		for (int zone = 0; zone < zones.size(); zone++) {
+			byDistance.add(zone);
+		}
+		byDistance.sort(Comparator.comparingLong(zone -> distance(zones.get(zone), targetSlot)));
+		for (int zone : byDistance) {
+			if (hasFreeSlot(shards.get(zone))) {
+				AVLNode slot = shards.get(zone).parkCarNear(licenseNumber, targetSlot);
+				if (slot != null) {
+					return slot;
+				}
+			}
+		}
+		eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.PARK, SlotOutcome.LOT_FULL, 0, licenseNumber));
+		return null;
+	}
+
+	/**
+	 * Frees an occupied parking slot in the shard of its zone.
+	 *
+	 * @param slotNumber The slot number to be freed.
+	 * @return True if the slot was freed.
+	 */
+	public boolean freeSlot(int slotNumber) {
+		int zone = zoneOf(slotNumber);
+		if (zone < 0) {
+			eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.NOT_FOUND, slotNumber, null));
+			return false;
+		}
+		return shards.get(zone).freeSlot(slotNumber);
+	}
+
+	/**
+	 * Frees the slot of a car given its license plate number.
+	 *
+	 * @param licenseNumber The license plate number of the leaving car.
+	 */
+	public void freeByPlate(String licenseNumber) {
+		for (ConcurrentParkingManager shard : shards) {
+			if (shard.findSlotByPlate(licenseNumber) != null) {
+				shard.freeByPlate(licenseNumber);
+				return;
+			}
+		}
+		eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.NOT_PARKED, 0, licenseNumber));
+	}
+
+	/**
+	 * Reserves a parking slot in the shard of its zone.
+	 *
+	 * @param slotNumber The slot number to reserve.
+	 * @return True if the slot was reserved.
+	 */
+	public boolean reserveSlot(int slotNumber) {
+		int zone = zoneOf(slotNumber);
+		if (zone < 0) {
+			eventSink.publish(
+					new ParkingEvent(ParkingMetrics.Operation.RESERVE, SlotOutcome.NOT_FOUND, slotNumber, null));
+			return false;
+		}
+		return shards.get(zone).reserveSlot(slotNumber);
+	}
+
+	/**
+	 * Adds a new, available parking slot to the shard of its zone.
+	 *
+	 * @param slotNumber The slot number to be inserted.
+	 * @throws IllegalArgumentException If the slot lies outside every zone.
+	 */
+	public void insertSlot(int slotNumber) {
+		int zone = zoneOf(slotNumber);
+		if (zone < 0) {
+			throw new IllegalArgumentException("Slot " + slotNumber + " lies outside every zone.");
+		}
+		shards.get(zone).insertSlot(slotNumber);
+	}
+
+	/**
+	 * Returns the occupancy of one zone.
+	 *
+	 * @param zone The index of the zone in {@link #getZones()}.
+	 * @return The statistics of the zone.
+	 */
+	public ParkingStatistics getZoneStatistics(int zone) {
+		return shards.get(zone).getParkingStatistics();
+	}
+
+	/**
+	 * Returns the occupancy of the whole lot, summed over the shards in parallel.
+	 *
+	 * @return The current parking statistics.
+	 */
+	public ParkingStatistics getParkingStatistics() {
+		return sum(fanOut(ConcurrentParkingManager::getParkingStatistics));
+	}
+
+	/**
+	 * Calculates the fees due at a given time for every car parked in the whole
+	 * lot, under a tariff, in all shards in parallel.
+	 *
+	 * @param tariff The tariff to be applied for parking.
+	 * @param now    The time the fees are calculated at.
+	 * @return The number of cars billed, their hours and the total of their
+	 *         fees.
+	 */
+	public RevenueReport calculateRevenue(Tariff tariff, LocalDateTime now) {
+		RevenueReport total = new RevenueReport(tariff, now, 0, 0, 0);
+		for (RevenueReport zone : fanOut(shard -> shard.calculateRevenue(tariff, now))) {
+			total = total.plus(zone);
+		}
+		return total;
+	}
+
+	/**
+	 * Displays statistics about the whole parking lot and each of its zones.
+	 */
+	public void displayParkingStatistics() {
+		List<ParkingStatistics> byZone = fanOut(ConcurrentParkingManager::getParkingStatistics);
+		ParkingStatistics statistics = sum(byZone);
+
+		System.out.println("\n--- Parking Statistics ---");
+		System.out.println("Total Slots: " + statistics.getTotalSlots());
+		System.out.println("Occupied Slots: " + statistics.getOccupiedSlots());
+		System.out.println("Reserved Slots: " + statistics.getReservedSlots());
+		System.out.println("Available Slots: " + statistics.getAvailableSlots());
+		for (int zone = 0; zone < zones.size(); zone++) {
+			System.out.println(zones.get(zone) + ": " + byZone.get(zone));
+		}
+	}
+
+	/**
+	 * Releases cars that have been parked for longer than a specified time limit,
+	 * in all shards in parallel.
+	 *
+	 * @param hoursLimit The number of hours beyond which a car is considered to
+	 *                   have stayed too long.
+	 */
+	public void releaseOldCars(int hoursLimit) {
+		fanOut(shard -> {
+			shard.releaseOldCars(hoursLimit);
+			return null;
+		});
+	}
+
+	/**
+	 * Saves each shard to its own binary snapshot file, in parallel. The file of
+	 * the n-th zone is named {@code <filePrefix>-zone<n>.snap}.
+	 *
+	 * @param filePrefix The path and name prefix of the snapshot files.
+	 */
+	public void saveSnapshots(String filePrefix) {
+		List<Integer> indexes = new ArrayList<>(shards.size());
+		for (int zone = 0; zone < shards.size(); zone++) {
+			indexes.add(zone);
+		}
+		fanOut(indexes, zone -> {
+			shards.get(zone).saveSnapshot(filePrefix + "-zone" + (zone + 1) + ".snap");
+			return null;
+		});
+	}
+
+	/**
+	 * Registers the listener receiving every arrival and departure in every zone.
+	 *
+	 * @param listener The listener to register, or null to stop notifying.
+	 */
+	public void setParkingListener(ParkingListener listener) {
+		for (ConcurrentParkingManager shard : shards) {
+			shard.setParkingListener(listener);
+		}
+	}
+
+	/**
+	 * Sets the sink receiving the outcome of every operation in every zone.
+	 *
+	 * @param eventSink The sink receiving the events; it must accept events from
+	 *                  several threads at once.
+	 */
+	public void setEventSink(ParkingEventSink eventSink) {
+		this.eventSink = eventSink;
+		for (ConcurrentParkingManager shard : shards) {
+			shard.setEventSink(eventSink);
+		}
+	}
+
+	/**
+	 * Checks if a car is already parked in any zone, reporting the slot it is
+	 * parked at.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @return True if the car is already parked.
+	 */
+	private boolean isParked(String licenseNumber) {
+		AVLNode parked = findSlotByPlate(licenseNumber);
+		if (parked != null) {
+			eventSink.publish(new ParkingEvent(ParkingMetrics.Operation.PARK, SlotOutcome.ALREADY_PARKED,
+					parked.getSlotNumber(), licenseNumber));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a shard has a slot a car can park in, reserved or not.
+	 */
+	private static boolean hasFreeSlot(ConcurrentParkingManager shard) {
+		ParkingStatistics statistics = shard.getParkingStatistics();
+		return statistics.getOccupiedSlots() < statistics.getTotalSlots();
+	}
+
+	/**
+	 * Adds up the statistics of several zones.
+	 */
+	private static ParkingStatistics sum(List<ParkingStatistics> byZone) {
+		int total = 0;
+		int occupied = 0;
+		int reserved = 0;
+		for (ParkingStatistics statistics : byZone) {
+			total += statistics.getTotalSlots();
+			occupied += statistics.getOccupiedSlots();
+			reserved += statistics.getReservedSlots();
+		}
+		return new ParkingStatistics(total, occupied, reserved);
+	}
+
+	/**
+	 * Finds the zone of a slot by binary search over the zones.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The index of the zone, or -1 if the slot lies outside every zone.
+	 */
+	private int zoneOf(int slotNumber) {
+		int low = 0;
+		int high = zones.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			ParkingZone zone = zones.get(mid);
+			if (slotNumber < zone.getFirstSlot()) {
+				high = mid - 1;
+			} else if (slotNumber > zone.getLastSlot()) {
+				low = mid + 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the distance from a slot number to the nearest slot number of a
+	 * zone, or 0 if the zone contains it.
+	 */
+	private static long distance(ParkingZone zone, int slotNumber) {
+		if (slotNumber < zone.getFirstSlot()) {
+			return (long) zone.getFirstSlot() - slotNumber;
+		}
+		return slotNumber > zone.getLastSlot() ? (long) slotNumber - zone.getLastSlot() : 0;
+	}
+
+	/**
+	 * Runs a task on every shard in parallel on the pool.
+	 *
+	 * @param task The task to run on each shard.
+	 * @return The results of the shards, in zone order.
+	 */
+	private <T> List<T> fanOut(Function<ConcurrentParkingManager, T> task) {
+		return fanOut(shards, task);
+	}
+
+	/**
+	 * Runs a task on every item in parallel on the pool and waits for all of
+	 * them.
+	 *
+	 * @param items The items to run the task on.
+	 * @param task  The task to run on each item.
+	 * @return The results, in the order of the items.
+	 */
+	private <S, T> List<T> fanOut(List<S> items, Function<S, T> task) {
+		List<ForkJoinTask<T>> tasks = new ArrayList<>(items.size());
+		for (S item : items) {
+			tasks.add(pool.submit(() -> task.apply(item)));
+		}
+		List<T> results = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<T> forked : tasks) {
+			results.add(forked.join());
+		}
+		return results;
+	}
+}
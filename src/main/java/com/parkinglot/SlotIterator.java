@@ -0,0 +1,64 @@
+package com.parkinglot;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy in-order iterator over the slots of an AVL Tree within a range of slot
+ * numbers. It keeps only the path to the next slot on an explicit stack, so it
+ * can be stopped at any point and never recurses. The tree must not change
+ * while it is iterated.
+ */
+class SlotIterator implements Iterator<AVLNode> {
+
+	private final Deque<AVLNode> stack = new ArrayDeque<>(); // Ancestors still to visit, next slot on top
+	private final int lastSlot; // Highest slot number to return
+
+	/**
+	 * Constructor to iterate over the slots in a range.
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number to return.
+	 * @param lastSlot  The highest slot number to return.
+	 */
+	SlotIterator(AVLNode root, int firstSlot, int lastSlot) {
+		this.lastSlot = lastSlot;
+		AVLNode node = root;
+		while (node != null) {
+			if (node.getSlotNumber() < firstSlot) {
+				node = node.getRightChild();
+			} else {
+				stack.push(node);
+				node = node.getLeftChild();
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !stack.isEmpty() && stack.peek().getSlotNumber() <= lastSlot;
+	}
+
+	/**
+	 * Returns the slot number of the next slot without moving past it.
+	 *
+	 * @return The slot number of the next slot; only valid if hasNext is true.
+	 */
+	int peekSlotNumber() {
+		return stack.peek().getSlotNumber();
+	}
+
+	@Override
+	public AVLNode next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		AVLNode slot = stack.pop();
+		for (AVLNode node = slot.getRightChild(); node != null; node = node.getLeftChild()) {
+			stack.push(node);
+		}
+		return slot;
+	}
+}
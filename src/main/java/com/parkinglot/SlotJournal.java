@@ -0,0 +1,527 @@
+package com.parkinglot;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only write-ahead journal of parking operations, so that gate activity
+ * survives a crash between two saves.
+ *
+ * Operations are appended to an in-memory batch and return immediately. A
+ * flusher thread writes the batch and forces it to disk once per group commit
+ * interval, so one fsync covers every operation of the interval; callers that
+ * need durability wait with {@link #awaitDurable(long)}. Each record carries
+ * its own length and CRC32, so a torn write at the end of the file is detected
+ * and ignored on replay.
+ *
+ * Records set absolute slot state (a park records the car and its entry time to
+ * the nanosecond, a release of old cars records a free of every slot it
+ * emptied, an insert adds a slot only if it is missing), so replaying a journal
+ * more than once on the same state is harmless. Parks with whole-second entry
+ * times and time-based releases written by earlier versions are still
+ * replayed. When the journal grows beyond the
+ * compaction threshold it is rotated and folded into the snapshot on a
+ * background thread, off the path of the gates. A compaction that fails leaves
+ * the rotated journal in place; it is logged, counted, and folded in again at
+ * the next rotation before a new journal is rotated out.
+ */
+public class SlotJournal implements Closeable {
+
+	static final byte PARK = 1; // Entry time in epoch seconds, replayed from earlier versions
+	static final byte FREE = 2;
+	static final byte RESERVE = 3;
+	static final byte RELEASE_OLD_CARS = 4; // Replayed from earlier versions
+	static final byte INSERT = 5;
+	static final byte PARK_NANOS = 6; // Entry time in epoch nanoseconds
+
+	static final long COMPACTION_RETRY_MILLIS = 1000; // Shortest wait before retrying a failed compaction
+
+	private static final int BATCH_CAPACITY = 64 * 1024; // Initial size of a batch buffer
+	private static final Logger LOGGER = LoggerFactory.getLogger(SlotJournal.class);
+
+	private final Path journalPath; // Journal receiving new records
+	private final Path compactingPath; // Rotated journal being folded into the snapshot
+	private final Path snapshotPath; // Snapshot the journal applies on top of
+	private final long groupCommitMillis; // Longest time a record waits for its fsync
+	private final long compactThresholdBytes; // Journal size that triggers a compaction
+	private final Thread flusher; // Thread writing and forcing batches
+	private final CRC32 crc = new CRC32(); // Checksum of the record being appended
+	private final byte[] payload = new byte[256]; // Record being appended
+
+	private FileChannel channel; // Channel of the journal (used by the flusher only)
+	private ByteBuffer pending = ByteBuffer.allocate(BATCH_CAPACITY); // Records waiting for the flusher
+	private ByteBuffer spare = ByteBuffer.allocate(BATCH_CAPACITY); // Buffer for the next batch
+	private long appendedSequence; // Sequence number of the last appended record
+	private long durableSequence; // Sequence number of the last record forced to disk
+	private boolean flushRequested; // Indicates if a waiter wants the batch now
+	private boolean closed; // Indicates if the journal no longer accepts records
+	private IOException failure; // Error that stopped the flusher
+	private volatile Thread compactor; // Thread running the current compaction
+	private volatile long compactionFailures; // Number of compactions that failed
+	private volatile IOException compactionFailure; // Error of the last failed compaction (null if none)
+	private volatile long compactionRetryAt; // Time before which a failed compaction is not retried
+
+	/**
+	 * Constructor to open a journal for appending and start its flusher.
+	 *
+	 * @param journalPath           The journal file (created if missing).
+	 * @param snapshotPath          The snapshot the journal is compacted into.
+	 * @param groupCommitMillis     Longest time a record waits for its fsync.
+	 * @param compactThresholdBytes Journal size that triggers a compaction.
+	 * @throws IOException If the journal cannot be opened.
+	 */
+	public SlotJournal(Path journalPath, Path snapshotPath, long groupCommitMillis, long compactThresholdBytes)
+			throws IOException {
+		this.journalPath = journalPath;
+		this.compactingPath = compactingPath(journalPath);
+		this.snapshotPath = snapshotPath;
+		this.groupCommitMillis = groupCommitMillis;
+		this.compactThresholdBytes = compactThresholdBytes;
+		this.channel = openForAppend(journalPath);
+		this.flusher = new Thread(this::flushLoop, "slot-journal-flusher");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Records that a car was parked in a slot.
+	 *
+	 * @param slotNumber The slot number.
+	 * @param car        The car parked in the slot.
+	 * @return The sequence number of the record.
+	 */
+	public long logPark(int slotNumber, Car car) {
+		LocalDateTime entryTime = car.getEntryTime();
+		if (entryTime == null) {
+			return append(PARK_NANOS, slotNumber, Long.MIN_VALUE, car.getLicenseNumber());
+		}
+		try {
+			return append(PARK_NANOS, slotNumber, SlotSnapshot.epochNanos(entryTime), car.getLicenseNumber());
+		} catch (ArithmeticException e) {
+			// Beyond the range of epoch nanoseconds, keep the whole seconds
+			return append(PARK, slotNumber, entryTime.toEpochSecond(ZoneOffset.UTC), car.getLicenseNumber());
+		}
+	}
+
+	/**
+	 * Records that a slot was freed.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The sequence number of the record.
+	 */
+	public long logFree(int slotNumber) {
+		return append(FREE, slotNumber, 0, null);
+	}
+
+	/**
+	 * Records that a slot was reserved.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The sequence number of the record.
+	 */
+	public long logReserve(int slotNumber) {
+		return append(RESERVE, slotNumber, 0, null);
+	}
+
+	/**
+	 * Records that a new, available slot was added to the lot.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The sequence number of the record.
+	 */
+	public long logInsert(int slotNumber) {
+		return append(INSERT, slotNumber, 0, null);
+	}
+
+	/**
+	 * Encodes a record into the pending batch.
+	 *
+	 * Record layout: payload length (int), CRC32 of the payload (int), then the
+	 * payload: type (byte), slot number (int), entry time (long), plate length
+	 * (short) and plate bytes (UTF-8, at most 241 bytes).
+	 */
+	private synchronized long append(byte type, int slotNumber, long time, String licenseNumber) {
+		if (closed) {
+			throw new IllegalStateException("Journal " + journalPath + " is closed.");
+		}
+		byte[] plate = licenseNumber == null ? new byte[0] : licenseNumber.getBytes(StandardCharsets.UTF_8);
+		int length = 15 + Math.min(plate.length, payload.length - 15);
+		ByteBuffer record = ByteBuffer.wrap(payload);
+		record.put(type).putInt(slotNumber).putLong(time).putShort((short) (length - 15));
+		record.put(plate, 0, length - 15);
+		crc.reset();
+		crc.update(payload, 0, length);
+
+		if (pending.remaining() < length + 8) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length + 8));
+			pending.flip();
+			larger.put(pending);
+			pending = larger;
+		}
+		pending.putInt(length).putInt((int) crc.getValue()).put(payload, 0, length);
+		notifyAll();
+		return ++appendedSequence;
+	}
+
+	/**
+	 * Waits until a record has been forced to disk. The current batch is flushed
+	 * at once instead of at the end of the group commit interval.
+	 *
+	 * @param sequence The sequence number returned when the record was appended.
+	 * @throws IOException If the journal could not be written.
+	 */
+	public synchronized void awaitDurable(long sequence) throws IOException {
+		flushRequested = true;
+		notifyAll();
+		while (durableSequence < sequence && failure == null) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the journal.", e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Waits until every record appended so far has been forced to disk.
+	 *
+	 * @throws IOException If the journal could not be written.
+	 */
+	public void sync() throws IOException {
+		long sequence;
+		synchronized (this) {
+			sequence = appendedSequence;
+		}
+		awaitDurable(sequence);
+	}
+
+	/**
+	 * Flusher loop: waits for records, lets the group commit interval fill the
+	 * batch, then writes and forces it with a single fsync.
+	 */
+	private void flushLoop() {
+		try {
+			while (true) {
+				ByteBuffer batch;
+				long sequence;
+				synchronized (this) {
+					while (pending.position() == 0 && !closed) {
+						wait();
+					}
+					if (pending.position() == 0) {
+						return; // Closed and fully flushed
+					}
+					long deadline = System.currentTimeMillis() + groupCommitMillis;
+					long remaining = groupCommitMillis;
+					while (!flushRequested && !closed && remaining > 0) {
+						wait(remaining);
+						remaining = deadline - System.currentTimeMillis();
+					}
+					batch = pending;
+					pending = spare != null ? spare : ByteBuffer.allocate(BATCH_CAPACITY);
+					spare = null;
+					sequence = appendedSequence;
+					flushRequested = false;
+				}
+
+				batch.flip();
+				while (batch.hasRemaining()) {
+					channel.write(batch);
+				}
+				channel.force(false);
+				boolean compact = channel.size() >= compactThresholdBytes;
+
+				synchronized (this) {
+					batch.clear();
+					spare = batch;
+					durableSequence = sequence;
+					notifyAll();
+				}
+				if (compact) {
+					rotateAndCompact();
+				}
+			}
+		} catch (IOException e) {
+			synchronized (this) {
+				failure = e;
+				notifyAll();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Moves the journal aside, starts a new one and folds the old one into the
+	 * snapshot on a background thread. Runs on the flusher between two batches,
+	 * so the rotated journal always ends on a record boundary. Nothing happens
+	 * while a previous compaction is still running. A rotated journal left by a
+	 * failed compaction is folded in first, without rotating, once the retry
+	 * interval has passed.
+	 */
+	private void rotateAndCompact() throws IOException {
+		if (compactor != null && compactor.isAlive()) {
+			return;
+		}
+		if (Files.exists(compactingPath)) {
+			if (System.currentTimeMillis() >= compactionRetryAt) {
+				startCompactor();
+			}
+			return;
+		}
+		channel.close();
+		Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+		channel = openForAppend(journalPath);
+		startCompactor();
+	}
+
+	/**
+	 * Starts a background thread folding the rotated journal into the snapshot.
+	 */
+	private void startCompactor() {
+		compactor = new Thread(() -> {
+			try {
+				compact(compactingPath, snapshotPath);
+			} catch (IOException e) {
+				compactionFailure = e;
+				compactionRetryAt = System.currentTimeMillis() + COMPACTION_RETRY_MILLIS;
+				compactionFailures++;
+				LOGGER.error("Compaction of {} into {} failed, retrying at the next rotation", compactingPath,
+						snapshotPath, e);
+			}
+		}, "slot-journal-compactor");
+		compactor.setDaemon(true);
+		compactor.start();
+	}
+
+	/**
+	 * Returns the number of background compactions that failed. The records of a
+	 * failed compaction stay in the rotated journal, which is replayed by
+	 * {@link #recover} and folded in again at the next rotation.
+	 *
+	 * @return The number of failed compactions.
+	 */
+	public long getCompactionFailures() {
+		return compactionFailures;
+	}
+
+	/**
+	 * Returns the error of the last failed compaction.
+	 *
+	 * @return The error, or null if no compaction failed.
+	 */
+	public IOException getCompactionFailure() {
+		return compactionFailure;
+	}
+
+	/**
+	 * Waits for a running background compaction to finish.
+	 *
+	 * @throws InterruptedException If the wait was interrupted.
+	 */
+	public void awaitCompaction() throws InterruptedException {
+		Thread running = compactor;
+		if (running != null) {
+			running.join();
+		}
+	}
+
+	/**
+	 * Flushes the remaining records, stops the flusher and closes the journal.
+	 *
+	 * @throws IOException If the remaining records could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+		try {
+			flusher.join();
+			awaitCompaction();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			channel.close();
+		}
+		synchronized (this) {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * Brings a parking lot loaded from its last snapshot (or Excel file) up to date
+	 * by replaying the journal, including a rotated journal whose compaction did
+	 * not finish, then checkpoints the result into the snapshot and removes the
+	 * replayed journals.
+	 *
+	 * @param journalPath  The journal file.
+	 * @param snapshotPath The snapshot to checkpoint into.
+	 * A lot that failed to load is never checkpointed: writing it would replace
+	 * the snapshot with an empty one and delete the only other copy of the lot.
+	 *
+	 * @param journalPath  The journal file.
+	 * @param snapshotPath The snapshot to checkpoint into.
+	 * @param root         The root node of the AVL Tree loaded at startup (null
+	 *                     if it could not be loaded).
+	 * @param tree         The AVL Tree instance managing the slots.
+	 * @return The root node of the AVL Tree after replay.
+	 * @throws IOException If the lot was not loaded, or the journals cannot be
+	 *                     read or the snapshot written. The snapshot and the
+	 *                     journals are then left untouched.
+	 */
+	public static AVLNode recover(Path journalPath, Path snapshotPath, AVLNode root, AVLTree tree)
+			throws IOException {
+		if (root == null) {
+			throw new IOException("No parking lot was loaded; " + snapshotPath + " and " + journalPath
+					+ " are left untouched.");
+		}
+		Path compacting = compactingPath(journalPath);
+		root = replay(compacting, root, tree);
+		root = replay(journalPath, root, tree);
+		SlotSnapshot.write(snapshotPath, root);
+		Files.deleteIfExists(compacting);
+		Files.deleteIfExists(journalPath);
+		return root;
+	}
+
+	/**
+	 * Folds a rotated journal into the snapshot: the snapshot is loaded into a
+	 * private tree, the journal replayed on it, and the result written back.
+	 */
+	private static void compact(Path journal, Path snapshotPath) throws IOException {
+		AVLTree tree = new AVLTree();
+		List<AVLNode> slots = new ArrayList<>();
+		if (Files.exists(snapshotPath)) {
+			SlotSnapshot.read(snapshotPath, (slotNumber, car, availability, reservations) -> slots
+					.add(new AVLNode(slotNumber, car, availability, reservations)));
+		}
+		AVLNode root = replay(journal, tree.buildBalanced(slots), tree);
+		SlotSnapshot.write(snapshotPath, root);
+		Files.delete(journal);
+	}
+
+	/**
+	 * Applies the records of a journal file to a parking lot. Replay stops at the
+	 * first incomplete or corrupt record, which can only be the tail of a write
+	 * interrupted by a crash. Records for slots that do not exist are ignored.
+	 *
+	 * @param journal The journal file (nothing happens if it does not exist).
+	 * @param root    The root node of the AVL Tree.
+	 * @param tree    The AVL Tree instance managing the slots.
+	 * @return The root node of the AVL Tree after replay.
+	 * @throws IOException If the journal cannot be read.
+	 */
+	public static AVLNode replay(Path journal, AVLNode root, AVLTree tree) throws IOException {
+		if (!Files.exists(journal)) {
+			return root;
+		}
+		try (InputStream file = Files.newInputStream(journal);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+			CRC32 crc = new CRC32();
+			byte[] payload = new byte[256];
+			while (true) {
+				int length = in.readInt();
+				int checksum = in.readInt();
+				if (length < 15 || length > payload.length) {
+					break; // Torn or corrupt tail
+				}
+				in.readFully(payload, 0, length);
+				crc.reset();
+				crc.update(payload, 0, length);
+				if ((int) crc.getValue() != checksum) {
+					break; // Torn or corrupt tail
+				}
+				root = apply(ByteBuffer.wrap(payload, 0, length), root, tree);
+			}
+		} catch (EOFException e) {
+			// End of the journal (possibly in the middle of a torn record)
+		}
+		return root;
+	}
+
+	/**
+	 * Applies a single journal record to a parking lot.
+	 */
+	private static AVLNode apply(ByteBuffer record, AVLNode root, AVLTree tree) {
+		byte type = record.get();
+		int slotNumber = record.getInt();
+		long time = record.getLong();
+		byte[] plate = new byte[record.getShort()];
+		record.get(plate);
+
+		if (type == RELEASE_OLD_CARS) {
+			return tree.releaseOldCars(root, slotNumber, LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+		}
+		if (type == INSERT) {
+			return tree.insert(root, slotNumber, null); // Nothing happens if the slot exists
+		}
+		SlotPath path = tree.findPath(root, slotNumber);
+		AVLNode slot = path.getSlot();
+		if (slot == null) {
+			return root;
+		}
+		switch (type) {
+		case PARK:
+		case PARK_NANOS:
+			LocalDateTime entryTime = time == Long.MIN_VALUE ? null
+					: type == PARK ? LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC)
+							: SlotSnapshot.ofEpochNanos(time);
+			slot.setCarDetails(new Car(new String(plate, StandardCharsets.UTF_8), entryTime));
+			slot.setAvailable(false);
+			slot.setReserved(false);
+			break;
+		case FREE:
+			slot.setCarDetails(null);
+			slot.setAvailable(true);
+			break;
+		case RESERVE:
+			slot.setReserved(true);
+			break;
+		default:
+			return root; // Unknown record type from a newer version
+		}
+		path.refreshCounts();
+		return root;
+	}
+
+	/**
+	 * Returns the path a journal is moved to while it is being compacted.
+	 */
+	private static Path compactingPath(Path journalPath) {
+		return journalPath.resolveSibling(journalPath.getFileName() + ".compacting");
+	}
+
+	/**
+	 * Opens a journal file for appending.
+	 */
+	private static FileChannel openForAppend(Path path) throws IOException {
+		return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+}
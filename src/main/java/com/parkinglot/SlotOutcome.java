@@ -0,0 +1,51 @@
+package com.parkinglot;
+
+/**
+ * Outcome of an operation on one slot. Batch operations return it instead of
+ * a message per slot; single-slot operations publish it in a
+ * {@link ParkingEvent}.
+ */
+public enum SlotOutcome {
+
+	/** The slot was freed. */
+	FREED,
+
+	/** The slot was reserved. */
+	RESERVED,
+
+	/** The slot is not present in the parking lot. */
+	NOT_FOUND,
+
+	/** The slot an update of the AVL Tree was asked to change is not present. */
+	UNKNOWN_SLOT,
+
+	/** The slot was already available, so there was nothing to free. */
+	ALREADY_AVAILABLE,
+
+	/** The slot is occupied, so it cannot be reserved. */
+	OCCUPIED,
+
+	/** A car was parked in the slot. */
+	PARKED,
+
+	/** The car is already parked, in the slot of the event. */
+	ALREADY_PARKED,
+
+	/** No slot is available, so the car was not parked. */
+	LOT_FULL,
+
+	/** The reservation of the slot was cleared by a car parking in it. */
+	RESERVATION_CLEARED,
+
+	/** The car is not parked in the parking lot, so there was nothing to free. */
+	NOT_PARKED,
+
+	/** The car of the slot was released for staying too long. */
+	RELEASED,
+
+	/** The slot holds no car, so there is no fee. */
+	NOT_OCCUPIED,
+
+	/** The fee of the car in the slot was calculated. */
+	FEE_CALCULATED
+}
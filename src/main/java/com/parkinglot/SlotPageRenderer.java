@@ -0,0 +1,115 @@
+package com.parkinglot;
+
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Renders the status and availability reports of a parking lot a page at a
+ * time, through a buffered writer that is flushed once per page instead of
+ * once per line.
+ *
+ * A page is the next slots from a cursor slot number, optionally only those of
+ * one status. Rendering a page returns the cursor of the next page, so an
+ * operator can ask for "the next 500 from slot X" and memory stays bounded by
+ * the page size whatever the size of the lot.
+ */
+public class SlotPageRenderer {
+
+	private final AVLTree tree; // AVL Tree walked for the pages
+	private final PrintWriter out; // Buffered destination of the reports
+
+	/**
+	 * Constructor to render pages to a writer.
+	 *
+	 * @param tree The AVL Tree instance managing the slots.
+	 * @param out  The destination of the reports; it is buffered, flushed after
+	 *             every page and never closed.
+	 */
+	public SlotPageRenderer(AVLTree tree, Writer out) {
+		this.tree = tree;
+		this.out = new PrintWriter(new BufferedWriter(out, 1 << 16), false);
+	}
+
+	/**
+	 * Renders a page of the parking status report: one line per slot with its
+	 * status, and the car and entry time of occupied slots.
+	 *
+	 * @param root     The root node of the AVL Tree.
+	 * @param fromSlot The lowest slot number of the page.
+	 * @param pageSize The maximum number of slots on the page.
+	 * @param status   The status of the slots to show (null for every slot).
+	 * @return The slot number to start the next page from, or -1 if no slot is
+	 *         left.
+	 */
+	public int renderStatus(AVLNode root, int fromSlot, int pageSize, SlotStatus status) {
+		int[] shown = { 0 }; // Slots rendered so far
+		int[] next = { -1 }; // First slot of the next page
+		tree.forEachFrom(root, fromSlot, status, slot -> {
+			if (shown[0] == pageSize) {
+				next[0] = slot.getSlotNumber();
+				return false;
+			}
+			switch (SlotStatus.of(slot)) {
+			case AVAILABLE:
+				out.println("Slot Number: " + slot.getSlotNumber() + " | Status: Available");
+				break;
+			case RESERVED:
+				out.println("Slot Number: " + slot.getSlotNumber() + " | Status: Reserved");
+				break;
+			default:
+				out.println("Slot Number: " + slot.getSlotNumber() + " | Status: Occupied | Car: "
+						+ slot.getCarDetails().getLicenseNumber() + " | Entry Time: "
+						+ slot.getCarDetails().getEntryTime());
+			}
+			shown[0]++;
+			return true;
+		});
+		out.flush();
+		return next[0];
+	}
+
+	/**
+	 * Renders a page of the slot availability report: the slot numbers of the
+	 * page grouped into available, occupied and reserved lists, or only the
+	 * list of the given status.
+	 *
+	 * @param root     The root node of the AVL Tree.
+	 * @param fromSlot The lowest slot number of the page.
+	 * @param pageSize The maximum number of slots on the page.
+	 * @param status   The status of the slots to show (null for every slot).
+	 * @return The slot number to start the next page from, or -1 if no slot is
+	 *         left.
+	 */
+	public int renderAvailability(AVLNode root, int fromSlot, int pageSize, SlotStatus status) {
+		StringBuilder[] lists = new StringBuilder[SlotStatus.values().length]; // Slot numbers of each status
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = new StringBuilder();
+		}
+		int[] shown = { 0 };
+		int[] next = { -1 };
+		tree.forEachFrom(root, fromSlot, status, slot -> {
+			if (shown[0] == pageSize) {
+				next[0] = slot.getSlotNumber();
+				return false;
+			}
+			StringBuilder list = lists[SlotStatus.of(slot).ordinal()];
+			list.append(list.length() == 0 ? "" : ", ").append(slot.getSlotNumber());
+			shown[0]++;
+			return true;
+		});
+
+		out.println();
+		if (status == null || status == SlotStatus.AVAILABLE) {
+			out.println("Available Slots: [" + lists[SlotStatus.AVAILABLE.ordinal()] + "]");
+		}
+		if (status == null || status == SlotStatus.OCCUPIED) {
+			out.println("Occupied Slots: [" + lists[SlotStatus.OCCUPIED.ordinal()] + "]");
+		}
+		if (status == null || status == SlotStatus.RESERVED) {
+			out.println("Reserved Slots: [" + lists[SlotStatus.RESERVED.ordinal()] + "]");
+		}
+		out.flush();
+		return next[0];
+	}
+}
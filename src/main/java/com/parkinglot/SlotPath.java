@@ -0,0 +1,59 @@
+package com.parkinglot;
+
+/**
+ * Records the nodes visited while descending the AVL Tree to a parking slot.
+ * The recorded path lets a caller find a slot, change its status and then
+ * refresh the subtree counts of every ancestor without a second descent.
+ */
+public class SlotPath {
+
+	private final AVLNode[] nodes; // Nodes visited from the root down to the slot
+	private int length; // Number of nodes recorded
+	private boolean found; // Indicates if the last recorded node is the wanted slot
+
+	/**
+	 * Constructor to initialize an empty path.
+	 *
+	 * @param capacity Maximum number of nodes on the path (the tree height).
+	 */
+	SlotPath(int capacity) {
+		this.nodes = new AVLNode[capacity];
+		this.length = 0;
+		this.found = false;
+	}
+
+	/**
+	 * Appends a visited node to the path.
+	 *
+	 * @param node The node visited next.
+	 */
+	void add(AVLNode node) {
+		nodes[length++] = node;
+	}
+
+	/**
+	 * Marks the last recorded node as the slot that was looked for.
+	 */
+	void markFound() {
+		this.found = true;
+	}
+
+	/**
+	 * Returns the slot at the end of the path.
+	 *
+	 * @return The slot node, or null if the slot was not found.
+	 */
+	public AVLNode getSlot() {
+		return found ? nodes[length - 1] : null;
+	}
+
+	/**
+	 * Refreshes the subtree counts bottom-up along the path. Must be called after
+	 * the status of the slot has been changed.
+	 */
+	public void refreshCounts() {
+		for (int i = length - 1; i >= 0; i--) {
+			nodes[i].updateCounts();
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.parkinglot;
+
+/**
+ * Receives parking slots one at a time from a reader, in file order, so that
+ * slots can be loaded without holding the whole file in memory.
+ */
+public interface SlotRowHandler {
+
+	/**
+	 * Called once for every valid slot read.
+	 *
+	 * @param slotNumber The slot number.
+	 * @param carDetails Car parked in the slot (null if no license number).
+	 * @param available  Indicates if the slot is available.
+	 * @param reserved   Indicates if the slot is reserved.
+	 */
+	void slot(int slotNumber, Car carDetails, boolean available, boolean reserved);
+}
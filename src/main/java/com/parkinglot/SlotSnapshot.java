@@ -0,0 +1,315 @@
+package com.parkinglot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of a parking lot, used for fast restarts. Excel files
+ * remain the import/export format; a snapshot only has to be written and read
+ * back as quickly as possible.
+ *
+ * A snapshot is a 32-byte header followed by fixed-width 48-byte slot records
+ * in ascending slot order:
+ *
+ * <pre>
+ * header: magic (int), version (int), record size (int), slot count (int),
+ *         CRC32 of the records (long), reserved (8 bytes)
+ * record: slot number (int), flags (byte), plate length (byte), padding (2 bytes),
+ *         entry time (long), plate bytes (32 bytes, UTF-8)
+ * </pre>
+ *
+ * The entry time is stored in nanoseconds since the epoch, in UTC, so a car
+ * loaded back is billed from the instant it arrived. Version 1 snapshots stored
+ * whole epoch seconds; they are still read, with the nanoseconds as zero.
+ *
+ * Both directions go through memory-mapped {@link FileChannel} regions, mapped
+ * a chunk of records at a time so lots larger than 2 GB can be handled.
+ */
+public class SlotSnapshot {
+
+	static final int MAGIC = 0x504C534E; // "PLSN"
+	static final int VERSION = 2;
+	static final int VERSION_SECONDS = 1; // Version storing entry times in whole seconds
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 48;
+	static final int MAX_PLATE_BYTES = 32;
+
+	private static final int FLAG_AVAILABLE = 1;
+	private static final int FLAG_RESERVED = 2;
+	private static final int FLAG_CAR = 4;
+	private static final int FLAG_ENTRY_TIME = 8;
+	private static final int CHUNK_RECORDS = 1 << 20; // Records mapped at a time (48 MB)
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	/**
+	 * Writes every slot of an AVL Tree to a snapshot file, in slot order.
+	 *
+	 * @param path The snapshot file to write.
+	 * @param root The root node of the AVL Tree.
+	 * @throws IOException If the file cannot be written or a plate is too long.
+	 */
+	public static void write(Path path, AVLNode root) throws IOException {
+		try (Writer writer = new Writer(path, root == null ? 0 : root.getSize())) {
+			Deque<AVLNode> stack = new ArrayDeque<>();
+			AVLNode node = root;
+			while (node != null || !stack.isEmpty()) {
+				while (node != null) {
+					stack.push(node);
+					node = node.getLeftChild();
+				}
+				node = stack.pop();
+				writer.writeSlot(node);
+				node = node.getRightChild();
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot file and passes every slot to the handler, in slot order.
+	 * The checksum is verified once all records have been read, so a caller must
+	 * discard what it received if an exception is thrown.
+	 *
+	 * @param path    The snapshot file to read.
+	 * @param handler The handler receiving the slots.
+	 * @return The number of slots read.
+	 * @throws IOException If the file cannot be read or is not a valid snapshot.
+	 */
+	public static int read(Path path, SlotRowHandler handler) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException("Snapshot " + path + " is truncated.");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(path + " is not a parking lot snapshot.");
+			}
+			int version = header.getInt(4);
+			if ((version != VERSION && version != VERSION_SECONDS) || header.getInt(8) != RECORD_SIZE) {
+				throw new IOException("Unsupported snapshot version " + header.getInt(4) + " in " + path);
+			}
+			int count = header.getInt(12);
+			long checksum = header.getLong(16);
+			if (count < 0 || channel.size() != HEADER_SIZE + (long) count * RECORD_SIZE) {
+				throw new IOException("Snapshot " + path + " is truncated.");
+			}
+
+			CRC32 crc = new CRC32();
+			byte[] plate = new byte[MAX_PLATE_BYTES];
+			for (int first = 0; first < count; first += CHUNK_RECORDS) {
+				int records = Math.min(CHUNK_RECORDS, count - first);
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+						HEADER_SIZE + (long) first * RECORD_SIZE, (long) records * RECORD_SIZE);
+				crc.update(chunk.duplicate());
+				for (int i = 0; i < records; i++) {
+					int offset = i * RECORD_SIZE;
+					int flags = chunk.get(offset + 4);
+					Car car = null;
+					if ((flags & FLAG_CAR) != 0) {
+						int plateLength = chunk.get(offset + 5) & 0xFF;
+						if (plateLength > MAX_PLATE_BYTES) {
+							throw new IOException("Snapshot " + path + " is corrupt (plate length " + plateLength
+									+ " in record " + (first + i) + ").");
+						}
+						chunk.get(offset + 16, plate, 0, plateLength);
+						LocalDateTime entryTime = null;
+						if ((flags & FLAG_ENTRY_TIME) != 0) {
+							long time = chunk.getLong(offset + 8);
+							entryTime = version == VERSION_SECONDS
+									? LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC)
+									: ofEpochNanos(time);
+						}
+						car = new Car(new String(plate, 0, plateLength, StandardCharsets.UTF_8), entryTime);
+					}
+					handler.slot(chunk.getInt(offset), car, (flags & FLAG_AVAILABLE) != 0,
+							(flags & FLAG_RESERVED) != 0);
+				}
+			}
+			if (crc.getValue() != checksum) {
+				throw new IOException("Snapshot " + path + " is corrupt (checksum mismatch).");
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Converts a time to nanoseconds since the epoch, in UTC.
+	 *
+	 * @param time The time to convert.
+	 * @return The nanoseconds since the epoch.
+	 * @throws ArithmeticException If the time is outside the years 1677 to 2262.
+	 */
+	static long epochNanos(LocalDateTime time) {
+		return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND), time.getNano());
+	}
+
+	/**
+	 * Converts nanoseconds since the epoch, in UTC, to a time.
+	 *
+	 * @param nanos The nanoseconds since the epoch.
+	 * @return The time.
+	 */
+	static LocalDateTime ofEpochNanos(long nanos) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+				(int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+	}
+
+	/**
+	 * Writes slot records to a snapshot file one at a time, without needing the
+	 * slots in memory. The number of slots must be known up front. The file is
+	 * written next to the target and moved into place on close, so a crash never
+	 * leaves a half-written snapshot behind.
+	 */
+	public static class Writer implements Closeable {
+
+		private final Path path; // Snapshot file to create
+		private final Path tempPath; // File written until the snapshot is complete
+		private final FileChannel channel; // Channel of the temporary file
+		private final int count; // Number of slots announced
+		private final CRC32 crc = new CRC32(); // Checksum of the records written
+		private MappedByteBuffer chunk; // Mapped region receiving records
+		private int written; // Number of slots written
+
+		/**
+		 * Constructor to start a snapshot of a known number of slots.
+		 *
+		 * @param path  The snapshot file to create.
+		 * @param count The number of slots that will be written.
+		 * @throws IOException If the file cannot be created.
+		 */
+		public Writer(Path path, int count) throws IOException {
+			this.path = path;
+			this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+			this.channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			this.count = count;
+		}
+
+		/**
+		 * Appends a slot record. Slots must be written in ascending order.
+		 *
+		 * @param slotNumber    The slot number.
+		 * @param licenseNumber License number of the parked car (null if none).
+		 * @param entryTime     Entry time of the parked car (null if none).
+		 * @param available     Indicates if the slot is available.
+		 * @param reserved      Indicates if the slot is reserved.
+		 * @throws IOException If more slots than announced are written, or the plate
+		 *                     or entry time does not fit in a record.
+		 */
+		public void writeSlot(int slotNumber, String licenseNumber, LocalDateTime entryTime, boolean available,
+				boolean reserved) throws IOException {
+			if (written == count) {
+				throw new IOException("More than " + count + " slots written to snapshot " + path);
+			}
+			if (written % CHUNK_RECORDS == 0) {
+				finishChunk();
+				int records = Math.min(CHUNK_RECORDS, count - written);
+				chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) written * RECORD_SIZE,
+						(long) records * RECORD_SIZE);
+			}
+
+			int flags = (available ? FLAG_AVAILABLE : 0) | (reserved ? FLAG_RESERVED : 0);
+			byte[] plate = null;
+			if (licenseNumber != null) {
+				plate = licenseNumber.getBytes(StandardCharsets.UTF_8);
+				if (plate.length > MAX_PLATE_BYTES) {
+					throw new IOException("License number " + licenseNumber + " is too long for a snapshot.");
+				}
+				flags |= FLAG_CAR | (entryTime != null ? FLAG_ENTRY_TIME : 0);
+			}
+			long time = 0;
+			if (entryTime != null) {
+				try {
+					time = epochNanos(entryTime);
+				} catch (ArithmeticException e) {
+					throw new IOException("Entry time " + entryTime + " is out of range for a snapshot.");
+				}
+			}
+
+			int offset = (written % CHUNK_RECORDS) * RECORD_SIZE;
+			chunk.putInt(offset, slotNumber);
+			chunk.put(offset + 4, (byte) flags);
+			chunk.put(offset + 5, (byte) (plate == null ? 0 : plate.length));
+			chunk.putShort(offset + 6, (short) 0);
+			chunk.putLong(offset + 8, time);
+			for (int i = 0; i < MAX_PLATE_BYTES; i += Long.BYTES) {
+				chunk.putLong(offset + 16 + i, 0L);
+			}
+			if (plate != null) {
+				chunk.put(offset + 16, plate);
+			}
+			written++;
+		}
+
+		/**
+		 * Appends the record of a parking slot node.
+		 *
+		 * @param node The slot to write.
+		 * @throws IOException If the record cannot be written.
+		 */
+		public void writeSlot(AVLNode node) throws IOException {
+			Car car = node.getCarDetails();
+			writeSlot(node.getSlotNumber(), car == null ? null : car.getLicenseNumber(),
+					car == null ? null : car.getEntryTime(), node.isAvailable(), node.isReserved());
+		}
+
+		/**
+		 * Adds the records of the current chunk to the checksum and flushes it.
+		 */
+		private void finishChunk() {
+			if (chunk != null) {
+				chunk.force();
+				crc.update(chunk.duplicate());
+				chunk = null;
+			}
+		}
+
+		/**
+		 * Writes the header, forces the file to disk and moves it into place. If
+		 * the snapshot cannot be completed, the temporary file is deleted and the
+		 * previous snapshot, if any, is left as it was.
+		 *
+		 * @throws IOException If fewer slots than announced were written or the file
+		 *                     cannot be completed.
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				try {
+					if (written != count) {
+						throw new IOException(
+								"Only " + written + " of " + count + " slots written to snapshot " + path);
+					}
+					finishChunk();
+					ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+					header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(count).putLong(crc.getValue());
+					header.position(0);
+					channel.write(header, 0);
+					channel.force(true);
+				} finally {
+					channel.close();
+				}
+				Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException | RuntimeException e) {
+				try {
+					Files.deleteIfExists(tempPath);
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.parkinglot;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable traversal of the slots of an AVL Tree within a range of slot
+ * numbers, for parallel streams. A range is split at the highest node of the
+ * tree inside it, so both halves end at a subtree boundary and, the tree being
+ * balanced, hold about the same number of slots. Sizes are exact, computed
+ * from the subtree counts in O(log n). The tree must not change while it is
+ * traversed.
+ */
+class SlotSpliterator implements Spliterator<AVLNode> {
+
+	private static final Comparator<AVLNode> BY_SLOT_NUMBER = Comparator.comparingInt(AVLNode::getSlotNumber);
+
+	private final AVLNode root; // Root of the AVL Tree
+	private int firstSlot; // Lowest slot number of the range, raised when a prefix is split off
+	private final int lastSlot; // Highest slot number of the range
+	private SlotIterator iterator; // Traversal of the range once started (null before)
+
+	/**
+	 * Constructor to traverse the slots in a range.
+	 *
+	 * @param root      The root of the AVL Tree.
+	 * @param firstSlot The lowest slot number of the range.
+	 * @param lastSlot  The highest slot number of the range.
+	 */
+	SlotSpliterator(AVLNode root, int firstSlot, int lastSlot) {
+		this.root = root;
+		this.firstSlot = firstSlot;
+		this.lastSlot = lastSlot;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super AVLNode> action) {
+		if (iterator == null) {
+			iterator = new SlotIterator(root, firstSlot, lastSlot);
+		}
+		if (!iterator.hasNext()) {
+			return false;
+		}
+		action.accept(iterator.next());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super AVLNode> action) {
+		if (iterator == null) {
+			iterator = new SlotIterator(root, firstSlot, lastSlot);
+		}
+		iterator.forEachRemaining(action);
+	}
+
+	@Override
+	public Spliterator<AVLNode> trySplit() {
+		if (iterator != null) {
+			return null;
+		}
+		// Start the range at its first slot, so the prefix is never empty
+		AVLNode first = null;
+		for (AVLNode node = root; node != null;) {
+			if (node.getSlotNumber() < firstSlot) {
+				node = node.getRightChild();
+			} else {
+				first = node;
+				node = node.getLeftChild();
+			}
+		}
+		if (first == null || first.getSlotNumber() >= lastSlot) {
+			return null;
+		}
+		firstSlot = first.getSlotNumber();
+
+		// Highest node of the tree with a slot number in (firstSlot, lastSlot]
+		AVLNode node = root;
+		while (node != null && (node.getSlotNumber() <= firstSlot || node.getSlotNumber() > lastSlot)) {
+			node = node.getSlotNumber() <= firstSlot ? node.getRightChild() : node.getLeftChild();
+		}
+		if (node == null) {
+			return null;
+		}
+		SlotSpliterator prefix = new SlotSpliterator(root, firstSlot, node.getSlotNumber() - 1);
+		firstSlot = node.getSlotNumber();
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		long end = (long) lastSlot + 1;
+		if (iterator == null) {
+			return countBelow(end) - countBelow(firstSlot);
+		}
+		return iterator.hasNext() ? countBelow(end) - countBelow(iterator.peekSlotNumber()) : 0;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+	}
+
+	@Override
+	public Comparator<? super AVLNode> getComparator() {
+		return BY_SLOT_NUMBER;
+	}
+
+	/**
+	 * Counts the slots numbered below a bound from the subtree sizes.
+	 *
+	 * @param bound The bound, excluded.
+	 * @return The number of slots below the bound.
+	 */
+	private long countBelow(long bound) {
+		long count = 0;
+		AVLNode node = root;
+		while (node != null) {
+			if (node.getSlotNumber() < bound) {
+				count += 1 + (node.getLeftChild() == null ? 0 : node.getLeftChild().getSize());
+				node = node.getRightChild();
+			} else {
+				node = node.getLeftChild();
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,48 @@
+package com.parkinglot;
+
+/**
+ * Status of a parking slot, as shown by the status and availability reports.
+ * Every slot has exactly one status.
+ */
+public enum SlotStatus {
+
+	/** Free and not reserved. */
+	AVAILABLE,
+
+	/** Free but held by a reservation. */
+	RESERVED,
+
+	/** Holding a car. */
+	OCCUPIED;
+
+	/**
+	 * Returns the status of a slot.
+	 *
+	 * @param slot The slot.
+	 * @return The status of the slot.
+	 */
+	public static SlotStatus of(AVLNode slot) {
+		if (!slot.isAvailable()) {
+			return OCCUPIED;
+		}
+		return slot.isReserved() ? RESERVED : AVAILABLE;
+	}
+
+	/**
+	 * Counts the slots with this status in the subtree rooted at a node, from the
+	 * subtree counts kept on the node.
+	 *
+	 * @param node The root of the subtree.
+	 * @return The number of slots with this status in the subtree.
+	 */
+	public int countIn(AVLNode node) {
+		switch (this) {
+		case AVAILABLE:
+			return node.getAvailableCount() - node.getReservedCount();
+		case RESERVED:
+			return node.getReservedCount();
+		default:
+			return node.getSize() - node.getAvailableCount();
+		}
+	}
+}
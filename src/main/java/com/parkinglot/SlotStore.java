@@ -0,0 +1,130 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage of the parking slots of a lot on its own, without the manager's
+ * indexes, journal, listener or events. The operations mirror those the
+ * {@link ParkingManager} performs on its AVL Tree, but the manager does not
+ * run on a store: it works on AVL roots, and a store is filled with
+ * {@link ParkingManager#loadSnapshot(String, SlotStore)} and used directly,
+ * for lots too large to hold as AVL nodes. Implementations differ in layout
+ * only; the status rules are those of the manager:
+ *
+ * <ul>
+ * <li>The nearest available slot is the lowest available slot, reserved or
+ * not, and parking a car there clears the reservation.</li>
+ * <li>Freeing a slot keeps its reservation.</li>
+ * <li>Only available slots can be reserved.</li>
+ * </ul>
+ *
+ * Every operation reports its outcome in its return value.
+ */
+public interface SlotStore {
+
+	/**
+	 * Adds a slot with the given status. Slots are best added in ascending order;
+	 * a slot number that is already present is ignored.
+	 *
+	 * @param slotNumber The slot number.
+	 * @param carDetails Car parked in the slot (null if none).
+	 * @param available  Indicates if the slot is available.
+	 * @param reserved   Indicates if the slot is reserved.
+	 */
+	void addSlot(int slotNumber, Car carDetails, boolean available, boolean reserved);
+
+	/**
+	 * Returns the number of slots in the store.
+	 *
+	 * @return The number of slots.
+	 */
+	int size();
+
+	/**
+	 * Checks if a slot is present.
+	 *
+	 * @param slotNumber The slot number to look for.
+	 * @return True if the slot is present.
+	 */
+	boolean contains(int slotNumber);
+
+	/**
+	 * Checks if a slot is available.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return True if the slot is present and available.
+	 */
+	boolean isAvailable(int slotNumber);
+
+	/**
+	 * Checks if a slot is reserved.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return True if the slot is present and reserved.
+	 */
+	boolean isReserved(int slotNumber);
+
+	/**
+	 * Returns the car parked in a slot.
+	 *
+	 * @param slotNumber The slot number.
+	 * @return The car, or null if the slot is missing or holds no car.
+	 */
+	Car getCar(int slotNumber);
+
+	/**
+	 * Finds the nearest (lowest) available slot.
+	 *
+	 * @return The nearest available slot number or -1 if no slot is available.
+	 */
+	int findNearestAvailableSlot();
+
+	/**
+	 * Parks a car in the nearest available slot.
+	 *
+	 * @param licenseNumber The license plate number of the car.
+	 * @param entryTime     The time the car entered.
+	 * @return The slot the car was parked in, or -1 if no slot is available.
+	 */
+	int parkCar(String licenseNumber, LocalDateTime entryTime);
+
+	/**
+	 * Frees a slot that is occupied or reserved.
+	 *
+	 * @param slotNumber The slot number to free.
+	 * @return True if the slot was freed, false if it is missing or already free.
+	 */
+	boolean freeSlot(int slotNumber);
+
+	/**
+	 * Reserves an available slot.
+	 *
+	 * @param slotNumber The slot number to reserve.
+	 * @return True if the slot was reserved, false if it is missing or occupied.
+	 */
+	boolean reserveSlot(int slotNumber);
+
+	/**
+	 * Releases the cars that have been parked for at least the given number of
+	 * hours at the given time.
+	 *
+	 * @param hoursLimit The number of hours a car may stay.
+	 * @param now        The time parking durations are measured up to.
+	 * @return The number of cars released.
+	 */
+	int releaseOldCars(int hoursLimit, LocalDateTime now);
+
+	/**
+	 * Returns a snapshot of the occupancy counters.
+	 *
+	 * @return The current parking statistics.
+	 */
+	ParkingStatistics getStatistics();
+
+	/**
+	 * Passes every slot to the handler, in ascending slot order.
+	 *
+	 * @param handler The handler receiving the slots.
+	 */
+	void forEachSlot(SlotRowHandler handler);
+}
@@ -0,0 +1,17 @@
+package com.parkinglot;
+
+/**
+ * Update applied to the slots found by a batch walk of the AVL Tree, see
+ * {@link AVLTree#updateSlots(AVLNode, int[], SlotUpdate)}.
+ */
+public interface SlotUpdate {
+
+	/**
+	 * Called once for every slot number of the batch that is present.
+	 *
+	 * @param slot     The slot with that number.
+	 * @param position The position of the slot number in the sorted batch.
+	 * @return True if the availability or reservation of the slot changed.
+	 */
+	boolean apply(AVLNode slot, int position);
+}
@@ -0,0 +1,168 @@
+package com.parkinglot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Rate schedule of the parking lot: hourly rates in tiers by the hour of the
+ * stay, and an optional cap on what one day of parking can cost.
+ *
+ * Stays are billed by whole hours, as {@link ParkingManager#calculateParkingFee}
+ * does, and in days of 24 hours counted from the entry time: the tiers start
+ * again and the cap applies to each day, and the last, partial day pays its
+ * hours at the same tiers up to the cap.
+ *
+ * The schedule is compiled on construction into the capped fee of every number
+ * of hours from 0 to 24, in cents, so the fee of any stay is a division and two
+ * array reads, with no walk over the tiers. The fee of the hours of a day is
+ * rounded to the cent once, so rates in fractions of a cent are billed to the
+ * nearest cent of each day rather than of each hour.
+ */
+public class Tariff {
+
+	/** Hours of one billing day. */
+	public static final int HOURS_PER_DAY = 24;
+
+	private static final long SECONDS_PER_HOUR = 3600;
+
+	private final int[] tierStartHours; // First hour of the day each tier applies to, ascending from 0
+	private final double[] hourlyRates; // Hourly rate of each tier
+	private final double dailyCap; // Most a day of parking costs (0 if not capped)
+	private final long[] dayFeeCents = new long[HOURS_PER_DAY + 1]; // Capped fee of the first h hours of a day
+
+	/**
+	 * Constructor to compile a schedule of tiered hourly rates. The first tier
+	 * applies from the first hour of the stay; each following tier applies from
+	 * its start hour to the start of the next tier or the end of the day.
+	 *
+	 * @param tierStartHours The hour of the day each tier starts at, ascending
+	 *                       and starting with 0.
+	 * @param hourlyRates    The hourly rate of each tier.
+	 * @param dailyCap       The most one day of parking costs, or 0 for no cap.
+	 * @throws IllegalArgumentException If the tiers are malformed or a rate or
+	 *                                  the cap is negative.
+	 */
+	public Tariff(int[] tierStartHours, double[] hourlyRates, double dailyCap) {
+		if (tierStartHours.length == 0 || tierStartHours.length != hourlyRates.length) {
+			throw new IllegalArgumentException("Each tier needs a start hour and a rate.");
+		}
+		if (tierStartHours[0] != 0) {
+			throw new IllegalArgumentException("The first tier must start at hour 0: " + tierStartHours[0]);
+		}
+		for (int tier = 0; tier < tierStartHours.length; tier++) {
+			if (tier > 0 && (tierStartHours[tier] <= tierStartHours[tier - 1]
+					|| tierStartHours[tier] >= HOURS_PER_DAY)) {
+				throw new IllegalArgumentException("Tier start hours must ascend within a day: "
+						+ Arrays.toString(tierStartHours));
+			}
+			if (!(hourlyRates[tier] >= 0)) {
+				throw new IllegalArgumentException("Hourly rate must not be negative: " + hourlyRates[tier]);
+			}
+		}
+		if (!(dailyCap >= 0)) {
+			throw new IllegalArgumentException("Daily cap must not be negative: " + dailyCap);
+		}
+		this.tierStartHours = tierStartHours.clone();
+		this.hourlyRates = hourlyRates.clone();
+		this.dailyCap = dailyCap;
+
+		long capCents = dailyCap == 0 ? Long.MAX_VALUE : toCents(dailyCap);
+		double fee = 0;
+		int tier = 0;
+		for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+			if (tier + 1 < tierStartHours.length && tierStartHours[tier + 1] == hour) {
+				tier++;
+			}
+			fee += hourlyRates[tier];
+			dayFeeCents[hour + 1] = Math.min(toCents(fee), capCents);
+		}
+	}
+
+	/**
+	 * Creates a schedule charging the same rate for every hour, without a cap.
+	 * Its fees are those of {@link ParkingManager#calculateParkingFee} at the
+	 * same rate, rounded to the cent.
+	 *
+	 * @param hourlyRate The hourly rate.
+	 * @return The flat tariff.
+	 */
+	public static Tariff flat(double hourlyRate) {
+		return new Tariff(new int[] { 0 }, new double[] { hourlyRate }, 0);
+	}
+
+	/**
+	 * Creates a schedule charging the same rate for every hour, up to a cap per
+	 * day.
+	 *
+	 * @param hourlyRate The hourly rate.
+	 * @param dailyCap   The most one day of parking costs, or 0 for no cap.
+	 * @return The capped tariff.
+	 */
+	public static Tariff capped(double hourlyRate, double dailyCap) {
+		return new Tariff(new int[] { 0 }, new double[] { hourlyRate }, dailyCap);
+	}
+
+	/**
+	 * Calculates the fee of a stay of whole hours.
+	 *
+	 * @param hours The hours parked (0 or more).
+	 * @return The fee in cents.
+	 */
+	public long feeCents(long hours) {
+		return hours / HOURS_PER_DAY * dayFeeCents[HOURS_PER_DAY] + dayFeeCents[(int) (hours % HOURS_PER_DAY)];
+	}
+
+	/**
+	 * Calculates the fee of a stay of whole hours.
+	 *
+	 * @param hours The hours parked (0 or more).
+	 * @return The fee in euros.
+	 */
+	public double fee(long hours) {
+		return feeCents(hours) / 100.0;
+	}
+
+	/**
+	 * Counts the whole hours a car has been parked, as
+	 * {@code ChronoUnit.HOURS.between} does, from the epoch second of the
+	 * current time taken once for a whole lot. Entry times after that time
+	 * count as 0 hours.
+	 *
+	 * @param entryTime      The entry time of the car.
+	 * @param nowEpochSecond The current time in seconds since the epoch, read as
+	 *                       UTC like the entry time.
+	 * @param nowNano        The nanoseconds of the current time.
+	 * @return The hours parked.
+	 */
+	static long hoursParked(LocalDateTime entryTime, long nowEpochSecond, int nowNano) {
+		long seconds = nowEpochSecond - entryTime.toEpochSecond(ZoneOffset.UTC);
+		if (nowNano < entryTime.getNano()) {
+			seconds--; // The last second is not complete yet
+		}
+		return seconds <= 0 ? 0 : seconds / SECONDS_PER_HOUR;
+	}
+
+	/**
+	 * Rounds an amount in euros to cents.
+	 */
+	private static long toCents(double amount) {
+		return Math.round(amount * 100);
+	}
+
+	/**
+	 * Returns a string representation of the schedule.
+	 *
+	 * @return The rate of each tier and the daily cap.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int tier = 0; tier < tierStartHours.length; tier++) {
+			int end = tier + 1 < tierStartHours.length ? tierStartHours[tier + 1] : HOURS_PER_DAY;
+			text.append(tier == 0 ? "" : ", ").append("hours ").append(tierStartHours[tier]).append('-').append(end)
+					.append(": EUR ").append(hourlyRates[tier]).append("/h");
+		}
+		return text.append(dailyCap == 0 ? ", no daily cap" : ", daily cap EUR " + dailyCap).toString();
+	}
+}
@@ -0,0 +1,190 @@
+package com.parkinglot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Streams parking slot rows out of an Excel file with POI's XSSF event (SAX)
+ * reader. Unlike XSSFWorkbook, no cell objects are kept in memory: each row is
+ * handed to a {@link SlotRowHandler} as soon as it has been parsed, so apart
+ * from the shared strings table the memory used by the reader does not grow
+ * with the number of rows.
+ *
+ * The sheet layout is the one written by
+ * {@link ParkingManager#saveParkingSlotsToFile}: slot number, car license
+ * number, entry time, availability and reservation, with a header row.
+ */
+public class XlsxSlotReader {
+
+	/**
+	 * Reads the first sheet of an Excel file and passes every slot row to the
+	 * handler. Rows without a slot number are skipped.
+	 *
+	 * @param filePath The path to the Excel file.
+	 * @param handler  The handler receiving the slots.
+	 * @return The number of slots passed to the handler.
+	 * @throws IOException If the file cannot be read or is not a valid workbook.
+	 */
+	public static int read(String filePath, SlotRowHandler handler) throws IOException {
+		try (OPCPackage pkg = OPCPackage.open(new File(filePath), PackageAccess.READ)) {
+			XSSFReader reader = new XSSFReader(pkg);
+			RowCollector collector = new RowCollector(new ReadOnlySharedStringsTable(pkg), handler);
+			XMLReader parser = XMLHelper.newXMLReader();
+			parser.setContentHandler(collector);
+
+			Iterator<InputStream> sheets = reader.getSheetsData();
+			if (sheets.hasNext()) {
+				try (InputStream sheet = sheets.next()) {
+					parser.parse(new InputSource(sheet));
+				}
+			}
+			return collector.slots;
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("Cannot read parking slots from " + filePath, e);
+		}
+	}
+
+	/**
+	 * SAX handler that collects the raw cell values of the current row and
+	 * converts the row into a slot when it ends. Only the five values of the
+	 * current row are held; shared strings are resolved by index.
+	 */
+	private static class RowCollector extends DefaultHandler {
+
+		private final SharedStrings sharedStrings; // Strings referenced by "s" cells
+		private final SlotRowHandler handler; // Receiver of the converted slots
+		private final String[] values = new String[5]; // Cell values of the current row
+		private final StringBuilder text = new StringBuilder(); // Text of the current value
+		private boolean headerSeen; // Indicates if the header row was skipped
+		private int column; // Column of the current cell
+		private String cellType; // Type attribute of the current cell
+		private boolean inValue; // Indicates if a value element is being read
+		private int slots; // Number of slots passed to the handler
+
+		RowCollector(SharedStrings sharedStrings, SlotRowHandler handler) {
+			this.sharedStrings = sharedStrings;
+			this.handler = handler;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			switch (localName) {
+			case "row":
+				column = -1;
+				for (int i = 0; i < values.length; i++) {
+					values[i] = "";
+				}
+				break;
+			case "c":
+				String reference = attributes.getValue("r");
+				column = reference == null ? column + 1 : columnOf(reference);
+				cellType = attributes.getValue("t");
+				break;
+			case "v":
+			case "t":
+				inValue = true;
+				text.setLength(0);
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (inValue) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			switch (localName) {
+			case "v":
+			case "t":
+				inValue = false;
+				if (column >= 0 && column < values.length) {
+					values[column] = cellValue();
+				}
+				break;
+			case "row":
+				endRow();
+				break;
+			default:
+				break;
+			}
+		}
+
+		/**
+		 * Finds the column of a cell reference such as "B7" or "AA7", reading its
+		 * leading letters as a base-26 number (A = 0, Z = 25, AA = 26).
+		 */
+		static int columnOf(String reference) {
+			int column = 0;
+			for (int i = 0; i < reference.length(); i++) {
+				char letter = reference.charAt(i);
+				if (letter < 'A' || letter > 'Z') {
+					break;
+				}
+				column = column * 26 + (letter - 'A' + 1);
+			}
+			return column - 1;
+		}
+
+		/**
+		 * Converts the text of the current value element according to the cell type.
+		 */
+		private String cellValue() {
+			if ("s".equals(cellType)) {
+				return sharedStrings.getItemAt(Integer.parseInt(text.toString())).getString();
+			}
+			if ("b".equals(cellType)) {
+				return text.length() == 1 && text.charAt(0) == '1' ? "true" : "false";
+			}
+			return text.toString();
+		}
+
+		/**
+		 * Converts the collected row into a slot and passes it to the handler.
+		 */
+		private void endRow() {
+			if (!headerSeen) {
+				headerSeen = true;
+				return; // Skip header row
+			}
+			if (values[0].isEmpty())
+				return; // Skip invalid slot numbers
+
+			int slotNumber = (int) Double.parseDouble(values[0]);
+			String licenseNumber = values[1];
+			String entryTimeStr = values[2];
+			boolean availability = Boolean.parseBoolean(values[3]);
+			boolean reservations = Boolean.parseBoolean(values[4]);
+
+			LocalDateTime entryTime = entryTimeStr.isEmpty() ? null
+					: LocalDateTime.parse(entryTimeStr, ParkingManager.ENTRY_TIME_FORMAT);
+			Car car = licenseNumber.isEmpty() ? null : new Car(licenseNumber, entryTime);
+
+			handler.slot(slotNumber, car, availability, reservations);
+			slots++;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.parkinglot;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Writes parking slot rows to an Excel file with POI's SXSSF streaming
+ * workbook. Only a small window of rows is kept in memory; older rows are
+ * flushed to a temporary file, so the memory used does not grow with the number
+ * of slots. The layout matches {@link ParkingManager#saveParkingSlotsToFile}.
+ */
+public class XlsxSlotWriter implements Closeable {
+
+	private static final int ROW_WINDOW = 100; // Rows kept in memory before flushing
+
+	private final String filePath; // Path of the Excel file to write
+	private final SXSSFWorkbook workbook; // Streaming workbook being written
+	private final Sheet sheet; // Sheet receiving the slot rows
+	private int rowIndex; // Index of the next row
+
+	/**
+	 * Constructor to start a new parking slot sheet with its header row.
+	 *
+	 * @param filePath The path where the Excel file will be saved on close.
+	 */
+	public XlsxSlotWriter(String filePath) {
+		this.filePath = filePath;
+		this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+		this.sheet = workbook.createSheet("Parking Slots");
+
+		// Create header row
+		Row headerRow = sheet.createRow(0);
+		headerRow.createCell(0).setCellValue("Slot Number");
+		headerRow.createCell(1).setCellValue("Car License Number");
+		headerRow.createCell(2).setCellValue("Entry Time");
+		headerRow.createCell(3).setCellValue("Availability");
+		headerRow.createCell(4).setCellValue("Reservations");
+		this.rowIndex = 1;
+	}
+
+	/**
+	 * Appends a parking slot row.
+	 *
+	 * @param slotNumber    The slot number.
+	 * @param licenseNumber License number of the parked car ("" if none).
+	 * @param entryTime     Entry time of the parked car (null if none).
+	 * @param available     Indicates if the slot is available.
+	 * @param reserved      Indicates if the slot is reserved.
+	 */
+	public void writeSlot(int slotNumber, String licenseNumber, LocalDateTime entryTime, boolean available,
+			boolean reserved) {
+		Row row = sheet.createRow(rowIndex++);
+		row.createCell(0).setCellValue(slotNumber);
+		row.createCell(1).setCellValue(licenseNumber);
+		row.createCell(2).setCellValue(entryTime == null ? "" : ParkingManager.ENTRY_TIME_FORMAT.format(entryTime));
+		row.createCell(3).setCellValue(available);
+		row.createCell(4).setCellValue(reserved);
+	}
+
+	/**
+	 * Appends the row of a parking slot node.
+	 *
+	 * @param node The slot to write.
+	 */
+	public void writeSlot(AVLNode node) {
+		Car car = node.getCarDetails();
+		writeSlot(node.getSlotNumber(), car == null ? "" : car.getLicenseNumber(),
+				car == null ? null : car.getEntryTime(), node.isAvailable(), node.isReserved());
+	}
+
+	/**
+	 * Writes the workbook to the file and deletes its temporary files.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
+			workbook.write(fileOut);
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.parkinglot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentParkingManagerTest {
+
+	private static final int SLOTS = 100000;
+
+	// Stress test: gates park, free, reserve and read concurrently, then the
+	// counters must match a full recount and no slot may hold two cars
+	@Test
+	public void testConcurrentGatesStress() throws InterruptedException {
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(new ParkingManager(), newLot(SLOTS));
+		ConcurrentHashMap<Integer, String> parked = new ConcurrentHashMap<>();
+		AtomicInteger carNumber = new AtomicInteger();
+		AtomicInteger doubleParked = new AtomicInteger();
+		AtomicInteger inconsistentReads = new AtomicInteger();
+
+		runThreads(16, 20000, () -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int operation = random.nextInt(10);
+			if (operation < 3) {
+				String license = "CAR" + carNumber.incrementAndGet();
+				AVLNode slot = gates.parkCar(license);
+				if (slot != null && parked.putIfAbsent(slot.getSlotNumber(), license) != null) {
+					doubleParked.incrementAndGet();
+				}
+			} else if (operation < 5) {
+				Integer slotNumber = parked.keySet().stream().findAny().orElse(null);
+				if (slotNumber != null && parked.remove(slotNumber) != null) {
+					assertTrue(gates.freeSlot(slotNumber), "Parked slot could not be freed!");
+				}
+			} else if (operation < 6) {
+				gates.reserveSlot(random.nextInt(1, SLOTS + 1));
+			} else if (operation < 8) {
+				AVLNode slot = gates.search(random.nextInt(1, SLOTS + 1));
+				if (slot == null) {
+					inconsistentReads.incrementAndGet();
+				}
+			} else {
+				ParkingStatistics statistics = gates.getParkingStatistics();
+				if (statistics.getTotalSlots() != SLOTS || statistics.getOccupiedSlots()
+						+ statistics.getReservedSlots() + statistics.getAvailableSlots() != SLOTS) {
+					inconsistentReads.incrementAndGet();
+				}
+			}
+		});
+
+		assertEquals(0, doubleParked.get(), "A slot was assigned to two cars!");
+		assertEquals(0, inconsistentReads.get(), "A reader saw an inconsistent tree!");
+		ParkingStatistics statistics = gates.getParkingStatistics();
+		assertEquals(parked.size(), statistics.getOccupiedSlots(), "Occupied counter drifted from parked cars!");
+		for (int slotNumber : parked.keySet()) {
+			AVLNode slot = gates.search(slotNumber);
+			assertNotNull(slot.getCarDetails(), "Parked slot lost its car!");
+			assertEquals(parked.get(slotNumber), slot.getCarDetails().getLicenseNumber(), "Slot holds the wrong car!");
+		}
+	}
+
+	// Stress test: inserts with rotations run while readers search the tree
+	@Test
+	public void testConcurrentInsertsAndSearches() throws InterruptedException {
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(new ParkingManager(), newLot(SLOTS));
+		AtomicInteger nextSlot = new AtomicInteger(SLOTS);
+		AtomicInteger missing = new AtomicInteger();
+
+		runThreads(8, 20000, () -> {
+			if (ThreadLocalRandom.current().nextInt(4) == 0) {
+				gates.insertSlot(nextSlot.incrementAndGet());
+			} else if (gates.search(ThreadLocalRandom.current().nextInt(1, SLOTS + 1)) == null) {
+				missing.incrementAndGet();
+			}
+		});
+
+		assertEquals(0, missing.get(), "A search missed an existing slot during rotations!");
+		assertEquals(nextSlot.get(), gates.getParkingStatistics().getTotalSlots(), "Inserted slots were lost!");
+	}
+
+	/**
+	 * Builds an empty parking lot with slots 1 to the given count.
+	 */
+	private static AVLNode newLot(int slots) {
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			nodes.add(new AVLNode(i, null));
+		}
+		return new AVLTree().buildBalanced(nodes);
+	}
+
+	/**
+	 * Runs the operation the given number of times on each of several threads
+	 * started together, and fails if any thread threw.
+	 */
+	private static void runThreads(int threads, int operationsPerThread, Runnable operation)
+			throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		LongAdder failures = new LongAdder();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < operationsPerThread; i++) {
+						operation.run();
+					}
+				} catch (Throwable e) {
+					failures.increment();
+					e.printStackTrace();
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(0, failures.sum(), "A gate thread failed!");
+	}
+}
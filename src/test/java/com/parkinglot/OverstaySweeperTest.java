@@ -0,0 +1,160 @@
+package com.parkinglot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class OverstaySweeperTest {
+
+	private static final long MINUTE = 60000L;
+	private static final long HOUR = 60 * MINUTE;
+
+	// Cars are released once they stay beyond the limit of their slot class, never
+	// earlier, and cars that leave in time are not released
+	@Test
+	public void testDeadlinesPerSlotClass() {
+		ManualClock clock = new ManualClock();
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(new ParkingManager(), newLot(1000));
+		TreeMap<Integer, Integer> limits = new TreeMap<>();
+		limits.put(101, 2); // Slots 1-100 are not limited
+		limits.put(501, 8);
+		OverstaySweeper sweeper = new OverstaySweeper(gates, limits, 1000, clock);
+		gates.setParkingListener(sweeper);
+
+		for (int i = 1; i <= 1000; i++) {
+			gates.parkCar("CAR" + i);
+		}
+		for (int slotNumber = 101; slotNumber <= 110; slotNumber++) {
+			gates.freeSlot(slotNumber);
+		}
+		assertEquals(890, sweeper.getBacklog(), "Unlimited or departed cars were scheduled!");
+
+		clock.advance(2 * HOUR - MINUTE);
+		sweeper.tick();
+		assertEquals(0, sweeper.getReleasedCount(), "Cars were released before their deadline!");
+
+		clock.advance(3 * MINUTE); // Cars parked up to a minute after the clock started
+		sweeper.tick();
+		assertEquals(390, sweeper.getReleasedCount(), "Wrong number of 2 hour overstays released!");
+		assertTrue(gates.search(300).isAvailable(), "Overstaying car was not released!");
+		assertTrue(!gates.search(600).isAvailable(), "8 hour slot was released early!");
+
+		clock.advance(6 * HOUR);
+		sweeper.tick();
+		assertEquals(890, sweeper.getReleasedCount(), "Wrong number of 8 hour overstays released!");
+		assertEquals(0, sweeper.getBacklog(), "Deadlines left after every car was released!");
+		assertEquals(100, gates.getParkingStatistics().getOccupiedSlots(), "Unlimited slots were released!");
+	}
+
+	// Deadlines of 100k cars spread over two days: the wheel schedules and fires
+	// them one minute tick at a time, each within a tick of its deadline
+	@Test
+	public void testWheelDeadlines100K() {
+		ManualClock clock = new ManualClock();
+		LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), clock.getZone());
+		Random random = new Random(42);
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 100000; i++) {
+			slots.add(new AVLNode(i, new Car("CAR" + i, now.minusSeconds(random.nextInt(48 * 3600))), false, false));
+		}
+		new ParkingManager().saveSnapshot("target/sweeper_100k.snap", new AVLTree().buildBalanced(slots));
+		ParkingManager manager = new ParkingManager();
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(manager,
+				manager.loadSnapshot("target/sweeper_100k.snap", new AVLTree()));
+		TreeMap<Integer, Integer> limits = new TreeMap<>();
+		limits.put(1, 24);
+		OverstaySweeper sweeper = new OverstaySweeper(gates, limits, MINUTE, clock);
+
+		gates.setParkingListener(sweeper);
+		for (int minute = 0; minute <= 24 * 60; minute++) {
+			sweeper.tick();
+			clock.advance(MINUTE);
+		}
+
+		assertEquals(100000, sweeper.getReleasedCount(), "Not every overstaying car was released!");
+		assertEquals(0, sweeper.getBacklog(), "Deadlines left after every car was released!");
+		assertEquals(0, gates.getParkingStatistics().getOccupiedSlots(), "Cars left in the lot!");
+		assertTrue(sweeper.getMaxFiringLagMillis() <= MINUTE, "A deadline fired more than a tick late!");
+	}
+
+	// A tick that fails must be counted, and the following ticks must still
+	// release cars
+	@Test
+	public void testFailedTick() {
+		ManualClock clock = new ManualClock();
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(new ParkingManager(), newLot(10));
+		TreeMap<Integer, Integer> limits = new TreeMap<>();
+		limits.put(1, 1);
+		OverstaySweeper sweeper = new OverstaySweeper(gates, limits, 1000, clock);
+		gates.setParkingListener(sweeper);
+		gates.parkCar("CAR1");
+
+		clock.failing = true;
+		sweeper.tick();
+		assertEquals(1, sweeper.getFailedTicks(), "Failed tick was not counted!");
+		clock.failing = false;
+		clock.advance(HOUR + MINUTE);
+		sweeper.tick();
+		assertEquals(1, sweeper.getReleasedCount(), "Sweeper stopped releasing after a failed tick!");
+		assertEquals(1, sweeper.getFailedTicks(), "Successful tick was counted as failed!");
+	}
+
+	/**
+	 * Builds an empty parking lot with slots 1 to the given count.
+	 */
+	private static AVLNode newLot(int slots) {
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			nodes.add(new AVLNode(i, null));
+		}
+		return new AVLTree().buildBalanced(nodes);
+	}
+
+	/**
+	 * Clock in the system time zone that only moves when the test advances it,
+	 * starting at the current minute, as a started sweeper ticks on tick
+	 * boundaries.
+	 */
+	private static class ManualClock extends Clock {
+
+		private long millis = System.currentTimeMillis() / MINUTE * MINUTE;
+		private boolean failing; // Indicates if reading the clock throws
+
+		void advance(long duration) {
+			millis += duration;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.systemDefault();
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long millis() {
+			if (failing) {
+				throw new IllegalStateException("Clock failure");
+			}
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+	}
+}
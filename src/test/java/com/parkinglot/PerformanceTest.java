@@ -1,15 +1,51 @@
 package com.parkinglot;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.CRC32;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.helpers.NOPLogger;
 
 public class PerformanceTest {
 
@@ -91,6 +127,1403 @@ public class PerformanceTest {
 		}, "Finding the nearest available slot for 100K took too long!");
 	}
 
+	// Test the nearest available slot when only the last of 100k slots is free,
+	// and as single slots are freed and taken again
+	@Test
+	public void testNearestAvailableSlotNearlyFullLot100K() {
+		AVLNode root = null;
+		for (int i = 1; i <= 100000; i++) {
+			root = avlTree.insert(root, i, null);
+		}
+		for (int i = 1; i < 100000; i++) {
+			root = avlTree.updateAvailability(root, i, false);
+		}
+		assertEquals(100000, avlTree.findNearestAvailableSlot(root), "Wrong nearest slot in 100K!");
+		root = avlTree.updateAvailability(root, 50000, true);
+		assertEquals(50000, avlTree.findNearestAvailableSlot(root), "Freed slot not found in 100K!");
+		root = avlTree.updateAvailability(root, 2, true);
+		assertEquals(2, avlTree.findNearestAvailableSlot(root), "Lowest freed slot not preferred in 100K!");
+		root = avlTree.updateAvailability(root, 2, false);
+		root = avlTree.updateAvailability(root, 50000, false);
+		assertEquals(100000, avlTree.findNearestAvailableSlot(root), "Taken slot still found in 100K!");
+		root = avlTree.updateAvailability(root, 100000, false);
+		assertEquals(-1, avlTree.findNearestAvailableSlot(root), "Slot found in a full 100K lot!");
+	}
+
+	// Nearest free slot to a gate on a 100k lot that fills up: each answer must
+	// match a scan of the lot
+	@Test
+	public void testNearestAvailableSlotToTarget100K() {
+		int slots = 100000;
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			nodes.add(new AVLNode(i * 2, null, true, false)); // Even slot numbers leave gaps between slots
+		}
+		AVLNode root = avlTree.buildBalanced(nodes);
+		boolean[] free = new boolean[slots * 2 + 2];
+		for (int i = 1; i <= slots; i++) {
+			free[i * 2] = true;
+		}
+		Random random = new Random(15);
+		for (int step = 0; step < 2000; step++) {
+			for (int i = 0; i < 49; i++) {
+				int slotNumber = (random.nextInt(slots) + 1) * 2;
+				root = avlTree.updateAvailability(root, slotNumber, false);
+				free[slotNumber] = false;
+			}
+			int target = random.nextInt(slots * 2 + 20) - 10;
+			assertEquals(scanNearest(free, target), avlTree.findNearestAvailableSlot(root, target),
+					"Wrong nearest slot to " + target + "!");
+		}
+
+		AVLNode lot = root;
+		ParkingManager gateManager = new ParkingManager();
+		int target = avlTree.findNearestAvailableSlot(root, slots);
+		quietly(() -> {
+			assertEquals(target, gateManager.parkCarNear(lot, "GATE1", slots).getSlotNumber(),
+					"Car not parked near its gate!");
+			assertNull(gateManager.parkCarNear(lot, "GATE1", 2), "Parked car was parked again!");
+		});
+		assertTrue(avlTree.findNearestAvailableSlot(root, slots) != target, "Slot near the gate still available!");
+	}
+
+	/**
+	 * Finds the free slot closest to a target by scanning outwards, preferring
+	 * the lower slot on ties.
+	 */
+	private static int scanNearest(boolean[] free, int target) {
+		for (int distance = 0; distance < free.length + Math.abs(target); distance++) {
+			int below = target - distance;
+			int above = target + distance;
+			if (below >= 0 && below < free.length && free[below]) {
+				return below;
+			}
+			if (above >= 0 && above < free.length && free[above]) {
+				return above;
+			}
+		}
+		return -1;
+	}
+
+	// Per-zone counts and free slot listings on a 100k lot split into floors of
+	// 5000 slots must match a scan of the lot
+	@Test
+	public void testZoneQueries100K() {
+		Random random = new Random(16);
+		List<AVLNode> nodes = new ArrayList<>(100000);
+		for (int i = 1; i <= 100000; i++) {
+			boolean occupied = random.nextInt(10) < 9;
+			nodes.add(new AVLNode(i, occupied ? new Car("CAR" + i, LocalDateTime.now()) : null, !occupied,
+					!occupied && random.nextInt(4) == 0));
+		}
+		AVLNode root = avlTree.buildBalanced(nodes);
+		List<ParkingZone> floors = new ArrayList<>();
+		for (int floor = 0; floor < 20; floor++) {
+			floors.add(new ParkingZone("Level " + (floor + 1), floor * 5000 + 1, floor * 5000 + 5000));
+		}
+
+		for (ParkingZone floor : floors) {
+			int total = 0;
+			int occupied = 0;
+			int reserved = 0;
+			List<Integer> free = new ArrayList<>();
+			for (AVLNode node : nodes) {
+				if (floor.contains(node.getSlotNumber())) {
+					total++;
+					if (!node.isAvailable()) {
+						occupied++;
+					} else {
+						free.add(node.getSlotNumber());
+						reserved += node.isReserved() ? 1 : 0;
+					}
+				}
+			}
+			assertEquals(new ParkingStatistics(total, occupied, reserved).toString(),
+					manager.getZoneStatistics(root, floor).toString(), "Wrong statistics for " + floor + "!");
+			assertEquals(free, manager.findAvailableSlots(root, floor), "Wrong free slots for " + floor + "!");
+			List<Integer> visited = new ArrayList<>();
+			avlTree.forEachInRange(root, floor.getFirstSlot(), floor.getLastSlot(),
+					slot -> visited.add(slot.getSlotNumber()));
+			assertEquals(5000, visited.size(), "Wrong slots visited for " + floor + "!");
+		}
+		assertEquals(0, avlTree.countRange(root, 200000, 300000).getTotalSlots(), "Slots counted outside the lot!");
+		assertEquals(100000, avlTree.countRange(root, Integer.MIN_VALUE, Integer.MAX_VALUE).getTotalSlots(),
+				"Not all slots counted!");
+	}
+
+	// Batch reserve, free and park on 100k slots must leave the lot exactly as
+	// the single operations do
+	@Test
+	public void testBatchOperations100K() {
+		Random random = new Random(18);
+		int[] slotNumbers = new int[50000];
+		for (int i = 0; i < slotNumbers.length; i++) {
+			slotNumbers[i] = random.nextInt(100100); // Some slots twice, some missing
+		}
+		slotNumbers[0] = 100050;
+		slotNumbers[1] = 2;
+		List<String> cars = new ArrayList<>();
+		for (int i = 0; i < 60000; i++) {
+			cars.add("BATCH" + random.nextInt(70000)); // Some plates twice
+		}
+
+		ParkingManager singleManager = new ParkingManager();
+		AVLNode singleLot = halfOccupiedLot(singleManager);
+		ParkingManager batchManager = new ParkingManager();
+		AVLNode batchLot = halfOccupiedLot(batchManager);
+
+		SlotOutcome[][] outcomes = new SlotOutcome[2][];
+		int[][] parked = new int[1][];
+		quietly(() -> {
+			for (int slotNumber : slotNumbers) {
+				singleManager.holdSlot(singleLot, slotNumber);
+			}
+			for (int slotNumber : slotNumbers) {
+				singleManager.vacateSlot(singleLot, slotNumber);
+			}
+			for (String car : cars) {
+				singleManager.parkCar(singleLot, car);
+			}
+		});
+		quietly(() -> {
+			outcomes[0] = batchManager.reserveSlots(batchLot, slotNumbers);
+			outcomes[1] = batchManager.freeSlots(batchLot, slotNumbers);
+			parked[0] = batchManager.parkCars(batchLot, cars);
+		});
+
+		assertEquals(dumpLot(singleLot), dumpLot(batchLot), "Batches left the lot in a different state!");
+		assertEquals(manager.getParkingStatistics(singleLot).toString(),
+				manager.getParkingStatistics(batchLot).toString(), "Batches left different counters!");
+		for (String car : cars) {
+			AVLNode single = singleManager.findSlotByPlate(car);
+			AVLNode batch = batchManager.findSlotByPlate(car);
+			assertEquals(single == null ? -1 : single.getSlotNumber(), batch == null ? -1 : batch.getSlotNumber(),
+					"Car " + car + " parked in a different slot!");
+		}
+		assertEquals(SlotOutcome.NOT_FOUND, outcomes[0][0], "Missing slot reserved!");
+		assertEquals(SlotOutcome.OCCUPIED, outcomes[0][1], "Occupied slot reserved!");
+		assertEquals(SlotOutcome.FREED, outcomes[1][1], "Occupied slot not freed!");
+		assertTrue(parked[0][0] > 0, "First car not parked!");
+	}
+
+	/**
+	 * Builds a lot of 100k slots where every even slot holds a car, indexed by
+	 * the given manager.
+	 */
+	private static AVLNode halfOccupiedLot(ParkingManager parkingManager) {
+		List<AVLNode> nodes = new ArrayList<>(100000);
+		for (int i = 1; i <= 100000; i++) {
+			boolean occupied = i % 2 == 0;
+			nodes.add(new AVLNode(i, occupied ? new Car("CAR" + i, LocalDateTime.now()) : null, !occupied, false));
+		}
+		AVLNode root = avlTree.buildBalanced(nodes);
+		parkingManager.indexParkedCars(root);
+		return root;
+	}
+
+	/**
+	 * Renders the status and plate of every slot of a lot, in order.
+	 */
+	private static String dumpLot(AVLNode root) {
+		StringBuilder slots = new StringBuilder();
+		avlTree.forEachInRange(root, Integer.MIN_VALUE, Integer.MAX_VALUE, slot -> slots.append(slot.getSlotNumber())
+				.append(' ').append(slot.isAvailable()).append(' ').append(slot.isReserved()).append(' ')
+				.append(slot.getCarDetails() == null ? null : slot.getCarDetails().getLicenseNumber()).append('\n'));
+		return slots.toString();
+	}
+
+	/**
+	 * Renders every column of the slots of a lot as saved to a file, in order.
+	 */
+	private static String dumpRows(AVLNode root) {
+		StringBuilder rows = new StringBuilder();
+		avlTree.forEachInRange(root, Integer.MIN_VALUE, Integer.MAX_VALUE, slot -> {
+			Car car = slot.getCarDetails();
+			rows.append(slot.getSlotNumber()).append(' ').append(slot.isAvailable()).append(' ')
+					.append(slot.isReserved()).append(' ').append(car == null ? null : car.getLicenseNumber())
+					.append(' ').append(car == null ? null : car.getEntryTime()).append('\n');
+		});
+		return rows.toString();
+	}
+
+	// Paged status and availability reports on the 100k dataset: the reports
+	// of a small lot must read as expected, the pages together must equal the
+	// full reports, and a filtered page must start at its first slot
+	@Test
+	public void testPagedRendering100K() {
+		AVLNode small = avlTree.buildBalanced(List.of(new AVLNode(1, null),
+				new AVLNode(2, new Car("AB-123", LocalDateTime.of(2025, 3, 17, 8, 0)), false, false),
+				new AVLNode(3, null, true, true), new AVLNode(4, null)));
+		List<String> status = List.of("Slot Number: 1 | Status: Available",
+				"Slot Number: 2 | Status: Occupied | Car: AB-123 | Entry Time: 2025-03-17T08:00",
+				"Slot Number: 3 | Status: Reserved", "Slot Number: 4 | Status: Available");
+		List<String> lists = List.of("", "Available Slots: [1, 4]", "Occupied Slots: [2]", "Reserved Slots: [3]");
+		assertEquals(status, captured(() -> manager.displayParkingStatus(small)).lines().toList(),
+				"Wrong status report!");
+		assertEquals(status, captured(() -> avlTree.printParkingStatus(small)).lines().toList(),
+				"Wrong status report from the tree!");
+		assertEquals(lists, captured(() -> manager.displaySlots(small)).lines().toList(),
+				"Wrong availability report!");
+		assertEquals(lists, captured(() -> avlTree.displaySlots(small)).lines().toList(),
+				"Wrong availability report from the tree!");
+
+		String fullStatus = captured(() -> manager.displayParkingStatus(root_100k));
+
+		StringBuilder paged = new StringBuilder();
+		int[] cursor = { Integer.MIN_VALUE };
+		int pages = 0;
+		while (cursor[0] != -1) {
+			paged.append(captured(() -> cursor[0] = manager.displayParkingStatus(root_100k, cursor[0], 500, null)));
+			pages++;
+		}
+		assertEquals(fullStatus, paged.toString(), "Pages do not add up to the status report!");
+		assertEquals((manager.getParkingStatistics(root_100k).getTotalSlots() + 499) / 500, pages, "Wrong page count!");
+
+		List<String> occupied = fullStatus.lines().filter(line -> line.contains("Status: Occupied")).limit(100)
+				.toList();
+		String firstOccupied = captured(
+				() -> manager.displayParkingStatus(root_100k, Integer.MIN_VALUE, 100, SlotStatus.OCCUPIED));
+		assertEquals(occupied, firstOccupied.lines().toList(),
+				"Filtered page differs from the occupied slots of the report!");
+
+		// A filtered page starting halfway through the available slots
+		List<String> available = fullStatus.lines().filter(line -> line.contains("Status: Available")).toList();
+		int half = available.size() / 2;
+		String halfway = available.get(half);
+		int fromSlot = Integer.parseInt(halfway.substring("Slot Number: ".length(), halfway.indexOf(" | ")));
+		String availablePage = captured(
+				() -> manager.displayParkingStatus(root_100k, fromSlot, 500, SlotStatus.AVAILABLE));
+		assertEquals(available.subList(half, Math.min(half + 500, available.size())),
+				availablePage.lines().toList(), "Filtered page from slot " + fromSlot
+						+ " differs from the available slots of the report!");
+	}
+
+	// Test that the slot iterator and spliterator walk every slot in order, and
+	// that splits are disjoint, cover the lot and have exact sizes
+	@Test
+	public void testSlotStreams100K() {
+		List<Integer> inOrder = new ArrayList<>();
+		avlTree.iterator(root_100k).forEachRemaining(slot -> inOrder.add(slot.getSlotNumber()));
+		int totalSlots = manager.getParkingStatistics(root_100k).getTotalSlots();
+		assertEquals(totalSlots, inOrder.size(), "Iterator missed slots!");
+		for (int i = 1; i < inOrder.size(); i++) {
+			assertTrue(inOrder.get(i - 1) < inOrder.get(i), "Iterator out of order!");
+		}
+		assertEquals(inOrder, avlTree.stream(root_100k).map(AVLNode::getSlotNumber).toList(), "Stream differs!");
+		assertEquals(inOrder, avlTree.parallelStream(root_100k).map(AVLNode::getSlotNumber).toList(),
+				"Parallel stream lost the slot order!");
+
+		// Split down to leaves of at most 1000 slots and check each piece
+		List<Spliterator<AVLNode>> pieces = new ArrayList<>();
+		Deque<Spliterator<AVLNode>> pending = new ArrayDeque<>();
+		pending.push(avlTree.stream(root_100k).spliterator());
+		while (!pending.isEmpty()) {
+			Spliterator<AVLNode> piece = pending.pop();
+			Spliterator<AVLNode> prefix = piece.estimateSize() > 1000 ? piece.trySplit() : null;
+			if (prefix == null) {
+				pieces.add(piece);
+			} else {
+				pending.push(piece);
+				pending.push(prefix);
+			}
+		}
+		List<Integer> joined = new ArrayList<>();
+		for (Spliterator<AVLNode> piece : pieces) {
+			long size = piece.estimateSize();
+			int before = joined.size();
+			piece.forEachRemaining(slot -> joined.add(slot.getSlotNumber()));
+			assertEquals(size, joined.size() - before, "Inexact split size!");
+			assertEquals(0, piece.estimateSize(), "Size left after the split was consumed!");
+		}
+		assertEquals(inOrder, joined, "Splits overlap or leave slots out!");
+		assertTrue(pieces.size() > totalSlots / 1000, "Tree was not split into subtrees!");
+
+		assertEquals(manager.getParkingStatistics(root_100k).toString(),
+				manager.recountParkingStatistics(root_100k).toString(), "Recount differs from the counters!");
+	}
+
+	// Test the revenue report of 100k slots, sequential and on a parallel stream
+	@Test
+	public void testParallelRevenue100K() {
+		LocalDateTime now = LocalDateTime.now();
+		List<AVLNode> slots = new ArrayList<>(100000);
+		long hours = 0;
+		for (int i = 1; i <= 100000; i++) {
+			boolean occupied = i % 3 == 0;
+			if (occupied) {
+				hours += i % 48;
+			}
+			slots.add(new AVLNode(i, occupied ? new Car("CAR" + i, now.minusHours(i % 48)) : null, !occupied, false));
+		}
+		AVLNode root = avlTree.buildBalanced(slots);
+		ParkingManager parkingManager = new ParkingManager();
+		assertEquals(hours * 2.5, parkingManager.calculateRevenue(root, 2.5, now), "Wrong revenue!");
+		long sequentialHours = avlTree.stream(root).filter(slot -> !slot.isAvailable())
+				.mapToLong(slot -> ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), now)).sum();
+		assertEquals(hours, sequentialHours, "Wrong sequential hours!");
+	}
+
+	// Test tiered and capped tariffs on 100k occupied slots against a fee
+	// calculated hour by hour
+	@Test
+	public void testTariffRevenue100K() {
+		LocalDateTime now = LocalDateTime.of(2024, 6, 1, 23, 59, 30, 500);
+		DatasetGenerator generator = new DatasetGenerator(25);
+		generator.setOccupancy(1);
+		generator.setEntryTimes(now, Duration.ofHours(30), DatasetGenerator.StayDistribution.EXPONENTIAL);
+		List<AVLNode> slots = new ArrayList<>(100000);
+		generator.generate(100000, (slotNumber, car, available, reserved) -> slots
+				.add(new AVLNode(slotNumber, car, available, reserved)));
+		AVLNode root = avlTree.buildBalanced(slots);
+		ParkingManager parkingManager = new ParkingManager();
+
+		// First hour 3.00, next two 2.50, then 1.50, at most 20.00 a day
+		double[] rateOfHour = new double[Tariff.HOURS_PER_DAY];
+		for (int hour = 0; hour < rateOfHour.length; hour++) {
+			rateOfHour[hour] = hour < 1 ? 3.0 : hour < 3 ? 2.5 : 1.5;
+		}
+		Tariff tariff = new Tariff(new int[] { 0, 1, 3 }, new double[] { 3.0, 2.5, 1.5 }, 20);
+		long hours = 0;
+		long cents = 0;
+		for (AVLNode slot : slots) {
+			long parked = ChronoUnit.HOURS.between(slot.getCarDetails().getEntryTime(), now);
+			hours += parked;
+			for (long day = 0; day * Tariff.HOURS_PER_DAY < parked; day++) {
+				long dayCents = 0;
+				for (int hour = 0; hour < Math.min(Tariff.HOURS_PER_DAY, parked - day * Tariff.HOURS_PER_DAY); hour++) {
+					dayCents += Math.round(rateOfHour[hour] * 100);
+				}
+				cents += Math.min(dayCents, 2000);
+			}
+		}
+
+		RevenueReport report = parkingManager.calculateRevenue(root, tariff, now);
+		assertEquals(100000, report.getParkedCars(), "Cars not all billed!");
+		assertEquals(hours, report.getHoursParked(), "Hours differ from ChronoUnit!");
+		assertEquals(cents, report.getRevenueCents(), "Wrong tiered revenue!");
+		assertEquals(hours * 2.5, parkingManager.calculateRevenue(root, Tariff.flat(2.5), now).getRevenue(),
+				"Flat tariff differs from hours times rate!");
+
+		// Hours are whole and cut at the nanosecond, as ChronoUnit counts them
+		LocalDateTime entry = now.minusHours(2).plusNanos(1);
+		assertEquals(ChronoUnit.HOURS.between(entry, now),
+				Tariff.hoursParked(entry, now.toEpochSecond(ZoneOffset.UTC), now.getNano()),
+				"Hour boundary counted differently!");
+		assertEquals(0, Tariff.hoursParked(now.plusHours(1), now.toEpochSecond(ZoneOffset.UTC), 0),
+				"Future entry billed!");
+		assertEquals(2000 + 300 + 250, tariff.feeCents(26), "Second day not billed from the first tier!");
+		assertThrows(IllegalArgumentException.class, () -> new Tariff(new int[] { 1 }, new double[] { 1 }, 0));
+		assertThrows(IllegalArgumentException.class, () -> Tariff.capped(1, -1));
+	}
+
+	// The fee of one slot must be its share of the revenue of the lot under the
+	// same tariff, and revenue at a flat rate must stay hours times the rate for
+	// rates in fractions of a cent
+	@Test
+	public void testTariffMatchesSlotFees() {
+		LocalDateTime now = LocalDateTime.now();
+		List<AVLNode> slots = new ArrayList<>();
+		long hours = 0;
+		for (int i = 1; i <= 60; i++) {
+			boolean occupied = i % 2 == 0;
+			if (occupied) {
+				hours += i;
+			}
+			slots.add(new AVLNode(i, occupied ? new Car("FEE" + i, now.minusHours(i).minusMinutes(30)) : null,
+					!occupied, false));
+		}
+		AVLNode root = avlTree.buildBalanced(slots);
+		ParkingManager parkingManager = new ParkingManager();
+		Tariff tariff = Tariff.capped(1.25, 20);
+
+		double fees = 0;
+		for (int i = 1; i <= 60; i++) {
+			fees += parkingManager.calculateParkingFee(root, i, tariff);
+		}
+		RevenueReport report = parkingManager.calculateRevenue(root, tariff, now);
+		assertEquals(report.getRevenueCents(), Math.round(fees * 100), "Slot fees do not add up to the revenue!");
+		assertEquals(20.0, parkingManager.calculateParkingFee(root, 20, tariff), "Daily cap not applied to a slot!");
+		assertEquals(40.0 + 10 * 1.25, parkingManager.calculateParkingFee(root, 58, tariff),
+				"Second day not capped for a slot!");
+		assertEquals(20 * 1.25, parkingManager.calculateParkingFee(root, 20, 1.25), "Hourly fee changed!");
+
+		assertEquals(hours * 0.125, parkingManager.calculateRevenue(root, 0.125, now),
+				"Revenue at a sub-cent rate differs from hours times rate!");
+		assertEquals(63, Tariff.flat(0.125).feeCents(5), "Flat fee not rounded once to the cent!");
+		assertEquals(300 + 63, Tariff.flat(0.125).feeCents(29), "Flat fee not rounded once per day!");
+	}
+
+	/**
+	 * Runs the task and returns what it printed to the console.
+	 */
+	private static String captured(Runnable task) {
+		PrintStream console = System.out;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(output));
+		try {
+			task.run();
+		} finally {
+			System.out.flush();
+			System.setOut(console);
+		}
+		return output.toString();
+	}
+
+	// Test that the statistics of 100k slots are served from counters that stay
+	// equal to a recount of the lot as slots change
+	@Test
+	public void testStatisticsPolling100K() {
+		AVLNode root = null;
+		for (int i = 1; i <= 100000; i++) {
+			root = avlTree.insert(root, i, null);
+		}
+		for (int i = 1; i <= 100000; i += 2) {
+			root = avlTree.updateAvailability(root, i, false);
+		}
+		for (int i = 2; i <= 100000; i += 10) {
+			root = manager.reserveSlot(root, i);
+		}
+		ParkingStatistics statistics = manager.getParkingStatistics(root);
+		assertEquals(100000, statistics.getTotalSlots(), "Wrong total slot count!");
+		assertEquals(50000, statistics.getOccupiedSlots(), "Wrong occupied slot count!");
+		assertEquals(10000, statistics.getReservedSlots(), "Wrong reserved slot count!");
+		assertEquals(40000, statistics.getAvailableSlots(), "Wrong available slot count!");
+		assertEquals(manager.recountParkingStatistics(root).toString(), statistics.toString(),
+				"Counters differ from a recount!");
+
+		for (int i = 1; i <= 100000; i += 4) {
+			root = avlTree.updateAvailability(root, i, true);
+		}
+		root = avlTree.insert(root, 100001, null);
+		statistics = manager.getParkingStatistics(root);
+		assertEquals(100001, statistics.getTotalSlots(), "Inserted slot not counted!");
+		assertEquals(25000, statistics.getOccupiedSlots(), "Freed slots not counted!");
+		assertEquals(manager.recountParkingStatistics(root).toString(), statistics.toString(),
+				"Counters drifted from a recount!");
+	}
+
+	// The single-descent park/free sequence must fill the same slots as the
+	// three-descent one on the 100k dataset and restore the lot
+	@Test
+	public void testSingleDescentParkAndFree100K() {
+		AVLNode root = manager.loadParkingSlotsFromFile(FILE_PATH_100K, new AVLTree());
+		String before = manager.getParkingStatistics(root).toString();
+		int cars = manager.getParkingStatistics(root).getAvailableSlots();
+		int[] threeDescents = new int[cars];
+		int[] singleDescent = new int[cars];
+
+		for (int i = 0; i < cars; i++) {
+			int slotNumber = avlTree.findNearestAvailableSlot(root);
+			root = avlTree.updateAvailability(root, slotNumber, false);
+			avlTree.search(root, slotNumber).setCarDetails(new Car("CAR" + i, LocalDateTime.now()));
+			threeDescents[i] = slotNumber;
+		}
+		assertEquals(-1, avlTree.findNearestAvailableSlot(root), "Free slot left after three descents!");
+		for (int i = 0; i < cars; i++) {
+			avlTree.search(root, threeDescents[i]).setCarDetails(null);
+			root = avlTree.updateAvailability(root, threeDescents[i], true);
+		}
+		assertEquals(before, manager.getParkingStatistics(root).toString(), "Lot not restored after three descents!");
+
+		for (int i = 0; i < cars; i++) {
+			SlotPath path = avlTree.findNearestAvailablePath(root);
+			AVLNode slot = path.getSlot();
+			slot.setCarDetails(new Car("CAR" + i, LocalDateTime.now()));
+			slot.setAvailable(false);
+			path.refreshCounts();
+			singleDescent[i] = slot.getSlotNumber();
+		}
+		assertEquals(-1, avlTree.findNearestAvailableSlot(root), "Free slot left after single descents!");
+		assertEquals(manager.recountParkingStatistics(root).toString(), manager.getParkingStatistics(root).toString(),
+				"Single descents left stale counts!");
+		for (int i = 0; i < cars; i++) {
+			SlotPath path = avlTree.findPath(root, singleDescent[i]);
+			path.getSlot().setCarDetails(null);
+			path.getSlot().setAvailable(true);
+			path.refreshCounts();
+		}
+
+		assertArrayEquals(threeDescents, singleDescent, "Single descent chose different slots!");
+		assertEquals(before, manager.getParkingStatistics(root).toString(), "Lot not restored after single descents!");
+	}
+
+	// Find-my-car and exit by plate on a full 100k lot: the plate index must
+	// find every car and reject cars that are already parked
+	@Test
+	public void testPlateLookupPerformance100K() {
+		ParkingManager gates = new ParkingManager();
+		AVLNode[] lot = { gates.loadParkingSlotsFromFile(FILE_PATH_100K, new AVLTree()) };
+		String before = gates.getParkingStatistics(lot[0]).toString();
+		int cars = gates.getParkingStatistics(lot[0]).getAvailableSlots();
+		quietly(() -> {
+			for (int i = 0; i < cars; i++) {
+				gates.parkCar(lot[0], "CAR" + i);
+			}
+		});
+
+		for (int i = 0; i < cars; i++) {
+			AVLNode slot = gates.findSlotByPlate("CAR" + i);
+			assertEquals("CAR" + i, slot.getCarDetails().getLicenseNumber(), "Plate index returned the wrong slot!");
+		}
+
+		quietly(() -> assertNull(gates.parkCar(lot[0], "CAR0"), "Duplicate plate was parked twice!"));
+		assertEquals(cars, gates.getParkingStatistics(lot[0]).getOccupiedSlots(), "Duplicate plate took a slot!");
+
+		quietly(() -> {
+			for (int i = 0; i < cars; i++) {
+				lot[0] = gates.freeByPlate(lot[0], "CAR" + i);
+			}
+		});
+		assertNull(gates.findSlotByPlate("CAR0"), "Freed car is still indexed!");
+		assertEquals(before, gates.getParkingStatistics(lot[0]).toString(), "Lot not restored after the exits!");
+	}
+
+	// One manager serving two lots must index each car in the lot it is parked
+	// in, and a lookup must leave the index untouched
+	@Test
+	public void testPlateIndexPerLot() {
+		ParkingManager gates = new ParkingManager();
+		List<AVLNode> slotsA = new ArrayList<>();
+		List<AVLNode> slotsB = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slotsA.add(new AVLNode(i, null));
+			slotsB.add(new AVLNode(i, null));
+		}
+		AVLNode lotA = avlTree.buildBalanced(slotsA);
+		AVLNode lotB = avlTree.buildBalanced(slotsB);
+
+		assertEquals(1, gates.parkCar(lotA, "TWIN").getSlotNumber(), "Car not parked in lot A!");
+		assertNotNull(gates.parkCar(lotB, "TWIN"), "Car parked in lot A was refused by lot B!");
+		assertNull(gates.parkCar(lotB, "TWIN"), "Car parked twice in lot B!");
+		gates.freeByPlate(lotA, "TWIN");
+		assertTrue(avlTree.search(lotA, 1).isAvailable(), "Exit by plate did not free the slot in lot A!");
+		assertEquals(1, gates.getParkingStatistics(lotB).getOccupiedSlots(), "Exit by plate freed lot B!");
+		gates.freeByPlate(lotB, "TWIN");
+		assertEquals(0, gates.getParkingStatistics(lotB).getOccupiedSlots(), "Car still parked in lot B!");
+
+		// A slot emptied outside the manager is not found, and the lookup keeps the entry
+		AVLNode slot = gates.parkCar(lotA, "GONE");
+		slot.setAvailable(true);
+		slot.setCarDetails(null);
+		assertNull(gates.findSlotByPlate("GONE"), "Stale index entry was returned!");
+		slot.setAvailable(false);
+		slot.setCarDetails(new Car("GONE", LocalDateTime.now()));
+		assertEquals(slot, gates.findSlotByPlate("GONE"), "Lookup modified the index!");
+	}
+
+	// Overstay sweep on a full 100k lot where only 100 cars have overstayed: the
+	// entry time index must release the same cars as a scan of every slot
+	@Test
+	public void testReleaseOldCarsSweep100K() {
+		List<AVLNode> slots = new ArrayList<>();
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 1; i <= 100000; i++) {
+			LocalDateTime entryTime = i % 1000 == 0 ? now.minusHours(48) : now.minusMinutes(i % 600);
+			slots.add(new AVLNode(i, new Car("CAR" + i, entryTime), false, false));
+		}
+		manager.saveSnapshot("target/overstay_100k.snap", avlTree.buildBalanced(slots));
+
+		ParkingManager gates = new ParkingManager();
+		AVLNode indexed = gates.loadSnapshot("target/overstay_100k.snap", new AVLTree());
+		AVLNode scanned = manager.loadSnapshot("target/overstay_100k.snap", new AVLTree());
+		quietly(() -> avlTree.releaseOldCars(scanned, 24));
+		quietly(() -> gates.releaseOldCars(indexed, 24));
+
+		assertEquals(dumpLot(scanned), dumpLot(indexed), "Sweep released different cars than the scan!");
+		assertEquals(99900, manager.getParkingStatistics(indexed).getOccupiedSlots(), "Wrong number of cars released!");
+		assertNull(gates.findSlotByPlate("CAR1000"), "Released car is still indexed!");
+	}
+
+	// The streaming loader must read the 100k dataset row for row as the workbook
+	// loader does
+	@Test
+	public void testStreamingLoaderPerformance100K() {
+		AVLNode workbook = manager.loadParkingSlotsFromFile(FILE_PATH_100K, new AVLTree());
+		AVLNode streaming = manager.loadParkingSlotsStreaming(FILE_PATH_100K, new AVLTree());
+		assertEquals(100000, manager.getParkingStatistics(streaming).getTotalSlots(),
+				"Streaming loader missed rows of the 100K dataset!");
+		assertEquals(dumpRows(workbook), dumpRows(streaming), "Loaders disagree on the 100K dataset!");
+	}
+
+	// The streaming loader must read cells past column Z by their full reference
+	// and keep them out of the slot fields
+	@Test
+	public void testStreamingLoaderWideSheet() throws IOException {
+		String filePath = "target/wide_sheet.xlsx";
+		try (XSSFWorkbook workbook = new XSSFWorkbook();
+				FileOutputStream out = new FileOutputStream(filePath)) {
+			Sheet sheet = workbook.createSheet("Parking Slots");
+			String[] header = { "Slot Number", "Car License Number", "Entry Time", "Availability", "Reservations" };
+			Row headerRow = sheet.createRow(0);
+			for (int column = 0; column < header.length; column++) {
+				headerRow.createCell(column).setCellValue(header[column]);
+			}
+			Row row = sheet.createRow(1);
+			row.createCell(0).setCellValue(7);
+			row.createCell(1).setCellValue("WIDE1");
+			row.createCell(2).setCellValue("2025-03-17 08:00");
+			row.createCell(3).setCellValue(false);
+			row.createCell(4).setCellValue(false);
+			row.createCell(26).setCellValue(99); // AA, read as A before
+			row.createCell(27).setCellValue("STRAY"); // AB, read as B before
+			workbook.write(out);
+		}
+
+		AVLNode root = manager.loadParkingSlotsStreaming(filePath, new AVLTree());
+		AVLNode slot = avlTree.search(root, 7);
+		assertNotNull(slot, "Slot number overwritten by column AA!");
+		assertEquals("WIDE1", slot.getCarDetails().getLicenseNumber(), "License overwritten by column AB!");
+		assertNull(avlTree.search(root, 99), "Column AA read as a slot number!");
+	}
+
+	// The workbook and streaming writers must save the same 100k lot, and the
+	// streaming writer's file must load back row for row
+	@Test
+	public void testStreamingSavePerformance100K() {
+		List<AVLNode> slots = new ArrayList<>();
+		LocalDateTime entryTime = LocalDateTime.of(2025, 3, 17, 8, 0);
+		for (int i = 1; i <= 100000; i++) {
+			boolean occupied = i % 2 == 0;
+			slots.add(new AVLNode(i, occupied ? new Car("CAR" + i, entryTime.plusMinutes(i)) : null, !occupied,
+					i % 10 == 1));
+		}
+		AVLNode root = avlTree.buildBalanced(slots);
+
+		manager.saveParkingSlotsToFile("target/save_workbook_100k.xlsx", root);
+		manager.saveParkingSlotsStreaming("target/save_streaming_100k.xlsx", root);
+		AVLNode reloaded = manager.loadParkingSlotsStreaming("target/save_streaming_100k.xlsx", new AVLTree());
+		assertEquals(dumpRows(root), dumpRows(reloaded), "Streaming save did not round-trip!");
+		assertEquals(dumpRows(root),
+				dumpRows(manager.loadParkingSlotsStreaming("target/save_workbook_100k.xlsx", new AVLTree())),
+				"Workbook save did not round-trip!");
+	}
+
+	// Snapshots must round-trip the 100k dataset and a 1M lot, keep entry times
+	// to the nanosecond, read version 1 files and reject corrupt ones
+	@Test
+	public void testSnapshotLoadPerformance() throws IOException {
+		AVLNode fromExcel = manager.loadParkingSlotsFromFile(FILE_PATH_100K, new AVLTree());
+		manager.saveSnapshot("target/parking_lot_100k.snap", fromExcel);
+		AVLNode fromSnapshot = manager.loadSnapshot("target/parking_lot_100k.snap", new AVLTree());
+		assertEquals(dumpRows(fromExcel), dumpRows(fromSnapshot), "Snapshot did not round-trip the 100K lot!");
+
+		List<AVLNode> slots = new ArrayList<>();
+		LocalDateTime entryTime = LocalDateTime.of(2025, 3, 17, 8, 0, 0, 123456789);
+		for (int i = 1; i <= 1000000; i++) {
+			boolean occupied = i % 2 == 0;
+			slots.add(new AVLNode(i, occupied ? new Car("CAR" + i, entryTime.plusMinutes(i)) : null, !occupied,
+					i % 10 == 1));
+		}
+		AVLNode lot = avlTree.buildBalanced(slots);
+		manager.saveSnapshot("target/parking_lot_1m.snap", lot);
+		AVLNode reloaded = manager.loadSnapshot("target/parking_lot_1m.snap", new AVLTree());
+		assertEquals(dumpRows(lot), dumpRows(reloaded), "Snapshot did not round-trip the 1M lot!");
+		assertEquals(entryTime.plusMinutes(500000), avlTree.search(reloaded, 500000).getCarDetails().getEntryTime(),
+				"Snapshot lost the nanoseconds of the entry time!");
+
+		// A version 1 snapshot stores whole epoch seconds
+		Path versionOne = Path.of("target/parking_lot_v1.snap");
+		manager.saveSnapshot(versionOne.toString(), avlTree.buildBalanced(slots.subList(0, 2)));
+		ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(versionOne));
+		file.putInt(4, SlotSnapshot.VERSION_SECONDS);
+		file.putLong(SlotSnapshot.HEADER_SIZE + SlotSnapshot.RECORD_SIZE + 8,
+				entryTime.plusMinutes(2).toEpochSecond(ZoneOffset.UTC));
+		CRC32 crc = new CRC32();
+		crc.update(file.array(), SlotSnapshot.HEADER_SIZE, 2 * SlotSnapshot.RECORD_SIZE);
+		file.putLong(16, crc.getValue());
+		Files.write(versionOne, file.array());
+		assertEquals(entryTime.plusMinutes(2).withNano(0), avlTree.search(manager.loadSnapshot(versionOne.toString(),
+				new AVLTree()), 2).getCarDetails().getEntryTime(), "Version 1 snapshot was not read!");
+
+		// A snapshot that fails to write must leave the previous one and no
+		// temporary file behind
+		Path previous = Path.of("target/parking_lot_failed.snap");
+		manager.saveSnapshot(previous.toString(), avlTree.buildBalanced(slots.subList(0, 2)));
+		byte[] saved = Files.readAllBytes(previous);
+		AVLNode tooLong = avlTree.buildBalanced(List.of(new AVLNode(1, new Car("X".repeat(40), entryTime), false,
+				false)));
+		assertThrows(IOException.class, () -> SlotSnapshot.write(previous, tooLong), "Long plate was written!");
+		assertArrayEquals(saved, Files.readAllBytes(previous), "Failed write replaced the previous snapshot!");
+		assertFalse(Files.exists(Path.of("target/parking_lot_failed.snap.tmp")), "Failed write left a temp file!");
+
+		// A flipped byte must be detected by the checksum
+		Path corrupt = Path.of("target/parking_lot_corrupt.snap");
+		byte[] bytes = Files.readAllBytes(Path.of("target/parking_lot_100k.snap"));
+		bytes[bytes.length / 2] ^= 1;
+		Files.write(corrupt, bytes);
+		assertThrows(IOException.class, () -> SlotSnapshot.read(corrupt, (slotNumber, car, available, reserved) -> {
+		}), "Corrupt snapshot was not detected!");
+
+		// A plate length beyond the plate field must not read into the next record
+		// or past the end of the file
+		Path badPlate = Path.of("target/parking_lot_bad_plate.snap");
+		manager.saveSnapshot(badPlate.toString(), avlTree.buildBalanced(slots.subList(0, 2)));
+		bytes = Files.readAllBytes(badPlate);
+		bytes[SlotSnapshot.HEADER_SIZE + SlotSnapshot.RECORD_SIZE + 5] = (byte) 0xFF; // Plate length of slot 2
+		Files.write(badPlate, bytes);
+		assertThrows(IOException.class, () -> SlotSnapshot.read(badPlate, (slotNumber, car, available, reserved) -> {
+		}), "Corrupt plate length was not detected!");
+	}
+
+	// Test that the dataset generator writes the same seeded lot every time, with
+	// exact counts, to snapshots and to workbooks
+	@Test
+	public void testDatasetGenerator100K() throws IOException {
+		LocalDateTime referenceTime = LocalDateTime.of(2025, 3, 17, 8, 0);
+		DatasetGenerator generator = new DatasetGenerator(7);
+		generator.setOccupancy(0.3);
+		generator.setReservationRatio(0.1);
+		generator.setEntryTimes(referenceTime, Duration.ofHours(3), DatasetGenerator.StayDistribution.EXPONENTIAL);
+		generator.setPlateFormat("GEN-%d");
+
+		generator.writeSnapshot(Path.of("target/generated_100k.snap"), 100000);
+		generator.writeSnapshot(Path.of("target/generated_100k_again.snap"), 100000);
+		assertEquals(-1,
+				Files.mismatch(Path.of("target/generated_100k.snap"), Path.of("target/generated_100k_again.snap")),
+				"Same seed generated a different lot!");
+
+		AVLNode generated = manager.loadSnapshot("target/generated_100k.snap", new AVLTree());
+		assertEquals(new ParkingStatistics(100000, 30000, 7000).toString(),
+				manager.getParkingStatistics(generated).toString(), "Generated counts are not exact!");
+		long[] stayMinutes = { 0 };
+		avlTree.iterator(generated).forEachRemaining(slot -> {
+			if (!slot.isAvailable()) {
+				LocalDateTime entryTime = slot.getCarDetails().getEntryTime();
+				assertTrue(!entryTime.isAfter(referenceTime), "Car entered after the reference time!");
+				stayMinutes[0] += ChronoUnit.MINUTES.between(entryTime, referenceTime);
+			}
+		});
+		long meanStay = stayMinutes[0] / 30000;
+		assertTrue(meanStay > 170 && meanStay < 190, "Mean stay " + meanStay + " min is not about 3 hours!");
+		assertEquals("GEN-1", avlTree.stream(generated).filter(slot -> !slot.isAvailable()).findFirst().get()
+				.getCarDetails().getLicenseNumber(), "Plate format not applied!");
+
+		// A workbook holds the same slots as the generator hands out
+		generator.setSlotNumbers(10, 5);
+		generator.writeXlsx("target/generated_10k.xlsx", 10000);
+		List<String> expected = new ArrayList<>();
+		generator.generate(10000, (slotNumber, car, available, reserved) -> expected.add(slotNumber + " "
+				+ (car == null ? "" : car.getLicenseNumber() + " " + car.getEntryTime()) + " " + available + " " + reserved));
+		List<String> loaded = new ArrayList<>();
+		avlTree.iterator(manager.loadParkingSlotsStreaming("target/generated_10k.xlsx", new AVLTree()))
+				.forEachRemaining(slot -> loaded.add(slot.getSlotNumber() + " "
+						+ (slot.getCarDetails() == null ? ""
+								: slot.getCarDetails().getLicenseNumber() + " " + slot.getCarDetails().getEntryTime())
+						+ " " + slot.isAvailable() + " " + slot.isReserved()));
+		assertEquals(expected, loaded, "Workbook differs from the generated slots!");
+		assertThrows(IllegalArgumentException.class,
+				() -> generator.writeXlsx("target/too_large.xlsx", DatasetGenerator.MAX_XLSX_SLOTS + 1),
+				"Lot too large for a sheet was accepted!");
+	}
+
+	// Test that every timed operation is counted with sane percentiles, that the
+	// histogram is accurate, and that the metrics are readable over JMX
+	@Test
+	public void testOperationMetrics100K() throws Exception {
+		ParkingManager parkingManager = new ParkingManager();
+		AVLNode root = halfOccupiedLot(parkingManager);
+		quietly(() -> {
+			for (int i = 1; i <= 10000; i++) {
+				parkingManager.assignParkingSlot(root, "METRIC" + i);
+				parkingManager.freeSlot(root, 2 * i);
+				parkingManager.reserveSlot(root, 2 * i);
+				parkingManager.calculateParkingFee(root, 2 * i + 20001, 2.5);
+			}
+		});
+		ParkingMetrics metrics = parkingManager.getMetrics();
+		for (ParkingMetrics.Operation operation : new ParkingMetrics.Operation[] { ParkingMetrics.Operation.PARK,
+				ParkingMetrics.Operation.FREE, ParkingMetrics.Operation.RESERVE, ParkingMetrics.Operation.FEE }) {
+			OperationStatistics statistics = metrics.getStatistics(operation);
+			assertEquals(10000, statistics.getCount(), operation + " calls not all counted!");
+			assertTrue(statistics.getP50Nanos() > 0 && statistics.getP50Nanos() <= statistics.getP99Nanos()
+					&& statistics.getP99Nanos() <= statistics.getP999Nanos(), operation + " percentiles out of order!");
+		}
+		assertEquals(0, metrics.getStatistics(ParkingMetrics.Operation.LOAD).getCount(), "Phantom load counted!");
+
+		// Percentiles of 1 to 100000 ns must be within 1/16 above the exact ones
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int nanos = 1; nanos <= 100000; nanos++) {
+			histogram.record(nanos);
+		}
+		long[] percentiles = histogram.getPercentiles(50, 99, 99.9);
+		long[] exact = { 50000, 99000, 99900 };
+		for (int i = 0; i < exact.length; i++) {
+			assertTrue(percentiles[i] >= exact[i] && percentiles[i] <= exact[i] + exact[i] / 16,
+					"Percentile " + percentiles[i] + " too far from " + exact[i] + "!");
+		}
+
+		ObjectName name = metrics.register("performance-test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(100000, server.getAttribute(name, "TotalSlots"), "Node count gauge is wrong!");
+		assertEquals(parkingManager.getParkingStatistics(root).getOccupiedSlots(),
+				server.getAttribute(name, "OccupiedSlots"), "Occupancy gauge is wrong!");
+		assertEquals(root.getHeight(), server.getAttribute(name, "TreeHeight"), "Height gauge is wrong!");
+		CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+		assertEquals("PARK", operations[0].get("operation"), "Operations not published in order!");
+		assertEquals(10000L, operations[0].get("count"), "Park count not published!");
+
+		// Inserts rotate the root and releases empty slots without a timed operation
+		AVLNode grown = root;
+		for (int i = 1; i <= 1000; i++) {
+			grown = parkingManager.insertSlot(grown, 100000 + i);
+		}
+		assertEquals(101000, server.getAttribute(name, "TotalSlots"), "Gauges still read the root before inserts!");
+		assertEquals(grown.getHeight(), server.getAttribute(name, "TreeHeight"), "Height gauge is stale!");
+		AVLNode other = halfOccupiedLot(parkingManager);
+		parkingManager.releaseOldCars(other, 0);
+		assertEquals(100000, server.getAttribute(name, "TotalSlots"), "Gauges missed the released lot!");
+		assertEquals(0, server.getAttribute(name, "OccupiedSlots"), "Gauges missed the released lot!");
+		server.unregisterMBean(name);
+	}
+
+	// Test that operations publish their outcomes instead of printing them, for 100k
+	@Test
+	public void testOperationEvents100K() {
+		ParkingManager parkingManager = new ParkingManager();
+		AVLNode root = halfOccupiedLot(parkingManager);
+		List<ParkingEvent> events = new ArrayList<>();
+		parkingManager.setEventSink(events::add);
+		AVLTree eventTree = new AVLTree();
+		eventTree.setEventSink(events::add);
+		String printed = captured(() -> {
+			parkingManager.reserveSlot(root, 1);
+			parkingManager.reserveSlot(root, 2);
+			parkingManager.reserveSlot(root, 200001);
+			parkingManager.freeSlot(root, 200001);
+			parkingManager.freeSlot(root, 3);
+			parkingManager.freeSlot(root, 4);
+			parkingManager.freeByPlate(root, "NOBODY");
+			parkingManager.assignParkingSlot(root, "CAR6");
+			parkingManager.calculateParkingFee(root, 5, 2.5);
+			parkingManager.calculateParkingFee(root, 8, 2.5);
+			parkingManager.parkCarNear(root, "EVENT", 4);
+			eventTree.updateReservation(root, 0, true);
+		});
+		assertEquals("", printed, "Operations printed to the console!");
+		List<String> messages = new ArrayList<>();
+		for (ParkingEvent event : events) {
+			messages.add(event.getMessage());
+		}
+		assertEquals(List.of("Slot 1 has been reserved.", "Slot 2 is already occupied.", "Slot 200001 not found.",
+				"Slot 200001 is not present in the parking lot.", "Slot 3 is already available.",
+				"Slot 4 is now available.", "Car NOBODY is not parked in the parking lot.",
+				"Car CAR6 is already parked at slot 6.", "Slot 5 is not occupied.",
+				"Car CAR8 parked for 0 hours." + System.lineSeparator() + "Total Fee: EUR 0.0",
+				"Car EVENT parked at slot 4", "Slot 0 not found!"), messages, "Messages changed!");
+		assertEquals(SlotOutcome.FEE_CALCULATED, events.get(9).getOutcome(), "Fee outcome not structured!");
+		assertEquals("CAR8", events.get(9).getLicenseNumber(), "Fee event lost its car!");
+
+		// With the default sink, 100k operations must not write a byte to the console
+		ParkingManager quietManager = new ParkingManager();
+		AVLNode quietRoot = halfOccupiedLot(quietManager);
+		printed = captured(() -> {
+			for (int i = 1; i <= 50000; i++) {
+				quietManager.freeSlot(quietRoot, 2 * i);
+				quietManager.assignParkingSlot(quietRoot, "QUIET" + i);
+			}
+		});
+		assertEquals("", printed, "Default event sink printed to the console!");
+		assertEquals(50000, quietManager.getParkingStatistics(quietRoot).getOccupiedSlots(), "Operations lost!");
+
+		// Below DEBUG the async sink drops events before queueing them
+		AsyncEventSink sink = new AsyncEventSink(NOPLogger.NOP_LOGGER, 16);
+		for (int i = 0; i < 100000; i++) {
+			sink.publish(events.get(i % events.size()));
+		}
+		sink.close();
+		assertEquals(0, sink.getDroppedEvents(), "Disabled events were queued!");
+	}
+
+	// At DEBUG the async sink must log every event in order off the calling
+	// thread, drop and count what a stalled writer cannot take, and log the
+	// queued events on close
+	@Test
+	public void testAsyncEventSinkDelivery() throws InterruptedException {
+		RecordingLogger logger = new RecordingLogger();
+		AsyncEventSink sink = new AsyncEventSink(logger, 64);
+		for (int i = 1; i <= 1000; i++) {
+			sink.publish(new ParkingEvent(ParkingMetrics.Operation.FREE, SlotOutcome.FREED, i, null));
+			if (i % 50 == 0) {
+				logger.awaitLines(i); // Let the writer keep up with the queue
+			}
+		}
+		logger.awaitLines(1000);
+		assertEquals(0, sink.getDroppedEvents(), "Events dropped with room in the queue!");
+		for (int i = 1; i <= 1000; i++) {
+			assertEquals("FREE FREED: Slot " + i + " is now available.", logger.lines.get(i - 1),
+					"Events logged out of order!");
+		}
+		assertNotNull(logger.writer, "No event logged!");
+		assertFalse(logger.writer == Thread.currentThread(), "Events logged on the publishing thread!");
+		sink.close();
+
+		// Stall the writer on the first event, fill the queue and overflow it
+		RecordingLogger stalled = new RecordingLogger();
+		stalled.gate = new CountDownLatch(1);
+		AsyncEventSink full = new AsyncEventSink(stalled, 64);
+		full.publish(new ParkingEvent(ParkingMetrics.Operation.RESERVE, SlotOutcome.RESERVED, 0, null));
+		stalled.awaitLines(1);
+		for (int i = 1; i <= 100; i++) {
+			full.publish(new ParkingEvent(ParkingMetrics.Operation.RESERVE, SlotOutcome.RESERVED, i, null));
+		}
+		assertEquals(36, full.getDroppedEvents(), "Overflowing events not counted as dropped!");
+		stalled.gate.countDown();
+		full.close();
+		full.publish(new ParkingEvent(ParkingMetrics.Operation.RESERVE, SlotOutcome.RESERVED, 999, null));
+		assertEquals(65, stalled.lines.size(), "Queued events not logged on close!");
+		for (int i = 0; i <= 64; i++) {
+			assertEquals("RESERVE RESERVED: Slot " + i + " has been reserved.", stalled.lines.get(i),
+					"Queued events logged out of order!");
+		}
+	}
+
+	/**
+	 * Logger with every level enabled that keeps the formatted lines it is
+	 * given, and can hold the first one until a gate opens.
+	 */
+	private static class RecordingLogger extends LegacyAbstractLogger {
+
+		private static final long serialVersionUID = 1L;
+
+		final List<String> lines = Collections.synchronizedList(new ArrayList<>()); // Lines logged so far
+		volatile CountDownLatch gate; // Opened to let the first line through (null if never held)
+		volatile Thread writer; // Thread that logged the last line
+
+		@Override
+		protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern,
+				Object[] arguments, Throwable throwable) {
+			writer = Thread.currentThread();
+			lines.add(MessageFormatter.basicArrayFormat(messagePattern, arguments));
+			CountDownLatch held = gate;
+			if (held != null) {
+				try {
+					held.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		/**
+		 * Waits until at least the given number of lines have been logged.
+		 */
+		void awaitLines(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 10000;
+			while (lines.size() < count && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertTrue(lines.size() >= count, "Only " + lines.size() + " of " + count + " events logged!");
+		}
+
+		@Override
+		protected String getFullyQualifiedCallerName() {
+			return null;
+		}
+
+		@Override
+		public boolean isTraceEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isDebugEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isInfoEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isWarnEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isErrorEnabled() {
+			return true;
+		}
+	}
+
+	// Test journal group commit throughput, compaction and recovery for 100k
+	@Test
+	public void testJournalRecovery100K() throws IOException {
+		String snapshot = "target/journal_100k.snap";
+		String journalFile = "target/journal_100k.journal";
+		Files.deleteIfExists(Path.of(journalFile));
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 100000; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot, avlTree.buildBalanced(slots));
+
+		// Journal a shift of gate activity, compacting every 512 KB
+		ParkingManager gates = new ParkingManager();
+		AVLNode root = gates.startJournal(journalFile, snapshot, gates.loadSnapshot(snapshot, new AVLTree()), 5,
+				512 * 1024);
+		AVLNode lot = root;
+		quietly(() -> {
+			for (int i = 0; i < 60000; i++) {
+				gates.assignParkingSlot(lot, "CAR" + i);
+			}
+			for (int i = 1; i <= 60000; i += 3) {
+				gates.freeSlot(lot, i);
+			}
+			for (int i = 60001; i <= 100000; i += 7) {
+				gates.reserveSlot(lot, i);
+			}
+			gates.releaseOldCars(lot, 24);
+		});
+		gates.stopJournal();
+
+		// Recover as a restarted system would
+		ParkingManager restarted = new ParkingManager();
+		AVLNode recovered = restarted.startJournal(journalFile, snapshot,
+				restarted.loadSnapshot(snapshot, new AVLTree()));
+		restarted.stopJournal();
+		assertEquals(manager.getParkingStatistics(root).toString(),
+				manager.getParkingStatistics(recovered).toString(), "Journal replay did not recover the lot!");
+		assertEquals("CAR1", avlTree.search(recovered, 2).getCarDetails().getLicenseNumber(),
+				"Journal replay lost a parked car!");
+	}
+
+	// A snapshot that fails to load must not be checkpointed over, and the
+	// journal must be kept for the next attempt
+	@Test
+	public void testJournalKeptOnFailedLoad() throws IOException {
+		String snapshot = "target/failed_load.snap";
+		Path journalFile = Path.of("target/failed_load.journal");
+		Files.deleteIfExists(journalFile);
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot, avlTree.buildBalanced(slots));
+		ParkingManager gate = new ParkingManager();
+		AVLNode root = gate.startJournal(journalFile.toString(), snapshot, gate.loadSnapshot(snapshot, new AVLTree()));
+		gate.assignParkingSlot(root, "CAR1");
+		gate.stopJournal();
+
+		byte[] corrupt = Files.readAllBytes(Path.of(snapshot));
+		corrupt[corrupt.length - 1] ^= 1;
+		Files.write(Path.of(snapshot), corrupt);
+		byte[] journaled = Files.readAllBytes(journalFile);
+		ParkingManager restarted = new ParkingManager();
+		AVLNode loaded = restarted.loadSnapshot(snapshot, new AVLTree());
+		assertNull(loaded, "Corrupt snapshot was loaded!");
+		assertNull(restarted.startJournal(journalFile.toString(), snapshot, loaded), "Journal replayed on no lot!");
+		assertArrayEquals(corrupt, Files.readAllBytes(Path.of(snapshot)), "Corrupt snapshot was checkpointed over!");
+		assertArrayEquals(journaled, Files.readAllBytes(journalFile), "Journal was deleted after a failed load!");
+
+		corrupt[corrupt.length - 1] ^= 1;
+		Files.write(Path.of(snapshot), corrupt);
+		AVLNode recovered = restarted.startJournal(journalFile.toString(), snapshot,
+				restarted.loadSnapshot(snapshot, new AVLTree()));
+		restarted.stopJournal();
+		assertEquals("CAR1", avlTree.search(recovered, 1).getCarDetails().getLicenseNumber(),
+				"Journal was not replayed once the snapshot was restored!");
+	}
+
+	// Slots added while journaling must survive a restart, with what happened to
+	// them afterwards
+	@Test
+	public void testJournalInsertedSlots() throws IOException {
+		String snapshot = "target/inserted.snap";
+		Path journalFile = Path.of("target/inserted.journal");
+		Files.deleteIfExists(journalFile);
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot, avlTree.buildBalanced(slots));
+		ParkingManager gate = new ParkingManager();
+		AVLNode root = gate.startJournal(journalFile.toString(), snapshot, gate.loadSnapshot(snapshot, new AVLTree()));
+		root = gate.insertSlot(root, 11);
+		root = gate.insertSlot(root, 12);
+		gate.reserveSlot(root, 12);
+		gate.stopJournal();
+
+		ParkingManager restarted = new ParkingManager();
+		AVLNode recovered = restarted.startJournal(journalFile.toString(), snapshot,
+				restarted.loadSnapshot(snapshot, new AVLTree()));
+		restarted.stopJournal();
+		assertEquals(12, restarted.getParkingStatistics(recovered).getTotalSlots(), "Inserted slots were lost!");
+		assertTrue(avlTree.search(recovered, 12).isReserved(), "Reservation of an inserted slot was lost!");
+	}
+
+	// Replay must restore entry times to the nanosecond and free exactly the
+	// slots a release of old cars emptied
+	@Test
+	public void testJournalEntryTimes() throws IOException {
+		String snapshot = "target/entry_times.snap";
+		Path journalFile = Path.of("target/entry_times.journal");
+		Files.deleteIfExists(journalFile);
+		LocalDateTime now = LocalDateTime.now();
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slots.add(i == 5 ? new AVLNode(i, new Car("OLD5", now.minusHours(48)), false, false)
+					: new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot, avlTree.buildBalanced(slots));
+		ParkingManager gate = new ParkingManager();
+		AVLNode root = gate.startJournal(journalFile.toString(), snapshot, gate.loadSnapshot(snapshot, new AVLTree()));
+		gate.parkCar(root, "CAR1");
+		gate.parkCar(root, "CAR2");
+		gate.freeSlot(root, 1);
+		gate.releaseOldCars(root, 24);
+		gate.stopJournal();
+
+		ParkingManager restarted = new ParkingManager();
+		AVLNode recovered = restarted.startJournal(journalFile.toString(), snapshot,
+				restarted.loadSnapshot(snapshot, new AVLTree()));
+		restarted.stopJournal();
+		assertEquals(dumpRows(root), dumpRows(recovered), "Journal replay did not recover the lot!");
+		assertTrue(avlTree.search(recovered, 5).isAvailable(), "Released car is back after replay!");
+	}
+
+	// A compaction that fails must be counted and keep its journal, which the
+	// next rotation folds into the snapshot once it can be read again
+	@Test
+	public void testJournalCompactionRetry() throws IOException {
+		Path snapshot = Path.of("target/compaction_retry.snap");
+		Path journalFile = Path.of("target/compaction_retry.journal");
+		Path compacting = Path.of("target/compaction_retry.journal.compacting");
+		Files.deleteIfExists(journalFile);
+		Files.deleteIfExists(compacting);
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 100; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot.toString(), avlTree.buildBalanced(slots));
+		byte[] saved = Files.readAllBytes(snapshot);
+		byte[] corrupt = saved.clone();
+		corrupt[corrupt.length - 1] ^= 1;
+		Files.write(snapshot, corrupt);
+
+		SlotJournal journal = new SlotJournal(journalFile, snapshot, 1, 256);
+		for (int i = 1; i <= 50; i++) {
+			journal.sync();
+			journal.logPark(i, new Car("CAR" + i, LocalDateTime.now()));
+		}
+		journal.close();
+		assertTrue(journal.getCompactionFailures() > 0, "Failed compaction was not counted!");
+		assertNotNull(journal.getCompactionFailure(), "Failed compaction was not exposed!");
+		assertTrue(Files.exists(compacting), "Failed compaction lost its journal!");
+
+		Files.write(snapshot, saved);
+		journal = new SlotJournal(journalFile, snapshot, 1, 256);
+		for (int i = 51; i <= 100; i++) {
+			journal.sync();
+			journal.logPark(i, new Car("CAR" + i, LocalDateTime.now()));
+		}
+		journal.close();
+		assertEquals(0, journal.getCompactionFailures(), "Compaction failed with a readable snapshot!");
+		assertFalse(Files.exists(compacting), "Journal of the failed compaction was not folded in!");
+		AVLNode recovered = SlotJournal.recover(journalFile, snapshot, manager.loadSnapshot(snapshot.toString(),
+				new AVLTree()), new AVLTree());
+		assertEquals(0, manager.getParkingStatistics(recovered).getAvailableSlots(), "Compaction lost a car!");
+	}
+
+	// Check that durable commits return only once the change is on disk, alone
+	// and through the concurrent manager, even with a long group commit interval
+	@Test
+	public void testDurableCommits() throws IOException {
+		String snapshot = "target/durable.snap";
+		Path journalFile = Path.of("target/durable.journal");
+		Files.deleteIfExists(journalFile);
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		manager.saveSnapshot(snapshot, avlTree.buildBalanced(slots));
+
+		ParkingManager gate = new ParkingManager();
+		AVLNode root = gate.startJournal(journalFile.toString(), snapshot, gate.loadSnapshot(snapshot, new AVLTree()),
+				60000, Long.MAX_VALUE);
+		gate.assignParkingSlot(root, "CAR1");
+		assertEquals(0, Files.size(journalFile), "Park waited for the group commit interval!");
+		gate.setDurableCommits(true);
+		gate.assignParkingSlot(root, "CAR2");
+		long parked = Files.size(journalFile);
+		assertTrue(parked > 0, "Durable park returned before its record was on disk!");
+		gate.reserveSlot(root, 5);
+		assertTrue(Files.size(journalFile) > parked, "Durable reserve returned before its record was on disk!");
+
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(gate, root);
+		assertFalse(gate.isDurableCommits(), "Concurrent manager waits for the journal under its lock!");
+		long reserved = Files.size(journalFile);
+		gates.freeSlot(1);
+		assertTrue(Files.size(journalFile) > reserved, "Durable free returned before its record was on disk!");
+		gate.stopJournal();
+	}
+
+	// Records appended without waiting must all be on disk once the journal is
+	// synced, and replay to the parks they recorded
+	@Test
+	public void testJournalGroupCommitThroughput() throws IOException {
+		Path journalFile = Path.of("target/group_commit.journal");
+		Files.deleteIfExists(journalFile);
+		LocalDateTime entryTime = LocalDateTime.now();
+		try (SlotJournal journal = new SlotJournal(journalFile, Path.of("target/group_commit.snap"), 60000,
+				Long.MAX_VALUE)) {
+			for (int i = 1; i <= 500; i++) {
+				journal.logPark(i, new Car("CAR" + i, entryTime));
+			}
+			assertEquals(0, Files.size(journalFile), "Records were written before the group commit!");
+			journal.sync();
+			assertTrue(Files.size(journalFile) > 0, "Sync returned before the records were on disk!");
+		}
+
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 500; i++) {
+			slots.add(new AVLNode(i, null));
+		}
+		AVLNode replayed = SlotJournal.replay(journalFile, avlTree.buildBalanced(slots), avlTree);
+		assertEquals(500, manager.getParkingStatistics(replayed).getOccupiedSlots(), "Synced parks were lost!");
+		assertEquals(entryTime, avlTree.search(replayed, 250).getCarDetails().getEntryTime(),
+				"Synced park lost its entry time!");
+	}
+
+	/**
+	 * Runs the task with console output discarded and returns its duration in
+	 * milliseconds.
+	 */
+	private static long quietly(Runnable task) {
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			long start = System.nanoTime();
+			task.run();
+			return (System.nanoTime() - start) / 1000000;
+		} finally {
+			System.setOut(console);
+		}
+	}
+
+	// Heap per slot of the AVL and primitive slot stores on 1M slots, and of an
+	// empty primitive store small enough that 10M slots fit in 256 MB
+	@Test
+	public void testSlotStoreMemory() {
+		LocalDateTime entryTime = LocalDateTime.of(2025, 3, 17, 8, 0);
+		int slots = 1000000;
+
+		long before = usedHeapAfterGc();
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			boolean occupied = i % 2 == 0;
+			nodes.add(new AVLNode(i, occupied ? new Car("CAR" + i, entryTime.plusMinutes(i)) : null, !occupied, false));
+		}
+		SlotStore avl = new AvlSlotStore(avlTree, avlTree.buildBalanced(nodes));
+		nodes = null;
+		long avlBytes = usedHeapAfterGc() - before;
+
+		before = usedHeapAfterGc();
+		SlotStore primitive = new PrimitiveSlotStore(slots);
+		for (int i = 1; i <= slots; i++) {
+			boolean occupied = i % 2 == 0;
+			primitive.addSlot(i, occupied ? new Car("CAR" + i, entryTime.plusMinutes(i)) : null, !occupied, false);
+		}
+		long primitiveBytes = usedHeapAfterGc() - before;
+		assertTrue(primitiveBytes * 2 < avlBytes, "Primitive store is not much smaller than the AVL store!");
+		assertEquals(avl.getStatistics().toString(), primitive.getStatistics().toString(), "Stores differ!");
+		avl = null;
+		primitive = null;
+
+		before = usedHeapAfterGc();
+		PrimitiveSlotStore empty = new PrimitiveSlotStore(slots);
+		for (int i = 1; i <= slots; i++) {
+			empty.addSlot(i, null, true, false);
+		}
+		long emptyBytes = usedHeapAfterGc() - before;
+		assertEquals(slots, empty.getStatistics().getAvailableSlots(), "Empty slots not stored!");
+		assertTrue(emptyBytes * 10 < 256L << 20, "10M slots would need more than 256 MB!");
+	}
+
+	/**
+	 * Returns the heap in use after a garbage collection.
+	 */
+	private static long usedHeapAfterGc() {
+		System.gc();
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	// Bulk construction of 1M sorted slots must build the tree one-by-one
+	// insertion would: balanced, with correct heights and counts, and in order
+	@Test
+	public void testBulkBuildPerformance1M() {
+		int slotCount = 1000000;
+		List<AVLNode> slots = new ArrayList<>(slotCount);
+		for (int i = 1; i <= slotCount; i++) {
+			slots.add(new AVLNode(i, null, i % 2 == 0, i % 4 == 0));
+		}
+		AVLNode root = avlTree.buildBalanced(slots);
+		AVLNode inserted = null;
+		for (int i = 1; i <= slotCount; i++) {
+			inserted = avlTree.insert(inserted, i, null, i % 2 == 0, i % 4 == 0);
+		}
+
+		int[] previous = { 0 };
+		checkSubtree(root, previous);
+		assertEquals(slotCount, previous[0], "Bulk built tree does not end at the last slot!");
+		assertEquals(20, root.getHeight(), "Bulk built tree is not perfectly balanced!");
+		assertEquals(slotCount, root.getSize(), "Bulk built tree has the wrong size!");
+		assertEquals(slotCount / 2, root.getAvailableCount(), "Bulk built tree has the wrong available count!");
+		assertEquals(slotCount / 4, root.getReservedCount(), "Bulk built tree has the wrong reserved count!");
+		assertEquals(manager.getParkingStatistics(inserted).toString(),
+				manager.getParkingStatistics(root).toString(), "Bulk built tree has wrong counts!");
+		assertEquals(2, avlTree.findNearestAvailableSlot(root), "Wrong nearest slot in bulk built tree!");
+	}
+
+	/**
+	 * Checks that a subtree is balanced, that its heights and counts match its
+	 * slots, and that its slots ascend in order after the previous slot number.
+	 */
+	private static void checkSubtree(AVLNode node, int[] previous) {
+		if (node == null) {
+			return;
+		}
+		AVLNode left = node.getLeftChild();
+		AVLNode right = node.getRightChild();
+		checkSubtree(left, previous);
+		assertTrue(node.getSlotNumber() > previous[0], "Slot " + node.getSlotNumber() + " is out of order!");
+		previous[0] = node.getSlotNumber();
+		checkSubtree(right, previous);
+
+		int leftHeight = left == null ? 0 : left.getHeight();
+		int rightHeight = right == null ? 0 : right.getHeight();
+		assertTrue(Math.abs(leftHeight - rightHeight) <= 1, "Slot " + node.getSlotNumber() + " is unbalanced!");
+		assertEquals(1 + Math.max(leftHeight, rightHeight), node.getHeight(),
+				"Slot " + node.getSlotNumber() + " has the wrong height!");
+		assertEquals(1 + (left == null ? 0 : left.getSize()) + (right == null ? 0 : right.getSize()), node.getSize(),
+				"Slot " + node.getSlotNumber() + " has the wrong size!");
+		assertEquals((node.isAvailable() ? 1 : 0) + (left == null ? 0 : left.getAvailableCount())
+				+ (right == null ? 0 : right.getAvailableCount()), node.getAvailableCount(),
+				"Slot " + node.getSlotNumber() + " has the wrong available count!");
+		assertEquals((node.isAvailable() && node.isReserved() ? 1 : 0) + (left == null ? 0 : left.getReservedCount())
+				+ (right == null ? 0 : right.getReservedCount()), node.getReservedCount(),
+				"Slot " + node.getSlotNumber() + " has the wrong reserved count!");
+	}
+
+	// Test bulk construction from unsorted slots with duplicates
+	@Test
+	public void testBulkBuildUnsorted() {
+		List<AVLNode> slots = new ArrayList<>();
+		for (int i = 1; i <= 10000; i++) {
+			slots.add(new AVLNode(i * 5, null));
+		}
+		slots.add(new AVLNode(25, null, false, false)); // Duplicate slot number, only one node is kept
+		Collections.shuffle(slots);
+
+		AVLNode root = avlTree.buildBalanced(slots);
+		assertEquals(10000, root.getSize(), "Duplicate slot was not dropped!");
+		assertEquals(14, root.getHeight(), "Tree built from unsorted slots is not balanced!");
+		for (int i = 1; i <= 10000; i++) {
+			assertNotNull(avlTree.search(root, i * 5), "Slot missing from tree built from unsorted slots!");
+		}
+	}
+
 	// Test free slot performance for 10k
 	@Test
 	public void testFreeSlotPerformance10K() {
@@ -131,4 +1564,132 @@ public class PerformanceTest {
 		}, "Reserving 100K slots took too long!");
 	}
 
-}
\ No newline at end of file
+	// The bitmap and tree allocators on a 100k lot at 99% occupancy must agree
+	// on the nearest free slot, and park/free cycles through the manager must
+	// keep the bitmap in sync with the lot
+	@Test
+	public void testBitmapAllocatorNearlyFullLot100K() {
+		LocalDateTime entryTime = LocalDateTime.of(2025, 3, 17, 8, 0);
+		int slots = 100000;
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			boolean free = i % 100 == 37;
+			nodes.add(new AVLNode(i, free ? null : new Car("CAR" + i, entryTime), free, false));
+		}
+		AVLNode root = avlTree.buildBalanced(nodes);
+		ParkingManager bitmapManager = new ParkingManager();
+		bitmapManager.indexParkedCars(root);
+		assertTrue(bitmapManager.useBitmapAllocator(root), "Densely numbered lot kept on the tree!");
+		assertEquals(avlTree.findNearestAvailableSlot(root), bitmapManager.findNearestAvailableSlot(root),
+				"Bitmap and tree disagree on the nearest slot!");
+		assertEquals(37, bitmapManager.findNearestAvailableSlot(root), "Finding the nearest slot changed the bitmap!");
+
+		// A slot freed below the nearest one becomes the nearest, until it is taken again
+		bitmapManager.vacateSlot(root, 5);
+		assertEquals(5, bitmapManager.findNearestAvailableSlot(root), "Freed slot missing from the bitmap!");
+		assertEquals(5, avlTree.findNearestAvailableSlot(root), "Freed slot missing from the tree!");
+		assertEquals(5, bitmapManager.parkCar(root, "CAR5").getSlotNumber(), "Car not parked in the freed slot!");
+		assertEquals(37, bitmapManager.findNearestAvailableSlot(root), "Taken slot still free in the bitmap!");
+
+		String before = manager.getParkingStatistics(root).toString();
+		int cars = manager.getParkingStatistics(root).getAvailableSlots();
+		quietly(() -> parkAndFree(new ParkingManager(), root, cars));
+		quietly(() -> parkAndFree(bitmapManager, root, cars));
+		assertEquals(before, manager.getParkingStatistics(root).toString(), "Lot not restored after park and free!");
+		assertEquals(37, bitmapManager.findNearestAvailableSlot(root), "Bitmap out of sync after park and free!");
+	}
+
+	// A manager using the bitmap allocator for one lot must allocate from the
+	// tree in any other lot and leave the bitmap of the first lot untouched
+	@Test
+	public void testBitmapAllocatorBoundToLot() {
+		List<AVLNode> slotsA = new ArrayList<>();
+		List<AVLNode> slotsB = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			slotsA.add(new AVLNode(i, i <= 5 ? new Car("A" + i, LocalDateTime.now()) : null, i > 5, false));
+			slotsB.add(new AVLNode(i, null));
+		}
+		AVLNode lotA = avlTree.buildBalanced(slotsA);
+		AVLNode lotB = avlTree.buildBalanced(slotsB);
+		ParkingManager gates = new ParkingManager();
+		gates.indexParkedCars(lotA);
+		gates.useBitmapAllocator(lotA);
+
+		assertEquals(1, gates.findNearestAvailableSlot(lotB), "Lot B answered from the bitmap of lot A!");
+		assertEquals(1, gates.parkCar(lotB, "B1").getSlotNumber(), "Car parked in lot B by the bitmap of lot A!");
+		assertEquals(6, gates.findNearestAvailableSlot(lotA), "Parking in lot B changed the bitmap of lot A!");
+		gates.vacateSlot(lotB, 1);
+		gates.parkCar(lotB, "B1");
+		gates.parkCar(lotB, "B2");
+		gates.vacateSlot(lotB, 2);
+		assertEquals(6, gates.parkCar(lotA, "A6").getSlotNumber(), "Freeing in lot B changed the bitmap of lot A!");
+
+		// Rotations keep the bitmap on the lot
+		AVLNode rotated = gates.insertSlot(gates.insertSlot(lotA, 11), 12);
+		assertEquals(7, gates.parkCar(rotated, "A7").getSlotNumber(), "Bitmap lost after rotations!");
+		assertEquals(2, gates.findNearestAvailableSlot(lotB), "Lot B answered from the bitmap of lot A!");
+	}
+
+	// The bitmap starts at the lowest slot number, so negative numbers and slots
+	// inserted below the lot work; sparse lots, and lots made sparse by an
+	// inserted slot, allocate from the tree instead of a huge bitmap
+	@Test
+	public void testBitmapAllocatorOffsetAndSparseLots() {
+		List<AVLNode> negative = new ArrayList<>();
+		for (int i = -5; i <= 4; i++) {
+			negative.add(new AVLNode(i, i < -3 ? new Car("N" + i, LocalDateTime.now()) : null, i >= -3, false));
+		}
+		AVLNode lot = avlTree.buildBalanced(negative);
+		ParkingManager gates = new ParkingManager();
+		gates.indexParkedCars(lot);
+		assertTrue(gates.useBitmapAllocator(lot), "Densely numbered negative lot kept on the tree!");
+		assertEquals(-3, gates.findNearestAvailableSlot(lot), "Wrong nearest negative slot!");
+		assertEquals(-3, gates.parkCar(lot, "N-3").getSlotNumber(), "Car not parked in the nearest negative slot!");
+		lot = gates.insertSlot(lot, -10);
+		assertEquals(-10, gates.findNearestAvailableSlot(lot), "Slot inserted below the lot missing from the bitmap!");
+		assertEquals(-10, gates.parkCar(lot, "N-10").getSlotNumber(), "Car not parked in the inserted slot!");
+		assertEquals(-2, gates.parkCar(lot, "N-2").getSlotNumber(), "Bitmap lost slots when it grew down!");
+		gates.vacateSlot(lot, -5);
+		assertEquals(-5, gates.findNearestAvailableSlot(lot), "Freed negative slot missing from the bitmap!");
+
+		// One far away slot number makes the lot sparse
+		List<AVLNode> sparse = new ArrayList<>();
+		for (int i = 1; i <= 9; i++) {
+			sparse.add(new AVLNode(i, null));
+		}
+		sparse.add(new AVLNode(2000000000, null));
+		AVLNode sparseLot = avlTree.buildBalanced(sparse);
+		assertFalse(FreeSlotBitmap.isDense(sparseLot), "Sparse lot reported dense!");
+		assertNull(FreeSlotBitmap.of(sparseLot), "Bitmap built for a sparse lot!");
+		assertFalse(gates.useBitmapAllocator(sparseLot), "Sparse lot allocated from a bitmap!");
+		assertEquals(1, gates.parkCar(sparseLot, "S1").getSlotNumber(), "Car not parked from the tree!");
+
+		// Inserting a far away slot into a dense lot falls back to the tree
+		List<AVLNode> dense = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			dense.add(new AVLNode(i, null));
+		}
+		AVLNode denseLot = avlTree.buildBalanced(dense);
+		assertTrue(gates.useBitmapAllocator(denseLot), "Densely numbered lot kept on the tree!");
+		denseLot = gates.insertSlot(denseLot, 2000000000);
+		assertEquals(1, gates.parkCar(denseLot, "D1").getSlotNumber(), "Car not parked from the tree!");
+		assertEquals(2, gates.findNearestAvailableSlot(denseLot), "Wrong nearest slot after the fallback!");
+		assertTrue(avlTree.search(denseLot, 2000000000).isAvailable(), "Inserted slot not available!");
+	}
+
+	/**
+	 * Fills the free slots 37, 137, 237, ... of a lot through the manager, in
+	 * order, then frees them again.
+	 */
+	private static void parkAndFree(ParkingManager parkingManager, AVLNode root, int cars) {
+		int[] parked = new int[cars];
+		for (int i = 0; i < cars; i++) {
+			parked[i] = parkingManager.parkCar(root, "NEW" + i).getSlotNumber();
+			assertEquals(37 + 100 * i, parked[i], "Car not parked in the nearest slot!");
+		}
+		assertNull(parkingManager.parkCar(root, "EXTRA"), "Car parked in a full lot!");
+		for (int slotNumber : parked) {
+			parkingManager.vacateSlot(root, slotNumber);
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package com.parkinglot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+public class ShardedParkingManagerTest {
+
+	private static final int SLOTS = 100000;
+	private static final int ZONE_SLOTS = 5000;
+
+	// The same random operations on a sharded lot and a single lot must park
+	// cars in the same slots and leave the same counters, old cars included
+	@Test
+	public void testShardsMatchSingleLot() {
+		Random random = new Random(17);
+		LocalDateTime now = LocalDateTime.now();
+		ShardedParkingManager sharded = new ShardedParkingManager(newLot(SLOTS, now), floors(SLOTS));
+		ParkingManager single = new ParkingManager();
+		AVLNode root = newLot(SLOTS, now);
+		single.indexParkedCars(root);
+		ConcurrentParkingManager gates = new ConcurrentParkingManager(single, root);
+		assertEquals(gates.getParkingStatistics().toString(), sharded.getParkingStatistics().toString(),
+				"Slots lost while sharding!");
+
+		for (int operation = 0; operation < 200000; operation++) {
+			int slotNumber = random.nextInt(SLOTS + 10);
+			switch (random.nextInt(6)) {
+			case 0:
+			case 1:
+				AVLNode expected = gates.parkCar("CAR" + operation);
+				AVLNode parked = sharded.parkCar("CAR" + operation);
+				assertEquals(describe(expected), describe(parked), "Cars parked in different slots!");
+				break;
+			case 2:
+				assertEquals(gates.freeSlot(slotNumber), sharded.freeSlot(slotNumber), "Different free outcome!");
+				break;
+			case 3:
+				assertEquals(gates.reserveSlot(slotNumber), sharded.reserveSlot(slotNumber),
+						"Different reservation outcome!");
+				break;
+			case 4:
+				String license = "CAR" + random.nextInt(operation + 1);
+				assertEquals(describe(gates.findSlotByPlate(license)),
+						describe(sharded.findSlotByPlate(license)), "Different slot found by plate!");
+				break;
+			default:
+				assertEquals(describe(gates.search(slotNumber)), describe(sharded.search(slotNumber)),
+						"Different slot found!");
+			}
+		}
+		assertEquals(gates.getParkingStatistics().toString(), sharded.getParkingStatistics().toString(),
+				"Counters differ!");
+		Tariff tariff = Tariff.capped(2.5, 20);
+		assertEquals(gates.calculateRevenue(tariff, now).toString(), sharded.calculateRevenue(tariff, now).toString(),
+				"Revenue differs!");
+
+		gates.releaseOldCars(24);
+		sharded.releaseOldCars(24);
+		assertEquals(gates.getParkingStatistics().toString(), sharded.getParkingStatistics().toString(),
+				"Different old cars released!");
+
+		sharded.saveSnapshots("target/sharded");
+		ParkingManager loader = new ParkingManager();
+		int saved = 0;
+		for (int zone = 1; zone <= SLOTS / ZONE_SLOTS; zone++) {
+			String path = "target/sharded-zone" + zone + ".snap";
+			assertTrue(new File(path).exists(), "Snapshot of zone " + zone + " missing!");
+			saved += loader.getParkingStatistics(loader.loadSnapshot(path, new AVLTree())).getTotalSlots();
+		}
+		assertEquals(SLOTS, saved, "Snapshots do not hold every slot!");
+	}
+
+	// Parking near a gate stays in the gate's zone until it is full, then
+	// moves to the closest zone; zones must not overlap or leave slots out
+	@Test
+	public void testParkNearGateAndZoneChecks() {
+		ShardedParkingManager sharded = new ShardedParkingManager(newLot(3 * ZONE_SLOTS, null), floors(3 * ZONE_SLOTS));
+		int gate = ZONE_SLOTS + ZONE_SLOTS / 2; // Middle of the second floor
+		for (int i = 0; i < ZONE_SLOTS; i++) {
+			AVLNode slot = sharded.parkCarNear("GATE" + i, gate);
+			assertTrue(sharded.getZones().get(1).contains(slot.getSlotNumber()), "Car left the zone of its gate!");
+		}
+		assertEquals(ZONE_SLOTS, sharded.getZoneStatistics(1).getOccupiedSlots(), "Zone of the gate not full!");
+		assertEquals(ZONE_SLOTS, sharded.parkCarNear("OVERFLOW", gate).getSlotNumber(),
+				"Car not parked in the closest zone!");
+		assertNull(sharded.parkCarNear("GATE0", gate), "Parked car was parked again!");
+
+		assertThrows(IllegalArgumentException.class, () -> new ShardedParkingManager(newLot(100, null),
+				List.of(new ParkingZone("A", 1, 60), new ParkingZone("B", 50, 100))), "Overlapping zones accepted!");
+		assertThrows(IllegalArgumentException.class,
+				() -> new ShardedParkingManager(newLot(100, null), List.of(new ParkingZone("A", 1, 60))),
+				"Slots outside every zone accepted!");
+	}
+
+	// Gates park and free cars of their own floor at the same time; afterwards
+	// every parked car must be found in its own slot, in the zone of its gate,
+	// no slot may hold two cars and the counters must match the cars parked
+	@Test
+	public void testConcurrentZonedGates() throws InterruptedException {
+		int threads = 4;
+		ShardedParkingManager sharded = new ShardedParkingManager(newLot(SLOTS, null), floors(SLOTS));
+		List<Map<String, Integer>> parkedByGate = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			parkedByGate.add(new HashMap<>());
+		}
+		runGates(threads, 20000, (gate, i) -> {
+			Map<String, Integer> parked = parkedByGate.get(gate);
+			if (parked.isEmpty() || ThreadLocalRandom.current().nextInt(5) < 3) {
+				String license = "GATE" + gate + "-" + i;
+				AVLNode slot = sharded.parkCarNear(license, gate * ZONE_SLOTS + ZONE_SLOTS / 2);
+				parked.put(license, slot.getSlotNumber());
+			} else {
+				String license = parked.keySet().iterator().next();
+				assertTrue(sharded.freeSlot(parked.remove(license)), "Parked car could not leave!");
+			}
+		});
+
+		Set<Integer> taken = new HashSet<>();
+		int cars = 0;
+		for (int gate = 0; gate < threads; gate++) {
+			Map<String, Integer> parked = parkedByGate.get(gate);
+			for (Map.Entry<String, Integer> car : parked.entrySet()) {
+				assertTrue(taken.add(car.getValue()), "Two cars parked in slot " + car.getValue() + "!");
+				assertTrue(sharded.getZones().get(gate).contains(car.getValue()), "Car left the zone of its gate!");
+				assertEquals(car.getValue() + " false false " + car.getKey(), describe(sharded.search(car.getValue())),
+						"Car lost from its slot!");
+				assertEquals(car.getValue(), sharded.findSlotByPlate(car.getKey()).getSlotNumber(),
+						"Car not found by plate!");
+			}
+			assertEquals(parked.size(), sharded.getZoneStatistics(gate).getOccupiedSlots(), "Zone counters differ!");
+			cars += parked.size();
+		}
+		ParkingStatistics statistics = sharded.getParkingStatistics();
+		assertEquals(SLOTS, statistics.getTotalSlots(), "Slots lost under load!");
+		assertEquals(cars, statistics.getOccupiedSlots(), "Occupied counter differs from the cars parked!");
+		assertEquals(SLOTS - cars, statistics.getAvailableSlots(), "Available counter differs!");
+	}
+
+	/**
+	 * Runs gate threads that each run an operation a number of times, given the
+	 * number of the gate, from 0, and of the operation, and waits for them.
+	 */
+	private static void runGates(int threads, int operationsPerThread, GateOperation operation)
+			throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		LongAdder failures = new LongAdder();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			int gate = t;
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < operationsPerThread; i++) {
+						operation.run(gate, i);
+					}
+				} catch (Throwable e) {
+					failures.increment();
+					e.printStackTrace();
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(0, failures.sum(), "A gate thread failed!");
+	}
+
+	/**
+	 * An operation run by a gate thread.
+	 */
+	private interface GateOperation {
+		void run(int gate, int operation);
+	}
+
+	/**
+	 * Describes a slot by its number, status and license number, leaving out
+	 * the entry time.
+	 */
+	private static String describe(AVLNode slot) {
+		if (slot == null) {
+			return "none";
+		}
+		Car car = slot.getCarDetails();
+		return slot.getSlotNumber() + " " + slot.isAvailable() + " " + slot.isReserved() + " "
+				+ (car == null ? null : car.getLicenseNumber());
+	}
+
+	/**
+	 * Builds a parking lot with slots 1 to the given count, where every tenth
+	 * slot holds a car that arrived two days before the given time (none if the
+	 * time is null).
+	 */
+	private static AVLNode newLot(int slots, LocalDateTime now) {
+		List<AVLNode> nodes = new ArrayList<>(slots);
+		for (int i = 1; i <= slots; i++) {
+			boolean occupied = now != null && i % 10 == 0;
+			nodes.add(new AVLNode(i, occupied ? new Car("OLD" + i, now.minusDays(2)) : null, !occupied, false));
+		}
+		return new AVLTree().buildBalanced(nodes);
+	}
+
+	/**
+	 * Splits slots 1 to the given count into floors of 5000 slots.
+	 */
+	private static List<ParkingZone> floors(int slots) {
+		List<ParkingZone> floors = new ArrayList<>();
+		for (int first = 1; first <= slots; first += ZONE_SLOTS) {
+			floors.add(new ParkingZone("Level " + (first / ZONE_SLOTS + 1), first, first + ZONE_SLOTS - 1));
+		}
+		return floors;
+	}
+}
@@ -0,0 +1,87 @@
+package com.parkinglot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SlotStoreTest {
+
+	// Random operations applied to both stores must give the same outcomes and
+	// leave the same slots behind, including slots added out of order
+	@Test
+	public void testPrimitiveStoreMatchesAvlStore() {
+		Random random = new Random(7);
+		LocalDateTime start = LocalDateTime.of(2025, 3, 17, 8, 0);
+		SlotStore avl = new AvlSlotStore();
+		SlotStore primitive = new PrimitiveSlotStore();
+		for (int i = 1; i <= 20000; i += 2) {
+			Car car = random.nextInt(4) == 0 ? new Car("OLD" + i, start.minusMinutes(random.nextInt(3000))) : null;
+			boolean reserved = random.nextInt(10) == 0;
+			avl.addSlot(i, car, car == null, reserved);
+			primitive.addSlot(i, car, car == null, reserved);
+		}
+		for (int i = 20000; i >= 2; i -= 2) {
+			avl.addSlot(i, null, true, false);
+			primitive.addSlot(i, null, true, false);
+		}
+		avl.addSlot(5, null, false, false);
+		primitive.addSlot(5, null, false, false);
+
+		for (int operation = 0; operation < 200000; operation++) {
+			int slotNumber = random.nextInt(20010);
+			LocalDateTime now = start.plusMinutes(operation / 20);
+			switch (random.nextInt(8)) {
+			case 0:
+			case 1:
+			case 2:
+				assertEquals(avl.parkCar("CAR" + operation, now), primitive.parkCar("CAR" + operation, now),
+						"Cars parked in different slots!");
+				break;
+			case 3:
+			case 4:
+				assertEquals(avl.freeSlot(slotNumber), primitive.freeSlot(slotNumber), "Different free outcome!");
+				break;
+			case 5:
+				assertEquals(avl.reserveSlot(slotNumber), primitive.reserveSlot(slotNumber),
+						"Different reservation outcome!");
+				break;
+			case 6:
+				assertEquals(avl.isAvailable(slotNumber), primitive.isAvailable(slotNumber), "Different status!");
+				assertEquals(String.valueOf(avl.getCar(slotNumber)), String.valueOf(primitive.getCar(slotNumber)),
+						"Different car!");
+				break;
+			default:
+				if (operation % 5000 == 7) {
+					assertEquals(avl.releaseOldCars(24, now), primitive.releaseOldCars(24, now),
+							"Different number of old cars released!");
+				}
+			}
+			assertEquals(avl.findNearestAvailableSlot(), primitive.findNearestAvailableSlot(),
+					"Different nearest available slot!");
+		}
+
+		assertEquals(avl.getStatistics().toString(), primitive.getStatistics().toString(), "Counters differ!");
+		assertEquals(dump(avl), dump(primitive), "Stores hold different slots!");
+
+		// A snapshot of the AVL store loads into a primitive store unchanged
+		ParkingManager manager = new ParkingManager();
+		manager.saveSnapshot("target/slot_store.snap", ((AvlSlotStore) avl).getRoot());
+		SlotStore loaded = new PrimitiveSlotStore();
+		assertTrue(manager.loadSnapshot("target/slot_store.snap", loaded), "Snapshot not loaded!");
+		assertEquals(dump(avl), dump(loaded), "Snapshot did not round-trip into the primitive store!");
+	}
+
+	/**
+	 * Renders every slot of a store, in order.
+	 */
+	private static String dump(SlotStore store) {
+		StringBuilder slots = new StringBuilder();
+		store.forEachSlot((slotNumber, car, available, reserved) -> slots.append(slotNumber).append(' ').append(car)
+				.append(' ').append(available).append(' ').append(reserved).append('\n'));
+		return slots.toString();
+	}
+}